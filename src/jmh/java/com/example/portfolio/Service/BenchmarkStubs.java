@@ -0,0 +1,26 @@
+package com.example.portfolio.Service;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+/** Interface stand-ins for benchmarks, which run without Spring, a database or Mockito. */
+final class BenchmarkStubs {
+
+    private BenchmarkStubs() {
+    }
+
+    /** An implementation answering the named methods with fixed values and every other call with {@code null}. */
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> type, Map<String, Object> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> type.getSimpleName() + " stub";
+                };
+            }
+            return answers.get(method.getName());
+        });
+    }
+}
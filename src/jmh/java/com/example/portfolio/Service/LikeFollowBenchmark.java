@@ -0,0 +1,106 @@
+package com.example.portfolio.Service;
+
+import com.example.portfolio.Repository.ProjectRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-request decisions behind likes and follows: whether a like is new (a set lookup in
+ * {@link LikeBuffer}) and whether one user follows another (an adjacency lookup in {@link FollowGraph}
+ * holding a million edges). Neither touches the database once warm. Setup prints the heap the graph
+ * takes, measured and as estimated by {@link FollowGraph#estimatedBytes()}, so the estimate is checked
+ * against the JVM whenever the sets change.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LikeFollowBenchmark {
+
+    private static final int USERS = 100_000;
+    private static final int EDGES = 1_000_000;
+    private static final int PROJECTS = 10_000;
+    // Warm users times the likes each, a power of two so a cursor can wrap with a mask
+    private static final int LIKES = 1024 * 16;
+
+    private FollowGraph followGraph;
+    private LikeBuffer likeBuffer;
+    private long[] likedUsers;
+    private long[] likedProjects;
+    private long[] probes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        long heapBefore = usedHeapAfterGc();
+        followGraph = new FollowGraph(new JdbcTemplate());
+        while (followGraph.edgeCount() < EDGES) {
+            long follower = 1 + random.nextInt(USERS);
+            long followed = 1 + random.nextInt(USERS);
+            if (follower != followed) {
+                followGraph.addEdge(follower, followed);
+            }
+        }
+        long measured = usedHeapAfterGc() - heapBefore;
+        long estimated = followGraph.estimatedBytes();
+        System.out.printf("%nFollow graph of %,d edges: %,d bytes measured, %,d estimated (%.1f vs %.1f bytes per edge)%n",
+                EDGES, measured, estimated, (double) measured / EDGES, (double) estimated / EDGES);
+
+        ProjectRepository projectRepository = BenchmarkStubs.stub(ProjectRepository.class,
+                Map.of("findLikedProjectIds", List.of()));
+        likeBuffer = new LikeBuffer(projectRepository, new JdbcTemplate(),
+                BenchmarkStubs.stub(PlatformTransactionManager.class, Map.of()), 10_000, Duration.ofMinutes(30));
+        likedUsers = new long[LIKES];
+        likedProjects = new long[LIKES];
+        for (int i = 0; i < LIKES; i++) {
+            likedUsers[i] = 1 + i / 16;
+            likedProjects[i] = 1 + random.nextInt(PROJECTS);
+            likeBuffer.like(likedUsers[i], likedProjects[i]);
+        }
+
+        probes = new long[4096];
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = 1 + random.nextInt(USERS);
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        // A few rounds, as one System.gc() is only a hint and may leave garbage behind
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public boolean isFollowing(Cursor cursor) {
+        int i = cursor.next++ & 4095;
+        return followGraph.isFollowing(probes[i], probes[(i + 1) & 4095]);
+    }
+
+    @Benchmark
+    public boolean repeatedLike(Cursor cursor) {
+        // A like the warm user already gave: the set check, and nothing is queued for the next flush
+        int i = cursor.next++ & (LIKES - 1);
+        return likeBuffer.like(likedUsers[i], likedProjects[i]);
+    }
+
+    @Benchmark
+    public int followerCount(Cursor cursor) {
+        return followGraph.followerCount(probes[cursor.next++ & 4095]);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.portfolio.Service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upload hashing per {@link ContentHasher.Algorithm}: hashing a file that is already on disk, and
+ * {@link MediaStorage#stage}, which hashes while copying to a temp file. For the tree hash the gap
+ * between the two shrinks as leaves are hashed in parallel with the write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MediaHashBenchmark {
+
+    @Param({"1024", "65536", "1048576", "10485760"})
+    int size;
+
+    @Param({"MD5", "SHA_256", "SHA_256_TREE"})
+    ContentHasher.Algorithm algorithm;
+
+    private byte[] content;
+    private Path tempDir;
+    private Path storedFile;
+    private ContentHasher hasher;
+    private MediaStorage storage;
+
+    @Setup
+    public void setUp() throws IOException {
+        content = new byte[size];
+        new Random(42).nextBytes(content);
+        tempDir = Files.createTempDirectory("media-hash-bench");
+        storedFile = Files.write(tempDir.resolve("stored.bin"), content);
+        hasher = new ContentHasher(algorithm, 0, false);
+        storage = new MediaStorage(hasher, new PackStore(tempDir.toString(), DataSize.ofMegabytes(64), DataSize.ofKilobytes(256), 0.5, 600_000),
+                new SimpleMeterRegistry(), tempDir.toString());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        hasher.shutdown();
+        Files.deleteIfExists(storedFile);
+        Files.deleteIfExists(tempDir);
+    }
+
+    @Benchmark
+    public String hashStoredFile() throws IOException {
+        return hasher.hash(storedFile);
+    }
+
+    @Benchmark
+    public String stageToDisk() throws IOException {
+        MediaStorage.StagedMedia staged = storage.stage(new ByteArrayInputStream(content));
+        storage.discard(staged);
+        return staged.hash();
+    }
+}
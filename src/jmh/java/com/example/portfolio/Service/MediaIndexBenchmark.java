@@ -0,0 +1,96 @@
+package com.example.portfolio.Service;
+
+import com.example.portfolio.Repository.MediaObjectRepository;
+import com.example.portfolio.entity.MediaObjectEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Upload dedup with 10,000 files in the upload directory: a lookup is a map probe plus one stat of the
+ * matching file, independent of the directory size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MediaIndexBenchmark {
+
+    private static final int FILES = 10_000;
+
+    private Path uploadDir;
+    private MediaIndex mediaIndex;
+    private String[] storedHashes;
+    private String[] unknownHashes;
+
+    @Setup
+    public void setUp() throws IOException {
+        uploadDir = Files.createTempDirectory("media-index-bench");
+        ContentHasher contentHasher = new ContentHasher(ContentHasher.Algorithm.SHA_256_TREE, 1, false);
+        MediaStorage storage = new MediaStorage(contentHasher,
+                new PackStore(uploadDir.toString(), DataSize.ofMegabytes(64), DataSize.ofKilobytes(256), 0.5, 600_000),
+                new SimpleMeterRegistry(), uploadDir.toString());
+
+        Random random = new Random(42);
+        List<MediaObjectEntity> objects = new ArrayList<>(FILES);
+        storedHashes = new String[FILES];
+        for (int i = 0; i < FILES; i++) {
+            storedHashes[i] = randomHash(random);
+            MediaObjectEntity object = new MediaObjectEntity();
+            object.setHash(storedHashes[i]);
+            object.setExtension(".png");
+            object.setRefCount(1);
+            objects.add(object);
+            Files.createFile(storage.resolveForWrite(object.getFilename()));
+        }
+        unknownHashes = new String[1024];
+        for (int i = 0; i < unknownHashes.length; i++) {
+            unknownHashes[i] = randomHash(random);
+        }
+
+        mediaIndex = new MediaIndex(BenchmarkStubs.stub(MediaObjectRepository.class, Map.of()), storage, contentHasher,
+                new SimpleMeterRegistry());
+        mediaIndex.load(objects);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(uploadDir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public String lookupStored(Cursor cursor) {
+        return mediaIndex.lookup(storedHashes[cursor.next++ % FILES]);
+    }
+
+    @Benchmark
+    public String lookupUnknown(Cursor cursor) {
+        return mediaIndex.lookup(unknownHashes[cursor.next++ & 1023]);
+    }
+
+    private static String randomHash(Random random) {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.portfolio.Service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Reading one random small image out of 10,000: from its own file in the sharded directory, which costs
+ * a path lookup, an open and a close per read, against a slice of a memory-mapped pack segment.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MediaPackBenchmark {
+
+    private static final int FILES = 10_000;
+
+    @Param({"4096", "16384"})
+    int size;
+
+    private Path uploadDir;
+    private MediaStorage storage;
+    private PackStore packStore;
+    private String[] filenames;
+
+    @Setup
+    public void setUp() throws IOException {
+        uploadDir = Files.createTempDirectory("media-pack-bench");
+        packStore = new PackStore(uploadDir.toString(), DataSize.ofMegabytes(64), DataSize.ofKilobytes(256), 0.5, 600_000);
+        storage = new MediaStorage(new ContentHasher(ContentHasher.Algorithm.SHA_256, 1, false), packStore,
+                new SimpleMeterRegistry(), uploadDir.toString());
+
+        Random random = new Random(42);
+        byte[] content = new byte[size];
+        filenames = new String[FILES];
+        for (int i = 0; i < FILES; i++) {
+            byte[] hash = new byte[32];
+            random.nextBytes(hash);
+            random.nextBytes(content);
+            filenames[i] = HexFormat.of().formatHex(hash) + ".png";
+            // The same name in both backends; packed reads go to the pack store directly
+            Files.write(storage.resolveForWrite(filenames[i]), content);
+            packStore.append(filenames[i], storage.resolve(filenames[i]), size);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        packStore.close();
+        try (Stream<Path> files = Files.walk(uploadDir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Reader {
+        final Random random = new Random();
+        final ByteBuffer buffer = ByteBuffer.allocate(256 * 1024);
+        final byte[] bytes = new byte[256 * 1024];
+    }
+
+    @Benchmark
+    public int readFile(Reader reader) throws IOException {
+        Path file = storage.resolve(filenames[reader.random.nextInt(FILES)]);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            reader.buffer.clear();
+            int total = 0;
+            int read;
+            while ((read = channel.read(reader.buffer)) > 0) {
+                total += read;
+            }
+            return total;
+        }
+    }
+
+    @Benchmark
+    public int readPacked(Reader reader) {
+        ByteBuffer packed = packStore.read(filenames[reader.random.nextInt(FILES)]);
+        int length = packed.remaining();
+        packed.get(reader.bytes, 0, length);
+        return length;
+    }
+}
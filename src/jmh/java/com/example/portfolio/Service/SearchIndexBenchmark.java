@@ -0,0 +1,63 @@
+package com.example.portfolio.Service;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search over 100,000 projects with a Zipf-like vocabulary, so a few words appear in most projects and
+ * most words in very few. Covers a rare word, common word pairs (the slowest case) and prefix queries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchIndexBenchmark {
+
+    private static final int PROJECTS = 100_000;
+    private static final int VOCABULARY = 20_000;
+
+    @Param({"rare", "common pair", "prefix"})
+    String shape;
+
+    private SearchIndex searchIndex;
+    private List<String> queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        searchIndex = new SearchIndex(new JdbcTemplate(), 1);
+        Random random = new Random(42);
+        for (long id = 1; id <= PROJECTS; id++) {
+            searchIndex.indexProject(id, sentence(random, 4), sentence(random, 30));
+        }
+        queries = switch (shape) {
+            // A trailing space ends the last word, so only "prefix" queries expand it
+            case "rare" -> List.of(word(15_000) + " ", word(17_321) + " ", word(19_999) + " ");
+            case "common pair" -> List.of(word(0) + " " + word(1) + " ", word(2) + " " + word(3) + " ", word(1) + " " + word(4) + " ");
+            default -> List.of("w12", "w3", "w199");
+        };
+    }
+
+    @Benchmark
+    public Object search() {
+        String query = queries.get(next++ % queries.size());
+        return searchIndex.search(query, null, 20);
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            // Roughly Zipf: word k is drawn with probability proportional to 1/(k+1)
+            int k = (int) Math.floor(Math.pow(VOCABULARY + 1, random.nextDouble())) - 1;
+            sentence.append(word(k)).append(' ');
+        }
+        return sentence.toString();
+    }
+
+    private static String word(int k) {
+        return "w" + k;
+    }
+}
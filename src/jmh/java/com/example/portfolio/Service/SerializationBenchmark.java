@@ -0,0 +1,74 @@
+package com.example.portfolio.Service;
+
+import com.example.portfolio.dto.ProjectDetail;
+import com.example.portfolio.entity.ProjectComment;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON cost of a project read. {@code detailWithComments} is the payload shape from before comments were
+ * paged separately, with 0, 100 and 1000 comments; {@code cachedDetail} is the same detail served from
+ * {@link ResponseBodyCache} while its ETag is current. Run with {@code -prof gc} for allocation per op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    @Param({"0", "100", "1000"})
+    int comments;
+
+    private ObjectMapper objectMapper;
+    private ProjectDetail detail;
+    private Map<String, Object> detailWithComments;
+    private ResponseBodyCache responseBodyCache;
+
+    @Setup
+    public void setUp() {
+        // Configured the way Spring Boot configures the application's mapper
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        detail = new ProjectDetail(1L, "A portfolio project", "A description that runs for a sentence or two, like most do.",
+                "https://github.com/someone/project", "/media/0123456789abcdef0123456789abcdef.png", null,
+                42, 7, LocalDateTime.now(), "someone");
+
+        List<ProjectComment> list = new ArrayList<>(comments);
+        for (int i = 0; i < comments; i++) {
+            ProjectComment comment = new ProjectComment();
+            comment.setId((long) i);
+            comment.setUsername("user" + i);
+            comment.setText("Comment number " + i + ", a few words long.");
+            comment.setPostedAt(LocalDateTime.now());
+            list.add(comment);
+        }
+        detailWithComments = Map.of("project", detail, "comments", list);
+
+        responseBodyCache = new ResponseBodyCache(objectMapper, DataSize.ofMegabytes(16), true);
+    }
+
+    @Benchmark
+    public byte[] detailWithComments() throws Exception {
+        return objectMapper.writeValueAsBytes(detailWithComments);
+    }
+
+    @Benchmark
+    public byte[] detailOnly() throws Exception {
+        return objectMapper.writeValueAsBytes(detail);
+    }
+
+    @Benchmark
+    public byte[] cachedDetail() {
+        ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse());
+        return responseBodyCache.respond("project:1", "\"v7\"", request, () -> detail).getBody();
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.portfolio.loadtest;
+
+import com.example.portfolio.Service.MediaStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Fills an empty schema with a deterministic dataset: the same sizes always give the same rows, so runs
+ * are comparable and a seeded database can be reused. Ids are assigned here rather than by the database,
+ * so the load driver can pick existing ids without asking for them. Popularity is skewed the way real
+ * data is: a few users have most of the followers and a few projects most of the comments.
+ */
+class DatasetSeeder {
+
+    private static final Logger log = LoggerFactory.getLogger(DatasetSeeder.class);
+
+    static final String SIGNATURE_TABLE = "loadtest_dataset";
+
+    private static final int BATCH_SIZE = 5_000;
+    private static final long PROGRESS_EVERY = 500_000;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final String GITHUB = "https://github.com/";
+
+    // Pronounceable words for names, titles and comments; searched for by the driver with the same skew
+    private static final String[] SYLLABLES = {
+            "ka", "lo", "mi", "re", "tu", "sa", "ne", "po", "di", "va",
+            "ro", "ze", "fi", "gu", "ha", "ji", "be", "no", "ta", "ly"};
+    private static final String[] VOCABULARY = vocabulary(4000);
+    private static final double[] VOCABULARY_WEIGHTS = zipfCumulative(VOCABULARY.length);
+
+    /** Row counts of a dataset; {@link #signature()} identifies it in a seeded database. */
+    record Sizes(int users, long follows, int projects, long comments, int mediaFiles, int mediaSize) {
+
+        String signature() {
+            return "v1 users=" + users + " follows=" + follows + " projects=" + projects +
+                    " comments=" + comments + " media=" + mediaFiles + "x" + mediaSize;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MediaStorage mediaStorage;
+
+    DatasetSeeder(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, MediaStorage mediaStorage) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.mediaStorage = mediaStorage;
+    }
+
+    /** The signature of the dataset in the database, or {@code null} if it was never seeded. */
+    static String readSignature(String url, String username, String password) {
+        try (Connection connection = DriverManager.getConnection(url, username, password);
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT signature FROM " + SIGNATURE_TABLE)) {
+            return rs.next() ? rs.getString(1) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    /** Seeds a schema that Hibernate has just created, so every table is empty. */
+    void seed(Sizes sizes) throws IOException {
+        long started = System.currentTimeMillis();
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + SIGNATURE_TABLE);
+
+        seedUsers(sizes);
+        seedFollows(sizes);
+        List<String> mediaUrls = seedMedia(sizes);
+        seedProjects(sizes, mediaUrls);
+        seedComments(sizes);
+
+        // Rows were inserted with explicit ids; new rows from the API must not collide with them
+        restartIdentity("users", sizes.users() + 1L);
+        restartIdentity("portfolio_entity", sizes.users() + 1L);
+        restartIdentity("project_entity", sizes.projects() + 1L);
+        restartIdentity("project_comment", sizes.comments() + 1);
+        jdbcTemplate.execute("ANALYZE");
+
+        jdbcTemplate.execute("CREATE TABLE " + SIGNATURE_TABLE + " (signature VARCHAR(255))");
+        jdbcTemplate.update("INSERT INTO " + SIGNATURE_TABLE + " (signature) VALUES (?)", sizes.signature());
+        log.info("Seeded {} in {} s", sizes.signature(), (System.currentTimeMillis() - started) / 1000);
+    }
+
+    // Every user gets a portfolio with the same id, so user n owns projects n, n + users, n + 2 * users, ...
+    private void seedUsers(Sizes sizes) {
+        SplittableRandom random = new SplittableRandom(1);
+        try (Batch users = new Batch("users", "INSERT INTO users (id, username, name, surname) VALUES (?, ?, ?, ?)")) {
+            for (long id = 1; id <= sizes.users(); id++) {
+                users.add(id, "user" + id, capitalize(word(random)), capitalize(word(random)));
+            }
+        }
+        try (Batch portfolios = new Batch("portfolios", "INSERT INTO portfolio_entity (id, user_id) VALUES (?, ?)")) {
+            for (long id = 1; id <= sizes.users(); id++) {
+                portfolios.add(id, id);
+            }
+        }
+    }
+
+    // Everyone follows about the same number of users, but who gets followed is heavily skewed
+    private void seedFollows(Sizes sizes) {
+        SplittableRandom random = new SplittableRandom(2);
+        long perUser = sizes.follows() / sizes.users();
+        long remainder = sizes.follows() % sizes.users();
+        long maxDegree = Math.max(0, sizes.users() / 2);
+        try (Batch follows = new Batch("follow edges", "INSERT INTO user_following (follower_id, followed_id) VALUES (?, ?)")) {
+            Set<Long> targets = new HashSet<>();
+            for (long follower = 1; follower <= sizes.users(); follower++) {
+                long degree = Math.min(maxDegree, perUser + (follower <= remainder ? 1 : 0));
+                targets.clear();
+                while (targets.size() < degree) {
+                    long target = skewed(random, sizes.users(), 3);
+                    if (target != follower && targets.add(target)) {
+                        follows.add(follower, target);
+                    }
+                }
+            }
+        }
+    }
+
+    private List<String> seedMedia(Sizes sizes) throws IOException {
+        SplittableRandom random = new SplittableRandom(3);
+        Files.createDirectories(mediaStorage.getUploadDir());
+        List<String> urls = new ArrayList<>(sizes.mediaFiles());
+        byte[] content = new byte[sizes.mediaSize()];
+        try (Batch media = new Batch("media objects",
+                "INSERT INTO media_objects (hash, extension, size, ref_count, created_at) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < sizes.mediaFiles(); i++) {
+                random.nextBytes(content);
+                String hash = HexFormat.of().formatHex(md5().digest(content));
+                String filename = hash + ".jpg";
+                Files.write(mediaStorage.resolveForWrite(filename), content);
+                media.add(hash, ".jpg", (long) content.length, 1, Timestamp.valueOf(EPOCH));
+                urls.add(MediaStorage.urlFor(filename));
+            }
+        }
+        return urls;
+    }
+
+    // Newer projects have higher ids, as they would with an identity column
+    private void seedProjects(Sizes sizes, List<String> mediaUrls) {
+        SplittableRandom random = new SplittableRandom(4);
+        try (Batch projects = new Batch("projects",
+                "INSERT INTO project_entity (id, title, description, github_link, image_url, likes, version, created_at, portfolio_id) " +
+                "VALUES (?, ?, ?, ?, ?, 0, 0, ?, ?)")) {
+            for (long id = 1; id <= sizes.projects(); id++) {
+                long owner = (id - 1) % sizes.users() + 1;
+                String imageUrl = id <= mediaUrls.size() ? mediaUrls.get((int) id - 1) : null;
+                projects.add(id, capitalize(words(random, 3)), words(random, 12),
+                        GITHUB + "user" + owner + "/project-" + id, imageUrl,
+                        Timestamp.valueOf(EPOCH.plusMinutes(id)), owner);
+            }
+        }
+    }
+
+    // A few projects collect most of the comments; all comments are newer than every project
+    private void seedComments(Sizes sizes) {
+        SplittableRandom random = new SplittableRandom(5);
+        LocalDateTime first = EPOCH.plusMinutes(sizes.projects() + 1L);
+        try (Batch comments = new Batch("comments",
+                "INSERT INTO project_comment (id, project_id, username, text, posted_at) VALUES (?, ?, ?, ?, ?)")) {
+            for (long id = 1; id <= sizes.comments(); id++) {
+                comments.add(id, skewed(random, sizes.projects(), 2), "user" + (random.nextInt(sizes.users()) + 1),
+                        words(random, 6), Timestamp.valueOf(first.plusSeconds(id)));
+            }
+        }
+    }
+
+    private void restartIdentity(String table, long next) {
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+    }
+
+    /** An id in {@code [1, n]}; the higher the exponent, the more often the lowest ids come up. */
+    static long skewed(SplittableRandom random, long n, double exponent) {
+        return 1 + Math.min(n - 1, (long) (n * Math.pow(random.nextDouble(), exponent)));
+    }
+
+    /** A word of the seeded vocabulary, common words far more often than rare ones. */
+    static String word(SplittableRandom random) {
+        int index = Arrays.binarySearch(VOCABULARY_WEIGHTS, random.nextDouble());
+        return VOCABULARY[Math.min(VOCABULARY.length - 1, index >= 0 ? index : -index - 1)];
+    }
+
+    static String words(SplittableRandom random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(i == 0 ? "" : " ").append(word(random));
+        }
+        return text.toString();
+    }
+
+    private static String[] vocabulary(int size) {
+        String[] words = new String[size];
+        for (int i = 0; i < size; i++) {
+            StringBuilder word = new StringBuilder();
+            // Two or three syllables, spelling the index in base 20 so every word is distinct
+            int n = i + SYLLABLES.length;
+            while (n > 0) {
+                word.append(SYLLABLES[n % SYLLABLES.length]);
+                n /= SYLLABLES.length;
+            }
+            words[i] = word.toString();
+        }
+        return words;
+    }
+
+    private static double[] zipfCumulative(int size) {
+        double[] cumulative = new double[size];
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Inserts rows in JDBC batches, one transaction per batch. */
+    private final class Batch implements AutoCloseable {
+
+        private final String what;
+        private final String sql;
+        private final List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        private long inserted;
+
+        Batch(String what, String sql) {
+            this.what = what;
+            this.sql = sql;
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, rows));
+            inserted += rows.size();
+            rows.clear();
+            if (inserted % PROGRESS_EVERY == 0) {
+                log.info("Inserted {} {} so far", inserted, what);
+            }
+        }
+
+        @Override
+        public void close() {
+            flush();
+            log.info("Inserted {} {}", inserted, what);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.portfolio.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Drives the running app with a fixed mix of requests from closed-loop clients: each client sends its
+ * next request as soon as the previous response has been read. Ids are drawn with the same skew the
+ * dataset was seeded with, so popular projects and users get most of the reads, as they would in
+ * production. Only requests started after the warmup are recorded.
+ */
+class LoadDriver {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadDriver.class);
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    record Endpoint(String name, int weight, Function<SplittableRandom, HttpRequest> request) {
+    }
+
+    private final URI baseUri;
+    private final DatasetSeeder.Sizes sizes;
+    private final List<String> mediaUrls;
+    private final List<Endpoint> endpoints;
+    private final int totalWeight;
+
+    LoadDriver(URI baseUri, DatasetSeeder.Sizes sizes, List<String> mediaUrls) {
+        this.baseUri = baseUri;
+        this.sizes = sizes;
+        this.mediaUrls = mediaUrls;
+        this.endpoints = endpoints();
+        this.totalWeight = endpoints.stream().mapToInt(Endpoint::weight).sum();
+    }
+
+    // Roughly the traffic of a browsing session: mostly project and profile reads, a few writes
+    private List<Endpoint> endpoints() {
+        List<Endpoint> mix = new ArrayList<>();
+        mix.add(new Endpoint("project", 20, r -> get("/api/v1/projects/project/" + project(r))));
+        mix.add(new Endpoint("comments", 10, r -> get("/api/v1/projects/project/" + project(r) + "/comments")));
+        mix.add(new Endpoint("user-projects", 10, r -> get("/api/v1/projects/getProjects/" + user(r))));
+        mix.add(new Endpoint("portfolio", 8, r -> get("/api/v1/portfolio/portfolio/" + user(r))));
+        mix.add(new Endpoint("feed", 10, r -> get("/api/v1/projects/feed")));
+        mix.add(new Endpoint("search", 8, r -> get("/api/v1/projects/search?q=" + encode(DatasetSeeder.words(r, 1 + r.nextInt(2))))));
+        mix.add(new Endpoint("trending", 5, r -> get("/api/v1/projects/trending")));
+        mix.add(new Endpoint("followers", 5, r -> get("/api/v1/users/" + user(r) + "/followers")));
+        mix.add(new Endpoint("follow-counts", 5, r -> get("/api/v1/users/" + user(r) + "/followCounts")));
+        mix.add(new Endpoint("bulk-projects", 3, r -> get("/api/v1/bulk/projects?ids=" +
+                LongStream.range(0, 20).map(i -> project(r)).mapToObj(String::valueOf).collect(Collectors.joining(",")))));
+        mix.add(new Endpoint("like", 5, r -> post("/api/v1/projects/likeProject/" + project(r))));
+        mix.add(new Endpoint("comment", 3, r -> post("/api/v1/projects/commentOnProject/" + project(r) +
+                "?text=" + encode(DatasetSeeder.words(r, 6)))));
+        if (!mediaUrls.isEmpty()) {
+            mix.add(new Endpoint("media", 8, r -> get(mediaUrls.get(r.nextInt(mediaUrls.size())))));
+        }
+        return mix;
+    }
+
+    List<String> endpointNames() {
+        return endpoints.stream().map(Endpoint::name).toList();
+    }
+
+    /** Runs {@code concurrency} clients for the warmup and then the measured duration. */
+    List<LoadReport.Recorder> run(int concurrency, Duration warmup, Duration duration, long seed) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        SplittableRandom seeds = new SplittableRandom(seed);
+
+        log.info("Warming up for {} s, then measuring for {} s with {} clients", warmup.toSeconds(), duration.toSeconds(), concurrency);
+        List<LoadReport.Recorder> recorders = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<LoadReport.Recorder>> running = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                SplittableRandom random = seeds.split();
+                running.add(clients.submit(() -> runClient(client, random, measureFrom, end)));
+            }
+            for (Future<LoadReport.Recorder> recorder : running) {
+                recorders.add(recorder.get());
+            }
+        }
+        return recorders;
+    }
+
+    private LoadReport.Recorder runClient(HttpClient client, SplittableRandom random, long measureFrom, long end) {
+        LoadReport.Recorder recorder = new LoadReport.Recorder();
+        long started;
+        while ((started = System.nanoTime()) < end) {
+            Endpoint endpoint = pick(random);
+            HttpRequest request = endpoint.request().apply(random);
+            boolean measured = started >= measureFrom;
+            try {
+                HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                long nanos = System.nanoTime() - started;
+                if (!measured) {
+                    continue;
+                }
+                if (response.statusCode() >= 400) {
+                    recorder.error(endpoint.name());
+                } else {
+                    recorder.success(endpoint.name(), nanos, response.body().length);
+                }
+            } catch (IOException e) {
+                if (measured) {
+                    recorder.error(endpoint.name());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return recorder;
+    }
+
+    private Endpoint pick(SplittableRandom random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Endpoint endpoint : endpoints) {
+            ticket -= endpoint.weight();
+            if (ticket < 0) {
+                return endpoint;
+            }
+        }
+        return endpoints.get(endpoints.size() - 1);
+    }
+
+    private long project(SplittableRandom random) {
+        return DatasetSeeder.skewed(random, sizes.projects(), 2);
+    }
+
+    private long user(SplittableRandom random) {
+        return DatasetSeeder.skewed(random, sizes.users(), 3);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(REQUEST_TIMEOUT).GET().build();
+    }
+
+    private HttpRequest post(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(REQUEST_TIMEOUT).POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
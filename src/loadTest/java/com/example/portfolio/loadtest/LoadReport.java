@@ -0,0 +1,150 @@
+package com.example.portfolio.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Throughput and latency percentiles per endpoint of one load test run. Latencies are kept in full and
+ * sorted at the end, so the percentiles are exact rather than bucketed.
+ */
+record LoadReport(String dataset, int concurrency, double seconds, long startupMillis, List<EndpointStats> endpoints) {
+
+    static final String TOTAL = "all";
+
+    record EndpointStats(String endpoint, long requests, long errors, double requestsPerSecond,
+                         double p50Millis, double p95Millis, double p99Millis, double maxMillis, double megabytesPerSecond) {
+    }
+
+    /** Latencies of one client thread; merged into a report once all clients have stopped. */
+    static final class Recorder {
+
+        private final Map<String, Samples> samples = new LinkedHashMap<>();
+
+        void success(String endpoint, long nanos, long bytes) {
+            Samples endpointSamples = samples.computeIfAbsent(endpoint, name -> new Samples());
+            endpointSamples.add(nanos);
+            endpointSamples.bytes += bytes;
+        }
+
+        void error(String endpoint) {
+            samples.computeIfAbsent(endpoint, name -> new Samples()).errors++;
+        }
+    }
+
+    static LoadReport of(String dataset, int concurrency, double seconds, long startupMillis,
+                         List<String> endpointNames, List<Recorder> recorders) {
+        Map<String, Samples> merged = new LinkedHashMap<>();
+        for (String name : endpointNames) {
+            merged.put(name, new Samples());
+        }
+        Samples total = new Samples();
+        for (Recorder recorder : recorders) {
+            recorder.samples.forEach((name, samples) -> {
+                merged.computeIfAbsent(name, n -> new Samples()).addAll(samples);
+                total.addAll(samples);
+            });
+        }
+        List<EndpointStats> endpoints = new ArrayList<>();
+        merged.forEach((name, samples) -> endpoints.add(samples.stats(name, seconds)));
+        endpoints.add(total.stats(TOTAL, seconds));
+        return new LoadReport(dataset, concurrency, seconds, startupMillis, endpoints);
+    }
+
+    String toTable() {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format(Locale.ROOT, "%s, %d clients, %.0f s measured, started in %.1f s%n",
+                dataset, concurrency, seconds, startupMillis / 1000.0));
+        table.append(String.format(Locale.ROOT, "%-16s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "MB/s"));
+        for (EndpointStats stats : endpoints) {
+            table.append(String.format(Locale.ROOT, "%-16s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    stats.endpoint(), stats.requests(), stats.errors(), stats.requestsPerSecond(),
+                    stats.p50Millis(), stats.p95Millis(), stats.p99Millis(), stats.maxMillis(), stats.megabytesPerSecond()));
+        }
+        return table.toString();
+    }
+
+    /**
+     * Two runs of the same load next to each other, endpoint by endpoint, with the second run's throughput
+     * relative to the first. Endpoints that only one run drove are left out.
+     */
+    static String sideBySide(String firstName, LoadReport first, String secondName, LoadReport second) {
+        Map<String, EndpointStats> secondByEndpoint = new LinkedHashMap<>();
+        for (EndpointStats stats : second.endpoints()) {
+            secondByEndpoint.put(stats.endpoint(), stats);
+        }
+        StringBuilder table = new StringBuilder();
+        table.append(String.format(Locale.ROOT, "%s (A) against %s (B)%n", firstName, secondName));
+        table.append(String.format(Locale.ROOT, "%-16s %10s %10s %8s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "A req/s", "B req/s", "B/A", "A p50 ms", "B p50 ms", "A p99 ms", "B p99 ms", "A MB/s", "B MB/s"));
+        for (EndpointStats a : first.endpoints()) {
+            EndpointStats b = secondByEndpoint.get(a.endpoint());
+            if (b == null) {
+                continue;
+            }
+            double ratio = a.requestsPerSecond() == 0 ? 0 : b.requestsPerSecond() / a.requestsPerSecond();
+            table.append(String.format(Locale.ROOT, "%-16s %10.1f %10.1f %8.2f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    a.endpoint(), a.requestsPerSecond(), b.requestsPerSecond(), ratio, a.p50Millis(), b.p50Millis(),
+                    a.p99Millis(), b.p99Millis(), a.megabytesPerSecond(), b.megabytesPerSecond()));
+        }
+        return table.toString();
+    }
+
+    /** Writes the report as {@code report.txt} and {@code report.json} into the directory. */
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve("report.txt"), toTable());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(directory.resolve("report.json").toFile(), this);
+    }
+
+    private static final class Samples {
+
+        private long[] nanos = new long[1024];
+        private int count;
+        private long errors;
+        private long bytes;
+
+        void add(long value) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = value;
+        }
+
+        void addAll(Samples other) {
+            if (count + other.count > nanos.length) {
+                nanos = Arrays.copyOf(nanos, Math.max(nanos.length * 2, count + other.count));
+            }
+            System.arraycopy(other.nanos, 0, nanos, count, other.count);
+            count += other.count;
+            errors += other.errors;
+            bytes += other.bytes;
+        }
+
+        EndpointStats stats(String name, double seconds) {
+            Arrays.sort(nanos, 0, count);
+            return new EndpointStats(name, count, errors, count / seconds,
+                    percentile(0.50), percentile(0.95), percentile(0.99), percentile(1.0),
+                    bytes / seconds / (1024 * 1024));
+        }
+
+        // Nearest rank: the smallest latency that at least this share of the requests did not exceed
+        private double percentile(double share) {
+            if (count == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(share * count);
+            return nanos[Math.max(0, rank - 1)] / 1_000_000.0;
+        }
+    }
+}
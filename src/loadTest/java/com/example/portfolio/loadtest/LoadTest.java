@@ -0,0 +1,157 @@
+package com.example.portfolio.loadtest;
+
+import com.example.portfolio.PortfolioApplication;
+import com.example.portfolio.Service.MediaStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Seeds a local database, starts the app against it and drives the REST API; run with
+ * {@code ./gradlew loadTest}. Settings are system properties, passed through Gradle as
+ * {@code -Ploadtest.<name>=<value>}:
+ * <ul>
+ *   <li>{@code scale} multiplies the default dataset of 100k users, 1M follow edges, 500k projects and
+ *   5M comments; {@code users}, {@code follows}, {@code projects}, {@code comments}, {@code media-files}
+ *   and {@code media-size} set one size directly</li>
+ *   <li>{@code db-url}, {@code db-username}, {@code db-password} point at the database; the default is an
+ *   H2 file in PostgreSQL mode, a local Postgres works as well</li>
+ *   <li>{@code concurrency}, {@code warmup} and {@code duration} shape the run</li>
+ *   <li>{@code reseed} drops and seeds the database even if it already holds the same dataset</li>
+ *   <li>{@code static-baseline} (default true) repeats the run with media fetched through the static
+ *   resource handler that served {@code /media} before {@code MediaController}, and reports both side by side;
+ *   the other endpoints are unchanged between the runs, so their ratio shows how much of the media difference
+ *   is drift between the runs</li>
+ * </ul>
+ * Likes and comments made during a run stay in the database; reseed for a pristine dataset.
+ */
+public final class LoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
+
+    // The static resource mapping that served media before MediaController, moved off /media so both can run
+    private static final String STATIC_MEDIA_PATH = "/static-media/";
+
+    private static final String H2_URL =
+            "jdbc:h2:file:./db/portfolio;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        double scale = Double.parseDouble(setting("scale", "1"));
+        DatasetSeeder.Sizes sizes = new DatasetSeeder.Sizes(
+                (int) Long.parseLong(setting("users", String.valueOf(Math.round(100_000 * scale)))),
+                Long.parseLong(setting("follows", String.valueOf(Math.round(1_000_000 * scale)))),
+                (int) Long.parseLong(setting("projects", String.valueOf(Math.round(500_000 * scale)))),
+                Long.parseLong(setting("comments", String.valueOf(Math.round(5_000_000 * scale)))),
+                Integer.parseInt(setting("media-files", "100")),
+                (int) DataSize.parse(setting("media-size", "256KB")).toBytes());
+        String url = setting("db-url", H2_URL);
+        String username = setting("db-username", "sa");
+        String password = setting("db-password", "");
+        int concurrency = Integer.parseInt(setting("concurrency", "64"));
+        Duration warmup = DurationStyle.detectAndParse(setting("warmup", "15s"));
+        Duration duration = DurationStyle.detectAndParse(setting("duration", "60s"));
+        Path reportDir = Path.of(setting("report-dir", "reports"));
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.url", url);
+        properties.put("spring.datasource.username", username);
+        properties.put("spring.datasource.password", password);
+        properties.put("spring.datasource.driver-class-name", url.startsWith("jdbc:h2:") ? "org.h2.Driver" : "org.postgresql.Driver");
+        properties.put("spring.jpa.properties.hibernate.dialect", url.startsWith("jdbc:h2:")
+                ? "org.hibernate.dialect.H2Dialect" : "org.hibernate.dialect.PostgreSQLDialect");
+        properties.put("logging.level.root", "warn");
+        properties.put("logging.level.com.example.portfolio", "info");
+
+        boolean reseed = Boolean.parseBoolean(setting("reseed", "false"));
+        boolean staticBaseline = Boolean.parseBoolean(setting("static-baseline", "true"));
+        if (reseed || !sizes.signature().equals(DatasetSeeder.readSignature(url, username, password))) {
+            log.info("Seeding {}", sizes.signature());
+            properties.put("spring.jpa.hibernate.ddl-auto", "create");
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PortfolioApplication.class)
+                    .web(WebApplicationType.NONE).run(arguments(properties))) {
+                new DatasetSeeder(context.getBean(JdbcTemplate.class),
+                        new TransactionTemplate(context.getBean(PlatformTransactionManager.class)),
+                        context.getBean(MediaStorage.class)).seed(sizes);
+            }
+        } else {
+            log.info("Reusing seeded {}", sizes.signature());
+        }
+
+        properties.put("spring.jpa.hibernate.ddl-auto", "update");
+        properties.put("server.address", "127.0.0.1");
+        properties.put("server.port", "0");
+        properties.put("management.server.port", "0");
+        properties.put("spring.mvc.static-path-pattern", STATIC_MEDIA_PATH + "**");
+        properties.put("spring.web.resources.static-locations", "file:${portfolio.media.upload-dir:resources/media}/");
+        properties.put("spring.web.resources.cache.period", "0");
+        long starting = System.currentTimeMillis();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PortfolioApplication.class)
+                .run(arguments(properties))) {
+            long startupMillis = System.currentTimeMillis() - starting;
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI baseUri = URI.create("http://127.0.0.1:" + port);
+            MediaStorage mediaStorage = context.getBean(MediaStorage.class);
+            List<String> filenames = context.getBean(JdbcTemplate.class).queryForList(
+                    "SELECT hash, extension FROM media_objects ORDER BY hash").stream()
+                    .map(row -> row.get("hash") + String.valueOf(row.get("extension")))
+                    .toList();
+
+            List<String> mediaUrls = filenames.stream().map(MediaStorage::urlFor).toList();
+            LoadReport report = run(new LoadDriver(baseUri, sizes, mediaUrls), sizes, concurrency, warmup, duration, startupMillis);
+            System.out.print(report.toTable());
+            report.write(reportDir);
+
+            if (staticBaseline && !filenames.isEmpty()) {
+                // Same load and seed, only the media requests go through the static handler; the files are
+                // read from their shard directories, as the handler has no notion of content hashes
+                Path uploadDir = mediaStorage.getUploadDir();
+                List<String> staticUrls = filenames.stream()
+                        .map(filename -> STATIC_MEDIA_PATH + uploadDir.relativize(mediaStorage.resolve(filename)).toString().replace('\\', '/'))
+                        .toList();
+                log.info("Repeating the run with media served by the static resource handler");
+                LoadReport baseline = run(new LoadDriver(baseUri, sizes, staticUrls), sizes, concurrency, warmup, duration, startupMillis);
+                baseline.write(reportDir.resolve("static-media"));
+                String comparison = LoadReport.sideBySide("MediaController", report, "static handler", baseline);
+                System.out.print(comparison);
+                Files.writeString(reportDir.resolve("comparison.txt"), comparison);
+            }
+            log.info("Report written to {}", reportDir.toAbsolutePath());
+        }
+    }
+
+    private static LoadReport run(LoadDriver driver, DatasetSeeder.Sizes sizes, int concurrency, Duration warmup,
+                                  Duration duration, long startupMillis) throws Exception {
+        List<LoadReport.Recorder> recorders = driver.run(concurrency, warmup, duration, 42);
+        return LoadReport.of(sizes.signature(), concurrency, duration.toMillis() / 1000.0, startupMillis,
+                driver.endpointNames(), recorders);
+    }
+
+    // Passed as command line arguments, which take precedence over application.yaml; default properties would not
+    private static String[] arguments(Map<String, Object> properties) {
+        return properties.entrySet().stream().map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+    }
+
+    private static String setting(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+}
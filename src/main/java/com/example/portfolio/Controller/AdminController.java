@@ -0,0 +1,55 @@
+package com.example.portfolio.Controller;
+
+import com.example.portfolio.Service.PackStore;
+import com.example.portfolio.Service.ResponseBodyCache;
+import com.example.portfolio.Service.UserCache;
+import com.example.portfolio.config.MediaBulkhead;
+import com.example.portfolio.util.NearCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+// Read-only stats; collecting media and clearing caches are actuator endpoints on the management port
+@RestController
+@RequestMapping("/api/v1/admin")
+@CrossOrigin(origins="**")
+public class AdminController {
+
+    private final UserCache userCache;
+    private final ResponseBodyCache responseBodyCache;
+    private final MediaBulkhead mediaBulkhead;
+    private final PackStore packStore;
+
+    public AdminController(UserCache userCache, ResponseBodyCache responseBodyCache, MediaBulkhead mediaBulkhead,
+                           PackStore packStore) {
+        this.userCache = userCache;
+        this.responseBodyCache = responseBodyCache;
+        this.mediaBulkhead = mediaBulkhead;
+        this.packStore = packStore;
+    }
+
+    // ✅ Hit, miss and eviction counts of the near caches
+    @GetMapping("/caches")
+    public ResponseEntity<List<NearCache.Stats>> getCacheStats() {
+        return ResponseEntity.ok(userCache.stats());
+    }
+
+    // ✅ Size and hit counts of the serialized response cache
+    @GetMapping("/caches/responses")
+    public ResponseEntity<ResponseBodyCache.Stats> getResponseCacheStats() {
+        return ResponseEntity.ok(responseBodyCache.stats());
+    }
+
+    // ✅ Uploads running and waiting in the media lane, and how many were turned away
+    @GetMapping("/bulkheads/media")
+    public ResponseEntity<MediaBulkhead.Stats> getMediaBulkheadStats() {
+        return ResponseEntity.ok(mediaBulkhead.stats());
+    }
+
+    // ✅ Segments, entries and live versus deleted bytes of the media pack files
+    @GetMapping("/media/packs")
+    public ResponseEntity<PackStore.Stats> getMediaPackStats() {
+        return ResponseEntity.ok(packStore.stats());
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.portfolio.Controller;
+
+import com.example.portfolio.Service.BulkService;
+import com.example.portfolio.dto.BulkMutation;
+import com.example.portfolio.dto.BulkResult;
+import com.example.portfolio.dto.ProjectSummary;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/bulk")
+@CrossOrigin(origins="**")
+@Tag(name = "Bulk Controller", description = "Batch reads and mutations, at most " + BulkService.MAX_ITEMS + " items per request")
+public class BulkController {
+
+    private final BulkService bulkService;
+
+    public BulkController(BulkService bulkService) {
+        this.bulkService = bulkService;
+    }
+
+    @Operation(summary = "Get projects by id in one query", description = "Unknown ids are skipped; the rest keep the requested order.")
+    @GetMapping("/projects")
+    public ResponseEntity<List<ProjectSummary>> getProjects(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(bulkService.getProjects(ids));
+    }
+
+    @Operation(summary = "Check whether the current user follows each of the given users")
+    @GetMapping("/following")
+    public ResponseEntity<Map<Long, Boolean>> getFollowing(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(bulkService.getFollowing(ids));
+    }
+
+    @Operation(
+            summary = "Apply likes, saves and follows in one request",
+            description = "Items are applied in order as the current user, in one transaction; the result list matches the request item for item."
+    )
+    @PostMapping("/mutations")
+    public ResponseEntity<List<BulkResult>> applyMutations(@RequestBody List<BulkMutation> mutations) {
+        return ResponseEntity.ok(bulkService.apply(mutations));
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.portfolio.Controller;
+
+import com.example.portfolio.Service.ImageVariant;
+import com.example.portfolio.Service.MediaIndex;
+import com.example.portfolio.Service.MediaStorage;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Serves stored media under {@code /media/}. File names are content hashes, so every response carries a
+ * strong ETag and is cacheable forever. Bodies go out through Tomcat's sendfile when the connector
+ * supports it and through {@link FileChannel#transferTo} otherwise, and single byte ranges are honoured
+ * so video players can seek. Packed images are written from their slice of the mapped segment.
+ */
+@RestController
+public class MediaController {
+
+    private static final Pattern MEDIA_FILENAME = Pattern.compile("^[A-Za-z0-9_-]+\\.[A-Za-z0-9]+$");
+
+    private static final String CACHE_FOREVER = "public, max-age=31536000, immutable";
+
+    // Tomcat request attributes for handing the body to sendfile after the servlet returns
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final long SENDFILE_THRESHOLD = 48 * 1024;
+
+    private final MediaStorage mediaStorage;
+    private final MediaIndex mediaIndex;
+
+    public MediaController(MediaStorage mediaStorage, MediaIndex mediaIndex) {
+        this.mediaStorage = mediaStorage;
+        this.mediaIndex = mediaIndex;
+    }
+
+    @GetMapping("/media/{filename:.+}")
+    public void serveMedia(@PathVariable String filename, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (!MEDIA_FILENAME.matcher(filename).matches()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String storedName = filename;
+        String etag = "\"" + filename.substring(0, filename.lastIndexOf('.')) + "\"";
+        boolean immutable = true;
+
+        if (!mediaStorage.exists(storedName)) {
+            // Image variants are generated in the background; until then answer with the original, uncached
+            String originalUrl = Optional.ofNullable(ImageVariant.originalHashOf(filename)).map(mediaIndex::lookup).orElse(null);
+            if (originalUrl == null) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            storedName = MediaStorage.filenameOf(originalUrl);
+            immutable = false;
+        }
+        ByteBuffer packed = mediaStorage.readPacked(storedName);
+        Path file = packed == null ? mediaStorage.resolve(storedName) : null;
+
+        if (immutable) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_FOREVER);
+        } else {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        }
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (immutable && etagMatches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long length = packed != null ? packed.remaining() : Files.size(file);
+        long start = 0;
+        long count = length;
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (rangeHeader != null && (ifRange == null || (immutable && ifRange.equals(etag)))) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                // Multiple ranges are rare for media; answering with the full body is allowed
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    count = ranges.get(0).getRangeEnd(length) - start + 1;
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (start + count - 1) + "/" + length);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+        }
+
+        response.setContentType(MediaTypeFactory.getMediaType(storedName).orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        if (packed != null) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            ByteBuffer body = packed.slice((int) start, (int) count);
+            while (body.hasRemaining()) {
+                out.write(body);
+            }
+            return;
+        }
+
+        if (count >= SENDFILE_THRESHOLD && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,10 +1,15 @@
 package com.example.portfolio.Controller;
 
 import com.example.portfolio.Service.PortfolioService;
+import com.example.portfolio.Service.ResponseBodyCache;
 import com.example.portfolio.Service.UserService;
-import com.example.portfolio.entity.PortfolioEntity;
+import com.example.portfolio.dto.PortfolioView;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/v1/portfolio")
@@ -13,19 +18,25 @@ public class PortfolioController {
 
     private final PortfolioService portfolioService;
     private final UserService userService;
+    private final ResponseBodyCache responseBodyCache;
 
-    public PortfolioController(PortfolioService portfolioService, UserService userService) {
+    public PortfolioController(PortfolioService portfolioService, UserService userService,
+                               ResponseBodyCache responseBodyCache) {
         this.portfolioService = portfolioService;
         this.userService = userService;
+        this.responseBodyCache = responseBodyCache;
     }
 
     // ✅ Get the current user's portfolio
     @GetMapping("/portfolio/currentUser")
-    public ResponseEntity<PortfolioEntity> getMyPortfolio() {
-        return ResponseEntity.ok(portfolioService.getPortfolioForUser(userService.getCurrentUser()));
+    public ResponseEntity<PortfolioView> getMyPortfolio() {
+        return ResponseEntity.ok(portfolioService.getPortfolioForUser(userService.currentUser().id()));
     }
+    // ✅ Get a user's portfolio; answers 304 when none of its projects or comments changed
     @GetMapping("/portfolio/{userId}")
-    public ResponseEntity<PortfolioEntity> getPortfolio(@PathVariable Long userId) {
-        return ResponseEntity.ok(portfolioService.getPortfolioByUserId(userId));
+    @ApiResponse(content = @Content(schema = @Schema(implementation = PortfolioView.class)))
+    public ResponseEntity<byte[]> getPortfolio(@PathVariable Long userId, WebRequest request) {
+        return responseBodyCache.respond("portfolio:" + userId, portfolioService.getPortfolioETag(userId), request,
+                () -> portfolioService.getPortfolioByUserId(userId));
     }
 }
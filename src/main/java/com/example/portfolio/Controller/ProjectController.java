@@ -1,17 +1,27 @@
 package com.example.portfolio.Controller;
 
+import com.example.portfolio.Service.ChunkedUploadService;
 import com.example.portfolio.Service.ProjectService;
+import com.example.portfolio.Service.ResponseBodyCache;
+import com.example.portfolio.dto.CursorPage;
+import com.example.portfolio.dto.ProjectDetail;
+import com.example.portfolio.dto.ProjectSummary;
+import com.example.portfolio.entity.ProjectComment;
 import com.example.portfolio.entity.ProjectEntity;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.HttpStatus;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -21,39 +31,79 @@ import java.util.List;
 public class ProjectController {
 
     private final ProjectService projectService;
+    private final ChunkedUploadService chunkedUploadService;
+    private final ResponseBodyCache responseBodyCache;
 
-    public ProjectController(ProjectService projectService) {
+    public ProjectController(ProjectService projectService, ChunkedUploadService chunkedUploadService,
+                             ResponseBodyCache responseBodyCache) {
         this.projectService = projectService;
+        this.chunkedUploadService = chunkedUploadService;
+        this.responseBodyCache = responseBodyCache;
     }
 
     // ✅ Add a project for current user
     @PostMapping("/addProject/currentUser")
-    public ResponseEntity<ProjectEntity> createProject(@RequestBody ProjectEntity project) {
+    public ResponseEntity<ProjectDetail> createProject(@RequestBody ProjectEntity project) {
         return ResponseEntity.ok(projectService.addProjectToMyPortfolio(project));
     }
 
     // ✅ Add a project for a specific user (admin feature)
     @PostMapping("/addProject/{userId}")
-    public ResponseEntity<ProjectEntity> createProjectForUser(@PathVariable Long userId, @RequestBody ProjectEntity project) {
+    public ResponseEntity<ProjectDetail> createProjectForUser(@PathVariable Long userId, @RequestBody ProjectEntity project) {
         return ResponseEntity.ok(projectService.addProjectToUserPortfolio(userId, project));
     }
 
-    // ✅ Get a project by ID
+    // ✅ Get a project by ID; answers 304 without loading it when If-None-Match has the current version
     @GetMapping("/project/{id}")
-    public ResponseEntity<ProjectEntity> getProjectById(@PathVariable Long id) {
-        return ResponseEntity.ok(projectService.getProjectById(id));
+    @ApiResponse(content = @Content(schema = @Schema(implementation = ProjectDetail.class)))
+    public ResponseEntity<byte[]> getProjectById(@PathVariable Long id, WebRequest request) {
+        return responseBodyCache.respond("project:" + id, projectService.getProjectETag(id), request,
+                () -> projectService.getProjectById(id));
     }
 
-    // ✅ Get projects of current user
+    // ✅ Home feed: newest projects of the accounts the current user follows
+    @GetMapping("/feed")
+    public ResponseEntity<CursorPage<ProjectSummary>> getFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size) {
+        return ResponseEntity.ok(projectService.getFeed(cursor, size));
+    }
+
+    // ✅ Search titles, descriptions and comments; the last word also matches as a prefix
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<ProjectSummary>> search(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size) {
+        return ResponseEntity.ok(projectService.search(q, cursor, size));
+    }
+
+    // ✅ Most active projects right now, by likes and comments with a decay
+    @GetMapping("/trending")
+    public ResponseEntity<List<ProjectSummary>> getTrending(
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size) {
+        return ResponseEntity.ok(projectService.getTrending(size));
+    }
+
+    // ✅ Get projects of current user, newest first; pass nextCursor back as cursor for the next page
     @GetMapping("/myProjects")
-    public ResponseEntity<List<ProjectEntity>> getMyProjects() {
-        return ResponseEntity.ok(projectService.getMyProjects());
+    public ResponseEntity<CursorPage<ProjectSummary>> getMyProjects(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size) {
+        return ResponseEntity.ok(projectService.getMyProjects(cursor, size));
     }
 
-    // ✅ Get projects of a specific user
+    // ✅ Get projects of a specific user, newest first
     @GetMapping("/getProjects/{userId}")
-    public ResponseEntity<List<ProjectEntity>> getProjectsByUser(@PathVariable Long userId) {
-        return ResponseEntity.ok(projectService.getProjectsByUser(userId));
+    @ApiResponse(content = @Content(schema = @Schema(implementation = CursorPage.class)))
+    public ResponseEntity<byte[]> getProjectsByUser(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size,
+            WebRequest request) {
+        return responseBodyCache.respond("userProjects:" + userId + ":" + cursor + ":" + size,
+                projectService.getProjectsByUserETag(userId, cursor, size), request,
+                () -> projectService.getProjectsByUser(userId, cursor, size));
     }
 
     // ✅ Like a project
@@ -74,10 +124,12 @@ public class ProjectController {
     }
 
 
-    // ✅ Get saved projects
+    // ✅ Get saved projects, newest first
     @GetMapping("/savedProjects")
-    public ResponseEntity<List<ProjectEntity>> getSavedProjects() {
-        return ResponseEntity.ok(projectService.getSavedProjects());
+    public ResponseEntity<CursorPage<ProjectSummary>> getSavedProjects(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size) {
+        return ResponseEntity.ok(projectService.getSavedProjects(cursor, size));
     }
 
     @Operation(
@@ -129,6 +181,48 @@ public class ProjectController {
         }
     }
 
+    @Operation(
+            summary = "Start a resumable video upload",
+            description = "Creates an upload session for a video of the given size. Chunks are then sent with PUT in any order."
+    )
+    @PostMapping("/{projectId}/video-uploads")
+    public ResponseEntity<ChunkedUploadService.UploadStatus> initiateVideoUpload(
+            @PathVariable Long projectId,
+            @RequestParam String filename,
+            @RequestParam String contentType,
+            @RequestParam long size) {
+        return ResponseEntity.ok(chunkedUploadService.initiate(projectId, filename, contentType, size));
+    }
+
+    @Operation(summary = "Upload a chunk of a video at the given byte offset")
+    @PutMapping(value = "/video-uploads/{sessionId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<ChunkedUploadService.UploadStatus> uploadVideoChunk(
+            @PathVariable String sessionId,
+            @RequestParam long offset,
+            InputStream body) {
+        return ResponseEntity.ok(chunkedUploadService.writeChunk(sessionId, offset, body));
+    }
+
+    @Operation(summary = "Get the byte ranges received so far, to resume an interrupted upload")
+    @GetMapping("/video-uploads/{sessionId}")
+    public ResponseEntity<ChunkedUploadService.UploadStatus> getVideoUploadStatus(@PathVariable String sessionId) {
+        return ResponseEntity.ok(chunkedUploadService.getStatus(sessionId));
+    }
+
+    @Operation(summary = "Finish a resumable video upload and attach the video to its project")
+    @PostMapping("/video-uploads/{sessionId}/complete")
+    public ResponseEntity<String> completeVideoUpload(@PathVariable String sessionId) {
+        String videoUrl = chunkedUploadService.complete(sessionId);
+        return ResponseEntity.ok("Video uploaded successfully! You can view it at: " + videoUrl);
+    }
+
+    @Operation(summary = "Cancel a resumable video upload")
+    @DeleteMapping("/video-uploads/{sessionId}")
+    public ResponseEntity<Void> abortVideoUpload(@PathVariable String sessionId) {
+        chunkedUploadService.abort(sessionId);
+        return ResponseEntity.noContent().build();
+    }
+
     @Operation(summary = "Delete video for a project")
     @DeleteMapping("/delete-video/{projectId}")
     public ResponseEntity<String> deleteProjectVideo(@PathVariable Long projectId) {
@@ -136,12 +230,18 @@ public class ProjectController {
     }
 
     @PutMapping("/editProject/{projectId}")
-    public ResponseEntity<ProjectEntity> updateProject(
+    public ResponseEntity<ProjectDetail> updateProject(
             @PathVariable Long projectId,
             @RequestBody ProjectEntity updatedProject) {
         return ResponseEntity.ok(projectService.updateProject(projectId, updatedProject));
     }
 
+    @Operation(summary = "Delete a project with its comments, likes and media references")
+    @DeleteMapping("/delete/{projectId}")
+    public ResponseEntity<String> deleteProject(@PathVariable Long projectId) {
+        return ResponseEntity.ok(projectService.deleteProject(projectId));
+    }
+
 //
 //    @Operation(summary = "Attach media to a project", description = "Attach image or video URLs to a project")
 //    @PostMapping("/{id}/media")
@@ -159,4 +259,13 @@ public class ProjectController {
         return ResponseEntity.ok(projectService.addCommentToProject(projectId, text));
     }
 
+    // ✅ Comments of a project, newest first, one page at a time
+    @GetMapping("/project/{projectId}/comments")
+    public ResponseEntity<CursorPage<ProjectComment>> getComments(
+            @PathVariable Long projectId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size) {
+        return ResponseEntity.ok(projectService.getComments(projectId, cursor, size));
+    }
+
 }
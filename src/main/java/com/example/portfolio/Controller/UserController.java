@@ -1,6 +1,8 @@
 package com.example.portfolio.Controller;
 
 import com.example.portfolio.Service.UserService;
+import com.example.portfolio.dto.CursorPage;
+import com.example.portfolio.dto.FollowCounts;
 import com.example.portfolio.entity.UserEntity;
 import io.swagger.v3.oas.annotations.Operation;
 import org.springframework.http.MediaType;
@@ -98,4 +100,37 @@ public class UserController {
     public ResponseEntity<List<String>> getFollowingByUserId(@PathVariable Long id) {
         return ResponseEntity.ok(userService.getFollowingByUserId(id));
     }
+
+    @Operation(summary = "Follower and following counts of a user")
+    @GetMapping("/{id}/followCounts")
+    public ResponseEntity<FollowCounts> getFollowCounts(@PathVariable Long id) {
+        return ResponseEntity.ok(userService.getFollowCounts(id));
+    }
+
+    @Operation(summary = "Followers of a user, one page at a time")
+    @GetMapping("/{id}/followers")
+    public ResponseEntity<CursorPage<String>> getFollowersPage(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size) {
+        return ResponseEntity.ok(userService.getFollowersPage(id, cursor, size));
+    }
+
+    @Operation(summary = "Users a user follows, one page at a time")
+    @GetMapping("/{id}/following")
+    public ResponseEntity<CursorPage<String>> getFollowingPage(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size) {
+        return ResponseEntity.ok(userService.getFollowingPage(id, cursor, size));
+    }
+
+    @Operation(summary = "Users that a user follows and who follow them back")
+    @GetMapping("/{id}/mutualFollows")
+    public ResponseEntity<CursorPage<String>> getMutualFollows(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_SIZE) int size) {
+        return ResponseEntity.ok(userService.getMutualFollowsPage(id, cursor, size));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.example.portfolio.Repository;
+
+import com.example.portfolio.entity.ProjectComment;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CommentRepository extends JpaRepository<ProjectComment, Long> {
+
+    // Keyset pages of a project's comments, newest first, served by idx_comment_project_posted
+    @Query("SELECT c FROM ProjectComment c WHERE c.project.id = :projectId ORDER BY c.postedAt DESC, c.id DESC")
+    List<ProjectComment> findLatest(Long projectId, Limit limit);
+
+    @Query("SELECT c FROM ProjectComment c WHERE c.project.id = :projectId " +
+            "AND (c.postedAt < :postedAt OR (c.postedAt = :postedAt AND c.id < :id)) " +
+            "ORDER BY c.postedAt DESC, c.id DESC")
+    List<ProjectComment> findLatestBefore(Long projectId, LocalDateTime postedAt, Long id, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM ProjectComment c WHERE c.project.id = :projectId")
+    int deleteByProjectId(Long projectId);
+}
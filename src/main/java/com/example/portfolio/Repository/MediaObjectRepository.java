@@ -0,0 +1,49 @@
+package com.example.portfolio.Repository;
+
+import com.example.portfolio.dto.MediaReference;
+import com.example.portfolio.entity.MediaObjectEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface MediaObjectRepository extends JpaRepository<MediaObjectEntity, String> {
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE MediaObjectEntity m SET m.refCount = m.refCount + :delta WHERE m.hash = :hash")
+    int adjustRefCount(String hash, int delta);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE MediaObjectEntity m SET m.contentHash = :contentHash WHERE m.hash = :hash")
+    int setContentHash(String hash, String contentHash);
+
+    // Every media URL that is referenced somewhere, used to recount references when rebuilding
+    @Query("SELECT p.imageUrl FROM ProjectEntity p WHERE p.imageUrl IS NOT NULL")
+    List<String> findProjectImageUrls();
+
+    @Query("SELECT p.videoUrl FROM ProjectEntity p WHERE p.videoUrl IS NOT NULL")
+    List<String> findProjectVideoUrls();
+
+    @Query("SELECT u.profileImageUrl FROM UserEntity u WHERE u.profileImageUrl IS NOT NULL")
+    List<String> findProfileImageUrls();
+
+    // The same, in keyset pages, so the garbage collector never holds a long read open
+    @Query("SELECT new com.example.portfolio.dto.MediaReference(p.id, p.imageUrl) FROM ProjectEntity p " +
+            "WHERE p.id > :afterId AND p.imageUrl IS NOT NULL ORDER BY p.id")
+    List<MediaReference> findProjectImageReferences(Long afterId, Limit limit);
+
+    @Query("SELECT new com.example.portfolio.dto.MediaReference(p.id, p.videoUrl) FROM ProjectEntity p " +
+            "WHERE p.id > :afterId AND p.videoUrl IS NOT NULL ORDER BY p.id")
+    List<MediaReference> findProjectVideoReferences(Long afterId, Limit limit);
+
+    @Query("SELECT new com.example.portfolio.dto.MediaReference(u.id, u.profileImageUrl) FROM UserEntity u " +
+            "WHERE u.id > :afterId AND u.profileImageUrl IS NOT NULL ORDER BY u.id")
+    List<MediaReference> findProfileImageReferences(Long afterId, Limit limit);
+}
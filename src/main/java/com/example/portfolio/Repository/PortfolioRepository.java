@@ -0,0 +1,15 @@
+package com.example.portfolio.Repository;
+
+import com.example.portfolio.entity.PortfolioEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PortfolioRepository extends JpaRepository<PortfolioEntity, Long> {
+
+    @Query("SELECT pf.id FROM PortfolioEntity pf WHERE pf.user.id = :userId")
+    Optional<Long> findIdByUserId(Long userId);
+}
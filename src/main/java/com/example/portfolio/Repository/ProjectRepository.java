@@ -1,14 +1,115 @@
 package com.example.portfolio.Repository;
 
+import com.example.portfolio.dto.ContentStamp;
+import com.example.portfolio.dto.FeedItem;
+import com.example.portfolio.dto.ProjectSummary;
 import com.example.portfolio.entity.ProjectEntity;
 import com.example.portfolio.entity.PortfolioEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 
 @Repository
 public interface ProjectRepository extends JpaRepository<ProjectEntity, Long> {
 
+    String SUMMARY = "SELECT new com.example.portfolio.dto.ProjectSummary(p.id, p.title, p.description, p.githubLink, " +
+            "p.imageUrl, p.videoUrl, p.likes, p.createdAt, u.username, " +
+            "(SELECT COUNT(c) FROM ProjectComment c WHERE c.project = p)) ";
+
+    String FEED_ITEM = "SELECT new com.example.portfolio.dto.FeedItem(p.id, u.id, p.createdAt) " +
+            "FROM ProjectEntity p JOIN p.portfolio pf JOIN pf.user u ";
+
+    String NEWEST_FIRST = " ORDER BY p.createdAt DESC, p.id DESC";
+
+    String BEFORE_CURSOR = " AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id))";
+
     List<ProjectEntity> findByPortfolio(PortfolioEntity portfolio); // ✅ Get all projects from a portfolio
+
+    // A project with its owner in one query, for ProjectDetail
+    @EntityGraph(attributePaths = {"portfolio.user"})
+    @Query("SELECT p FROM ProjectEntity p WHERE p.id = :id")
+    Optional<ProjectEntity> findDetailedById(Long id);
+
+    @Query(SUMMARY + "FROM ProjectEntity p JOIN p.portfolio pf JOIN pf.user u WHERE pf.id = :portfolioId" + NEWEST_FIRST)
+    List<ProjectSummary> findSummariesByPortfolio(Long portfolioId);
+
+    // For ETags: read before the body, so a concurrent change can only make the tag older than the body
+    @Query("SELECT p.version FROM ProjectEntity p WHERE p.id = :id")
+    Optional<Integer> findVersionById(Long id);
+
+    @Query("SELECT pf.user.id FROM ProjectEntity p JOIN p.portfolio pf WHERE p.id = :id")
+    Optional<Long> findOwnerIdById(Long id);
+
+    @Query("SELECT new com.example.portfolio.dto.ContentStamp(COUNT(p), COALESCE(SUM(p.version), 0), COALESCE(MAX(p.id), 0), " +
+            "(SELECT COUNT(c) FROM ProjectComment c WHERE c.project.portfolio.id = :portfolioId)) " +
+            "FROM ProjectEntity p WHERE p.portfolio.id = :portfolioId")
+    ContentStamp findStampByPortfolio(Long portfolioId);
+
+    @Query("SELECT new com.example.portfolio.dto.ContentStamp(COUNT(p), COALESCE(SUM(p.version), 0), COALESCE(MAX(p.id), 0), " +
+            "(SELECT COUNT(c) FROM ProjectComment c WHERE c.project.portfolio.user.id = :userId)) " +
+            "FROM ProjectEntity p WHERE p.portfolio.user.id = :userId")
+    ContentStamp findStampByUser(Long userId);
+
+    // Only the ids, so likes can be deduplicated without loading the liked projects
+    @Query(value = "SELECT liked_projects_id FROM users_liked_projects WHERE user_entity_id = :userId", nativeQuery = true)
+    List<Long> findLikedProjectIds(Long userId);
+
+    // Join rows that point at a project, cleared before the project itself is deleted
+    @Modifying
+    @Query(value = "DELETE FROM users_liked_projects WHERE liked_projects_id = :projectId", nativeQuery = true)
+    int deleteLikesOf(Long projectId);
+
+    @Modifying
+    @Query(value = "DELETE FROM users_saved_projects WHERE project_id = :projectId", nativeQuery = true)
+    int deleteSavesOf(Long projectId);
+
+    // Keyset pages of a user's own projects, newest first
+    @Query(SUMMARY + "FROM ProjectEntity p JOIN p.portfolio pf JOIN pf.user u WHERE u.id = :userId" + NEWEST_FIRST)
+    List<ProjectSummary> findSummariesByUser(Long userId, Limit limit);
+
+    @Query(SUMMARY + "FROM ProjectEntity p JOIN p.portfolio pf JOIN pf.user u WHERE u.id = :userId" + BEFORE_CURSOR + NEWEST_FIRST)
+    List<ProjectSummary> findSummariesByUserBefore(Long userId, LocalDateTime createdAt, Long id, Limit limit);
+
+    // Keyset pages of the projects a user has saved, newest first
+    @Query(SUMMARY + "FROM UserEntity me JOIN me.savedProjects p JOIN p.portfolio pf JOIN pf.user u WHERE me.id = :userId" + NEWEST_FIRST)
+    List<ProjectSummary> findSavedSummaries(Long userId, Limit limit);
+
+    @Query(SUMMARY + "FROM UserEntity me JOIN me.savedProjects p JOIN p.portfolio pf JOIN pf.user u WHERE me.id = :userId" + BEFORE_CURSOR + NEWEST_FIRST)
+    List<ProjectSummary> findSavedSummariesBefore(Long userId, LocalDateTime createdAt, Long id, Limit limit);
+
+    // Home feed: positions of the newest projects by a set of authors, rendered later by id
+    @Query(FEED_ITEM + "WHERE u.id IN :authorIds" + NEWEST_FIRST)
+    List<FeedItem> findFeedItemsByAuthors(Collection<Long> authorIds, Limit limit);
+
+    @Query(FEED_ITEM + "WHERE u.id IN :authorIds" + BEFORE_CURSOR + NEWEST_FIRST)
+    List<FeedItem> findFeedItemsByAuthorsBefore(Collection<Long> authorIds, LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query("SELECT p.id FROM ProjectEntity p WHERE p.id IN :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    @Query(SUMMARY + "FROM ProjectEntity p JOIN p.portfolio pf JOIN pf.user u WHERE p.id IN :ids")
+    List<ProjectSummary> findSummariesByIds(Collection<Long> ids);
+
+    /** Summaries in the order of {@code ids}, in one query; ids of deleted projects are skipped. */
+    default List<ProjectSummary> findSummariesInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProjectSummary> byId = new HashMap<>();
+        for (ProjectSummary summary : findSummariesByIds(ids)) {
+            byId.put(summary.id(), summary);
+        }
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
 }
@@ -0,0 +1,198 @@
+package com.example.portfolio.Service;
+
+import com.example.portfolio.Repository.ProjectRepository;
+import com.example.portfolio.dto.BulkMutation;
+import com.example.portfolio.dto.BulkMutation.Op;
+import com.example.portfolio.dto.BulkResult;
+import com.example.portfolio.dto.BulkResult.Status;
+import com.example.portfolio.dto.ProjectSummary;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads and mutations for many projects or users per request. A whole mutation list costs a fixed
+ * number of statements: one to check which projects exist, one for the current saved state, and one
+ * JDBC batch each for saves, unsaves, follows and unfollows, all in one transaction. Likes go through
+ * {@link LikeBuffer} as single likes do, once that transaction has committed.
+ */
+@Service
+@Timed("portfolio.service")
+public class BulkService {
+
+    public static final int MAX_ITEMS = 100;
+
+    private static final long CURRENT_USER_ID = 2L;
+
+    private static final String INSERT_SAVED =
+            "INSERT INTO users_saved_projects (user_id, project_id) SELECT ?, ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM users_saved_projects WHERE user_id = ? AND project_id = ?)";
+
+    private static final String DELETE_SAVED = "DELETE FROM users_saved_projects WHERE user_id = ? AND project_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProjectRepository projectRepository;
+    private final UserCache userCache;
+    private final LikeBuffer likeBuffer;
+    private final TrendingService trendingService;
+    private final FollowGraph followGraph;
+    private final FeedService feedService;
+
+    public BulkService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                       ProjectRepository projectRepository, UserCache userCache, LikeBuffer likeBuffer,
+                       TrendingService trendingService, FollowGraph followGraph, FeedService feedService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.projectRepository = projectRepository;
+        this.userCache = userCache;
+        this.likeBuffer = likeBuffer;
+        this.trendingService = trendingService;
+        this.followGraph = followGraph;
+        this.feedService = feedService;
+    }
+
+    /** Summaries of the projects, in the order asked for; unknown ids are skipped. */
+    public List<ProjectSummary> getProjects(List<Long> ids) {
+        checkSize(ids);
+        return projectRepository.findSummariesInOrder(ids.stream().distinct().toList());
+    }
+
+    /** Whether the current user follows each of the users, answered from the follow graph. */
+    public Map<Long, Boolean> getFollowing(List<Long> userIds) {
+        checkSize(userIds);
+        Map<Long, Boolean> following = new LinkedHashMap<>();
+        for (Long userId : userIds) {
+            following.put(userId, followGraph.isFollowing(CURRENT_USER_ID, userId));
+        }
+        return following;
+    }
+
+    /**
+     * Applies the mutations in order as the current user and returns one result per item. Later items see
+     * the effect of earlier ones, so following and then unfollowing the same user is two APPLIED results
+     * and no change.
+     */
+    public List<BulkResult> apply(List<BulkMutation> mutations) {
+        checkSize(mutations);
+        long me = userCache.requireUser(CURRENT_USER_ID).id();
+
+        Set<Long> projectIds = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        for (BulkMutation mutation : mutations) {
+            if (mutation.op() != null && mutation.id() != null) {
+                (mutation.op().targetsProject() ? projectIds : userIds).add(mutation.id());
+            }
+        }
+        Set<Long> existingProjects = projectIds.isEmpty() ? Set.of() : new HashSet<>(projectRepository.findExistingIds(projectIds));
+        Set<Long> existingUsers = userIds.isEmpty() ? Set.of() : followGraph.existingUsers(userIds);
+        Set<Long> saved = savedAmong(me, existingProjects);
+        Set<Long> savedBefore = new HashSet<>(saved);
+
+        Status[] statuses = new Status[mutations.size()];
+        Map<Long, Boolean> wantedFollows = new LinkedHashMap<>();
+        List<Integer> likes = new ArrayList<>();
+        for (int i = 0; i < statuses.length; i++) {
+            BulkMutation mutation = mutations.get(i);
+            Op op = mutation.op();
+            Long id = mutation.id();
+            if (op == null || id == null || (op == Op.FOLLOW && id == me)) {
+                statuses[i] = Status.INVALID;
+            } else if (!(op.targetsProject() ? existingProjects : existingUsers).contains(id)) {
+                statuses[i] = Status.NOT_FOUND;
+            } else {
+                statuses[i] = switch (op) {
+                    case LIKE -> {
+                        likes.add(i);
+                        yield null;
+                    }
+                    case SAVE -> saved.add(id) ? Status.APPLIED : Status.UNCHANGED;
+                    case UNSAVE -> saved.remove(id) ? Status.APPLIED : Status.UNCHANGED;
+                    case FOLLOW, UNFOLLOW -> {
+                        boolean follow = op == Op.FOLLOW;
+                        boolean current = wantedFollows.containsKey(id) ? wantedFollows.get(id) : followGraph.isFollowing(me, id);
+                        wantedFollows.put(id, follow);
+                        yield current == follow ? Status.UNCHANGED : Status.APPLIED;
+                    }
+                };
+            }
+        }
+
+        List<Long> toSave = saved.stream().filter(id -> !savedBefore.contains(id)).toList();
+        List<Long> toUnsave = savedBefore.stream().filter(id -> !saved.contains(id)).toList();
+        List<Long> followsChanged = List.of();
+        if (!toSave.isEmpty() || !toUnsave.isEmpty() || !wantedFollows.isEmpty()) {
+            followsChanged = transactionTemplate.execute(status -> {
+                if (!toSave.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_SAVED, toSave, MAX_ITEMS, (ps, projectId) -> {
+                        ps.setLong(1, me);
+                        ps.setLong(2, projectId);
+                        ps.setLong(3, me);
+                        ps.setLong(4, projectId);
+                    });
+                }
+                if (!toUnsave.isEmpty()) {
+                    jdbcTemplate.batchUpdate(DELETE_SAVED, toUnsave, MAX_ITEMS, (ps, projectId) -> {
+                        ps.setLong(1, me);
+                        ps.setLong(2, projectId);
+                    });
+                }
+                return wantedFollows.isEmpty() ? List.of() : followGraph.applyAll(me, wantedFollows);
+            });
+        }
+        if (!followsChanged.isEmpty()) {
+            feedService.invalidate(me);
+        }
+
+        for (int i : likes) {
+            long projectId = mutations.get(i).id();
+            boolean liked = likeBuffer.like(me, projectId);
+            if (liked) {
+                trendingService.recordLike(projectId);
+            }
+            statuses[i] = liked ? Status.APPLIED : Status.UNCHANGED;
+        }
+
+        List<BulkResult> results = new ArrayList<>(statuses.length);
+        for (int i = 0; i < statuses.length; i++) {
+            results.add(new BulkResult(mutations.get(i).op(), mutations.get(i).id(), statuses[i]));
+        }
+        return results;
+    }
+
+    private Set<Long> savedAmong(long userId, Collection<Long> projectIds) {
+        Set<Long> saved = new HashSet<>();
+        if (projectIds.isEmpty()) {
+            return saved;
+        }
+        List<Object> args = new ArrayList<>(projectIds.size() + 1);
+        args.add(userId);
+        args.addAll(projectIds);
+        String placeholders = String.join(", ", Collections.nCopies(projectIds.size(), "?"));
+        jdbcTemplate.query("SELECT project_id FROM users_saved_projects WHERE user_id = ? AND project_id IN (" + placeholders + ")",
+                rs -> { saved.add(rs.getLong(1)); }, args.toArray());
+        return saved;
+    }
+
+    private static void checkSize(Collection<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No items given");
+        }
+        if (items.size() > MAX_ITEMS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_ITEMS + " items per request");
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package com.example.portfolio.Service;
+
+import com.example.portfolio.Repository.ProjectRepository;
+import com.example.portfolio.entity.ProjectEntity;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resumable video uploads: a session preallocates a temp file, chunks are written into it by offset
+ * (in any order and in parallel), and completing the session stores the file like a regular upload.
+ * <p>
+ * The content hash is computed incrementally over the contiguous prefix received so far, so in-order
+ * uploads are hashed while they arrive and complete() only hashes whatever was received out of order.
+ * Received bytes are never written again: a chunk that overlaps a received range or another chunk still
+ * being written is refused with 409, as is any chunk once completion has started, so the stored hash
+ * always matches the stored bytes.
+ * <p>
+ * Each session holds a file as large as the video, so open sessions are capped per project owner and in
+ * total; past either cap a new session is refused with 429 until one completes, is aborted or times out.
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String VIDEO_EXTENSIONS = "\\.(mp4|m4v|mov|webm|mkv|ogv)$";
+
+    private final ProjectRepository projectRepository;
+    private final MediaStorage mediaStorage;
+    private final MediaIndex mediaIndex;
+    private final ContentHasher contentHasher;
+    private final DataSize maxVideoSize;
+    private final Duration sessionTimeout;
+    private final int maxSessions;
+    private final int maxSessionsPerUser;
+
+    private final ConcurrentHashMap<String, UploadSession> sessions = new ConcurrentHashMap<>();
+    // Open sessions per project owner, and in total; a slot is taken before the session exists
+    private final ConcurrentHashMap<Long, Integer> sessionsPerUser = new ConcurrentHashMap<>();
+    private final AtomicInteger openSessions = new AtomicInteger();
+
+    public ChunkedUploadService(ProjectRepository projectRepository, MediaStorage mediaStorage, MediaIndex mediaIndex,
+                                ContentHasher contentHasher,
+                                @Value("${portfolio.media.max-video-size:2GB}") DataSize maxVideoSize,
+                                @Value("${portfolio.media.upload-session-timeout:30m}") Duration sessionTimeout,
+                                @Value("${portfolio.media.upload-sessions.max:100}") int maxSessions,
+                                @Value("${portfolio.media.upload-sessions.max-per-user:4}") int maxSessionsPerUser) {
+        this.projectRepository = projectRepository;
+        this.mediaStorage = mediaStorage;
+        this.mediaIndex = mediaIndex;
+        this.contentHasher = contentHasher;
+        this.maxVideoSize = maxVideoSize;
+        this.sessionTimeout = sessionTimeout;
+        this.maxSessions = maxSessions;
+        this.maxSessionsPerUser = maxSessionsPerUser;
+    }
+
+    public record UploadStatus(String sessionId, Long projectId, long totalSize, long receivedBytes, List<long[]> receivedRanges) {
+    }
+
+    /** The lower-cased extension of an uploaded video's name, refused with 400 unless it is a known video format. */
+    static String videoExtensionOf(String filename) {
+        String cleaned = StringUtils.cleanPath(filename == null ? "" : filename);
+        if (cleaned.lastIndexOf('.') < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid file name");
+        }
+        String extension = cleaned.substring(cleaned.lastIndexOf('.')).toLowerCase();
+        if (!extension.matches(VIDEO_EXTENSIONS)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only MP4, M4V, MOV, WebM, MKV and OGV files are allowed");
+        }
+        return extension;
+    }
+
+    public UploadStatus initiate(Long projectId, String filename, String contentType, long totalSize) {
+        if (contentType == null || !contentType.startsWith("video/")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid file type. Only video files are allowed.");
+        }
+        String extension = videoExtensionOf(filename);
+        if (totalSize <= 0 || totalSize > maxVideoSize.toBytes()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Video size must be between 1 byte and " + maxVideoSize.toMegabytes() + "MB");
+        }
+        Long ownerId = projectRepository.findOwnerIdById(projectId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Project not found"));
+
+        acquireSlot(ownerId);
+        try {
+            Path file = mediaStorage.createTempFile("chunked-");
+            try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+                raf.setLength(totalSize);
+            }
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            UploadSession session = new UploadSession(UUID.randomUUID().toString(), projectId, ownerId, extension, totalSize,
+                    file, channel, contentHasher.start(channel));
+            sessions.put(session.id, session);
+            return session.status();
+        } catch (IOException e) {
+            releaseSlot(ownerId);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to start upload: " + e.getMessage());
+        }
+    }
+
+    public UploadStatus writeChunk(String sessionId, long offset, InputStream body) {
+        UploadSession session = getSession(sessionId);
+        if (offset < 0 || offset >= session.totalSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Offset is outside of the upload");
+        }
+
+        session.startWrite(offset);
+        long position = offset;
+        boolean written = false;
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            int read;
+            while ((read = body.read(buffer.array(), 0, buffer.capacity())) != -1) {
+                if (position + read > session.totalSize) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Chunk extends past the declared size");
+                }
+                session.extendWrite(offset, position, position + read);
+                buffer.limit(read).position(0);
+                while (buffer.hasRemaining()) {
+                    // Positional writes don't move the channel's position, so chunks can be written concurrently
+                    position += session.channel.write(buffer, position);
+                }
+                buffer.clear();
+                session.touch();
+            }
+            written = true;
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to write chunk: " + e.getMessage());
+        } finally {
+            // A chunk that failed part way is not marked received and can be sent again
+            session.endWrite(offset, written ? position : offset);
+        }
+
+        if (position > offset) {
+            session.advanceHash();
+        }
+        return session.status();
+    }
+
+    public UploadStatus getStatus(String sessionId) {
+        return getSession(sessionId).status();
+    }
+
+    public String complete(String sessionId) {
+        UploadSession session = getSession(sessionId);
+        session.startCompletion();
+        if (!remove(sessionId, session)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload session not found");
+        }
+
+        ProjectEntity project = projectRepository.findById(session.projectId).orElse(null);
+        if (project == null) {
+            session.discard();
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Project not found");
+        }
+
+        try {
+            String hash = session.finishHash();
+            session.channel.close();
+            MediaStorage.StagedMedia staged = new MediaStorage.StagedMedia(session.file, hash, session.hashing.legacyHash(),
+                    session.totalSize);
+            String videoUrl = mediaIndex.store(staged, session.extension).url();
+
+            String previousUrl = project.getVideoUrl();
+            project.setVideoUrl(videoUrl);
+            projectRepository.save(project);
+            mediaIndex.release(previousUrl);
+            return videoUrl;
+        } catch (IOException e) {
+            session.discard();
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to complete upload: " + e.getMessage());
+        }
+    }
+
+    public void abort(String sessionId) {
+        UploadSession session = sessions.get(sessionId);
+        if (session == null || !remove(sessionId, session)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload session not found");
+        }
+        session.discard();
+    }
+
+    @Scheduled(fixedDelayString = "${portfolio.media.upload-session-sweep-ms:60000}")
+    public void reclaimIdleSessions() {
+        long cutoff = System.currentTimeMillis() - sessionTimeout.toMillis();
+        sessions.forEach((id, session) -> {
+            if (session.lastTouched < cutoff && remove(id, session)) {
+                log.info("Reclaiming idle upload session {} for project {}", id, session.projectId);
+                session.discard();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void discardAll() {
+        sessions.values().forEach(UploadSession::discard);
+        sessions.clear();
+    }
+
+    private void acquireSlot(Long ownerId) {
+        if (openSessions.incrementAndGet() > maxSessions) {
+            openSessions.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many uploads in progress, try again later");
+        }
+        if (sessionsPerUser.merge(ownerId, 1, Integer::sum) > maxSessionsPerUser) {
+            releaseSlot(ownerId);
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "At most " + maxSessionsPerUser + " video uploads per user can be in progress");
+        }
+    }
+
+    private void releaseSlot(Long ownerId) {
+        sessionsPerUser.computeIfPresent(ownerId, (id, count) -> count > 1 ? count - 1 : null);
+        openSessions.decrementAndGet();
+    }
+
+    // Only the caller that removes the session gives back its slot
+    private boolean remove(String sessionId, UploadSession session) {
+        if (!sessions.remove(sessionId, session)) {
+            return false;
+        }
+        releaseSlot(session.ownerId);
+        return true;
+    }
+
+    private UploadSession getSession(String sessionId) {
+        UploadSession session = sessions.get(sessionId);
+        if (session == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload session not found");
+        }
+        session.touch();
+        return session;
+    }
+
+    private static final class UploadSession {
+
+        private final String id;
+        private final Long projectId;
+        private final Long ownerId;
+        private final String extension;
+        private final long totalSize;
+        private final Path file;
+        private final FileChannel channel;
+
+        // Received byte ranges, start -> end (exclusive), merged as chunks arrive
+        private final TreeMap<Long, Long> ranges = new TreeMap<>();
+        // Chunks being written, start -> end written so far; guarded like ranges
+        private final TreeMap<Long, Long> writing = new TreeMap<>();
+        private boolean completing;
+        private final ContentHasher.Hashing hashing;
+        private final ReentrantLock hashLock = new ReentrantLock();
+        private volatile long hashedUpTo;
+        private volatile long lastTouched = System.currentTimeMillis();
+
+        private UploadSession(String id, Long projectId, Long ownerId, String extension, long totalSize, Path file,
+                              FileChannel channel, ContentHasher.Hashing hashing) {
+            this.id = id;
+            this.projectId = projectId;
+            this.ownerId = ownerId;
+            this.extension = extension;
+            this.totalSize = totalSize;
+            this.file = file;
+            this.channel = channel;
+            this.hashing = hashing;
+        }
+
+        private void touch() {
+            lastTouched = System.currentTimeMillis();
+        }
+
+        private synchronized void markReceived(long start, long end) {
+            Map.Entry<Long, Long> before = ranges.floorEntry(start);
+            if (before != null && before.getValue() >= start) {
+                start = before.getKey();
+                end = Math.max(end, before.getValue());
+            }
+            Map.Entry<Long, Long> after;
+            while ((after = ranges.ceilingEntry(start)) != null && after.getKey() <= end) {
+                end = Math.max(end, after.getValue());
+                ranges.remove(after.getKey());
+            }
+            ranges.put(start, end);
+        }
+
+        /** Reserves the start of a chunk; refused if it lands on received data or completion has started. */
+        private synchronized void startWrite(long offset) {
+            if (completing) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload is being completed");
+            }
+            Map.Entry<Long, Long> inFlight = writing.floorEntry(offset);
+            if (offset < hashedUpTo || overlapsReceived(offset, offset + 1)
+                    || (inFlight != null && inFlight.getValue() > offset) || writing.containsKey(offset)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Chunk at " + offset + " overlaps data already received");
+            }
+            writing.put(offset, offset);
+        }
+
+        /** Claims {@code [from, to)} for the chunk that started at {@code offset} before it is written. */
+        private synchronized void extendWrite(long offset, long from, long to) {
+            // Other chunks before this one end at or before its start, so only the next one can be in the way
+            Long next = writing.higherKey(offset);
+            if (overlapsReceived(from, to) || (next != null && next < to)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Chunk at " + offset + " runs into data already received");
+            }
+            writing.put(offset, to);
+        }
+
+        // Marks the chunk received in the same step, so no other chunk can claim its bytes in between
+        private synchronized void endWrite(long offset, long end) {
+            writing.remove(offset);
+            if (end > offset) {
+                markReceived(offset, end);
+            }
+        }
+
+        private boolean overlapsReceived(long start, long end) {
+            Map.Entry<Long, Long> before = ranges.floorEntry(start);
+            Long after = ranges.ceilingKey(start);
+            return (before != null && before.getValue() > start) || (after != null && after < end);
+        }
+
+        /** From here on no chunk is accepted; refused while data is missing or still being written. */
+        private synchronized void startCompletion() {
+            if (!writing.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Chunks are still being written");
+            }
+            if (contiguousEnd() < totalSize) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload is missing data, received " + receivedBytes()
+                        + " of " + totalSize + " bytes");
+            }
+            completing = true;
+        }
+
+        private synchronized long contiguousEnd() {
+            Long end = ranges.get(0L);
+            return end == null ? 0 : end;
+        }
+
+        private synchronized long receivedBytes() {
+            return ranges.entrySet().stream().mapToLong(r -> r.getValue() - r.getKey()).sum();
+        }
+
+        private synchronized UploadStatus status() {
+            List<long[]> received = new ArrayList<>();
+            ranges.forEach((start, end) -> received.add(new long[]{start, end}));
+            return new UploadStatus(id, projectId, totalSize, receivedBytes(), received);
+        }
+
+        /** Feeds the newly contiguous prefix to the hash; whoever holds the lock does the work. */
+        private void advanceHash() {
+            while (contiguousEnd() > hashedUpTo && hashLock.tryLock()) {
+                try {
+                    long end = contiguousEnd();
+                    hashing.advance(end);
+                    hashedUpTo = end;
+                } catch (IOException e) {
+                    throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to hash upload: " + e.getMessage());
+                } finally {
+                    hashLock.unlock();
+                }
+            }
+        }
+
+        private String finishHash() throws IOException {
+            hashLock.lock();
+            try {
+                return hashing.finish(totalSize);
+            } finally {
+                hashLock.unlock();
+            }
+        }
+
+        private void discard() {
+            hashing.close();
+            try {
+                channel.close();
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Failed to delete upload file {}", file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.example.portfolio.Service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Content hashes that name stored media. The algorithm is set by {@code portfolio.media.hash.algorithm}:
+ * <ul>
+ *   <li>{@code MD5}: the name of files stored before this was configurable</li>
+ *   <li>{@code SHA_256}: one digest over the whole content on the caller's thread, using the JDK's SHA
+ *   intrinsics where the CPU has them</li>
+ *   <li>{@code SHA_256_TREE} (default): the content is cut into 1 MiB leaves that are hashed in parallel
+ *   on a ForkJoinPool while the upload is still being written, then combined as a binary tree:
+ *   leaf = SHA-256(0x00 || block), node = SHA-256(0x01 || left || right), and an odd node is carried up
+ *   unchanged. A large video costs about one leaf of hashing after its last byte arrives.</li>
+ * </ul>
+ * Uploads that arrive front to back are digested from the bytes as they are written; the tree leaves and
+ * out-of-order chunks are read back from the file, so no copy of the upload is held in memory.
+ * <p>
+ * Files named by another algorithm stay valid: their names are served, counted and released as before,
+ * and {@link MediaIndex} records their hash under this algorithm once, so re-uploads still reuse them.
+ * {@code portfolio.media.hash.legacy-md5} additionally computes an MD5 in the same pass as the configured
+ * hash; it is off by default and only needed until that back-fill has run.
+ */
+@Component
+public class ContentHasher {
+
+    public enum Algorithm {
+        MD5, SHA_256, SHA_256_TREE
+    }
+
+    static final int LEAF_SIZE = 1024 * 1024;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte LEAF = 0x00;
+    private static final byte NODE = 0x01;
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final Algorithm algorithm;
+    private final boolean legacyMd5;
+    private final ForkJoinPool pool;
+    // Per worker thread, so a leaf costs no allocation beyond its 32-byte digest
+    private final ThreadLocal<MessageDigest> leafDigests = ThreadLocal.withInitial(() -> newDigest(Algorithm.SHA_256));
+    private final ThreadLocal<ByteBuffer> leafBuffers = ThreadLocal.withInitial(() -> ByteBuffer.allocate(BUFFER_SIZE));
+
+    public ContentHasher(@Value("${portfolio.media.hash.algorithm:SHA_256_TREE}") Algorithm algorithm,
+                         @Value("${portfolio.media.hash.threads:0}") int threads,
+                         @Value("${portfolio.media.hash.legacy-md5:false}") boolean legacyMd5) {
+        this.algorithm = algorithm;
+        this.legacyMd5 = legacyMd5 && algorithm != Algorithm.MD5;
+        this.pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Starts hashing the content of {@code channel}, which is written front to back and may still be
+     * growing. The channel must be open for reading until {@link Hashing#finish} returns.
+     */
+    public Hashing start(FileChannel channel) {
+        Hashing hashing = startWithoutLegacy(channel);
+        return legacyMd5 ? new WithLegacyHashing(hashing, new StreamHashing(channel, newDigest(Algorithm.MD5))) : hashing;
+    }
+
+    /** Hash of a complete file. */
+    public String hash(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             Hashing hashing = startWithoutLegacy(channel)) {
+            return hashing.finish(Files.size(file));
+        }
+    }
+
+    private Hashing startWithoutLegacy(FileChannel channel) {
+        return algorithm == Algorithm.SHA_256_TREE ? new TreeHashing(channel) : new StreamHashing(channel, newDigest(algorithm));
+    }
+
+    /**
+     * Incremental hash of a file. {@link #advance} may be called as often as bytes are written; only the
+     * bytes it has not seen are read. Not thread-safe; callers that write concurrently hold a lock.
+     */
+    public interface Hashing extends AutoCloseable {
+
+        /** Bytes {@code [0, end)} are written and final. */
+        void advance(long end) throws IOException;
+
+        /**
+         * As {@link #advance}, for a writer that has the bytes just written at hand: {@code bytes} holds
+         * {@code [end - bytes.remaining(), end)}. Hashes that are not behind consume them without a read.
+         */
+        void written(ByteBuffer bytes, long end) throws IOException;
+
+        /** Hashes the rest of the first {@code size} bytes and returns the hex digest. */
+        String finish(long size) throws IOException;
+
+        /** The MD5 of the content after {@link #finish}, if legacy MD5 names are looked up; otherwise {@code null}. */
+        default String legacyHash() {
+            return null;
+        }
+
+        /** Stops work that is still queued, e.g. when an upload is abandoned. */
+        @Override
+        void close();
+    }
+
+    private static final class StreamHashing implements Hashing {
+
+        private final FileChannel channel;
+        private final MessageDigest digest;
+        private ByteBuffer buffer;
+        private long hashedUpTo;
+
+        private StreamHashing(FileChannel channel, MessageDigest digest) {
+            this.channel = channel;
+            this.digest = digest;
+        }
+
+        @Override
+        public void advance(long end) throws IOException {
+            if (hashedUpTo >= end) {
+                return;
+            }
+            if (buffer == null) {
+                buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            }
+            hashedUpTo = read(channel, hashedUpTo, end, buffer, digest);
+        }
+
+        @Override
+        public void written(ByteBuffer bytes, long end) throws IOException {
+            if (hashedUpTo == end - bytes.remaining()) {
+                digest.update(bytes.duplicate());
+                hashedUpTo = end;
+            } else {
+                advance(end);
+            }
+        }
+
+        @Override
+        public String finish(long size) throws IOException {
+            advance(size);
+            return hex(digest.digest());
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private final class TreeHashing implements Hashing {
+
+        private final FileChannel channel;
+        private final List<ForkJoinTask<byte[]>> leaves = new ArrayList<>();
+        private long submittedUpTo;
+
+        private TreeHashing(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void advance(long end) {
+            while (end - submittedUpTo >= LEAF_SIZE) {
+                submit(LEAF_SIZE);
+            }
+        }
+
+        // Leaves are hashed on the pool from the file, which is still in the page cache
+        @Override
+        public void written(ByteBuffer bytes, long end) {
+            advance(end);
+        }
+
+        @Override
+        public String finish(long size) throws IOException {
+            advance(size);
+            // Empty content is one empty leaf, so every size has a root
+            if (submittedUpTo < size || leaves.isEmpty()) {
+                submit((int) (size - submittedUpTo));
+            }
+            byte[][] level = new byte[leaves.size()][];
+            for (int i = 0; i < level.length; i++) {
+                level[i] = join(leaves.get(i));
+            }
+            return hex(root(level));
+        }
+
+        @Override
+        public void close() {
+            for (ForkJoinTask<byte[]> leaf : leaves) {
+                leaf.cancel(false);
+            }
+        }
+
+        private void submit(int length) {
+            long position = submittedUpTo;
+            leaves.add(pool.submit(() -> hashLeaf(channel, position, length)));
+            submittedUpTo += length;
+        }
+    }
+
+    private static final class WithLegacyHashing implements Hashing {
+
+        private final Hashing hashing;
+        private final Hashing md5;
+        private String legacyHash;
+
+        private WithLegacyHashing(Hashing hashing, Hashing md5) {
+            this.hashing = hashing;
+            this.md5 = md5;
+        }
+
+        @Override
+        public void advance(long end) throws IOException {
+            hashing.advance(end);
+            md5.advance(end);
+        }
+
+        @Override
+        public void written(ByteBuffer bytes, long end) throws IOException {
+            hashing.written(bytes, end);
+            md5.written(bytes, end);
+        }
+
+        @Override
+        public String finish(long size) throws IOException {
+            String hash = hashing.finish(size);
+            legacyHash = md5.finish(size);
+            return hash;
+        }
+
+        @Override
+        public String legacyHash() {
+            return legacyHash;
+        }
+
+        @Override
+        public void close() {
+            hashing.close();
+            md5.close();
+        }
+    }
+
+    private byte[] hashLeaf(FileChannel channel, long position, int length) throws IOException {
+        MessageDigest digest = leafDigests.get();
+        digest.reset();
+        digest.update(LEAF);
+        read(channel, position, position + length, leafBuffers.get(), digest);
+        return digest.digest();
+    }
+
+    // A few thousand nodes even for the largest videos, so the combining is not worth forking
+    private static byte[] root(byte[][] level) {
+        MessageDigest digest = newDigest(Algorithm.SHA_256);
+        while (level.length > 1) {
+            byte[][] parents = new byte[(level.length + 1) / 2][];
+            for (int i = 0; i < parents.length; i++) {
+                if (2 * i + 1 == level.length) {
+                    parents[i] = level[2 * i];
+                } else {
+                    digest.update(NODE);
+                    digest.update(level[2 * i]);
+                    digest.update(level[2 * i + 1]);
+                    parents[i] = digest.digest();
+                }
+            }
+            level = parents;
+        }
+        return level[0];
+    }
+
+    private static long read(FileChannel channel, long from, long to, ByteBuffer buffer, MessageDigest digest) throws IOException {
+        long position = from;
+        while (position < to) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), to - position));
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of upload file");
+            }
+            digest.update(buffer.array(), 0, read);
+            position += read;
+        }
+        return position;
+    }
+
+    private static byte[] join(ForkJoinTask<byte[]> leaf) throws IOException {
+        try {
+            return leaf.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while hashing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Failed to hash upload", e.getCause());
+        }
+    }
+
+    static MessageDigest newDigest(Algorithm algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm == Algorithm.MD5 ? "MD5" : "SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(algorithm + " is not available", e);
+        }
+    }
+
+    /** Lower-case hex, written from a lookup table straight into the bytes of the string. */
+    public static String hex(byte[] bytes) {
+        byte[] digits = new byte[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            digits[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            digits[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(digits, StandardCharsets.ISO_8859_1);
+    }
+}
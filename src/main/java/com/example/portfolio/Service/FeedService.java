@@ -0,0 +1,335 @@
+package com.example.portfolio.Service;
+
+import com.example.portfolio.Repository.ProjectRepository;
+import com.example.portfolio.dto.Cursor;
+import com.example.portfolio.dto.CursorPage;
+import com.example.portfolio.dto.FeedItem;
+import com.example.portfolio.dto.ProjectSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Home feed: the newest projects of the accounts a user follows.
+ * <p>
+ * Each user who reads the feed gets a bounded in-memory timeline of project positions, built from the
+ * database on first read and then kept current by fan-out on write: a new project is pushed into the
+ * timelines of its author's active followers. Accounts with more than
+ * {@code portfolio.feed.fanout-threshold} followers are not fanned out; their recent projects are kept
+ * once and merged in on read. A page therefore costs a few in-memory lookups plus one query to render
+ * it, whatever the number of followed accounts. Pages older than what the timelines hold are read from
+ * the database.
+ * <p>
+ * Timelines are built outside the maps, so no map bin is held during the query. Projects fanned out
+ * while a build is querying are buffered and added before the built timeline is used, since the query
+ * may have read a snapshot from before they were committed.
+ */
+@Service
+public class FeedService {
+
+    private static final Logger log = LoggerFactory.getLogger(FeedService.class);
+
+    // Keeps IN lists well below PostgreSQL's bind parameter limit
+    private static final int AUTHOR_BATCH = 1000;
+
+    private final ProjectRepository projectRepository;
+    private final FollowGraph followGraph;
+    private final int timelineSize;
+    private final int fanoutThreshold;
+    private final Duration idleTimeout;
+
+    private final ConcurrentHashMap<Long, Timeline> timelines = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Timeline> celebrityTimelines = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Pending> pendingTimelines = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Pending> pendingCelebrityTimelines = new ConcurrentHashMap<>();
+    // Bumped when timelines are dropped, so a build that started before is not cached
+    private final AtomicLong epoch = new AtomicLong();
+    private volatile Set<Long> celebrities;
+
+    public FeedService(ProjectRepository projectRepository, FollowGraph followGraph,
+                       @Value("${portfolio.feed.timeline-size:500}") int timelineSize,
+                       @Value("${portfolio.feed.fanout-threshold:10000}") int fanoutThreshold,
+                       @Value("${portfolio.feed.idle-timeout:30m}") Duration idleTimeout) {
+        this.projectRepository = projectRepository;
+        this.followGraph = followGraph;
+        this.timelineSize = timelineSize;
+        this.fanoutThreshold = fanoutThreshold;
+        this.idleTimeout = idleTimeout;
+    }
+
+    public CursorPage<ProjectSummary> getFeed(long userId, String cursor, int size) {
+        int pageSize = CursorPage.clampSize(size);
+        Cursor after = Cursor.decode(cursor);
+
+        List<FeedItem> items = fromMemory(userId, after, pageSize + 1);
+        if (items == null) {
+            items = fromDatabase(userId, after, pageSize + 1);
+        }
+
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            nextCursor = items.get(pageSize - 1).cursor().encode();
+        }
+        return new CursorPage<>(render(items), nextCursor);
+    }
+
+    /**
+     * Pushes a newly created project into the feeds that show it. Runs after the surrounding transaction
+     * commits, so a rolled back project never shows up.
+     */
+    public void publish(FeedItem item) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    fanOut(item);
+                }
+            });
+        } else {
+            fanOut(item);
+        }
+    }
+
+    /** Drops the user's timeline after their follows changed; it is rebuilt on the next read. */
+    public void invalidate(long userId) {
+        epoch.incrementAndGet();
+        timelines.remove(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${portfolio.feed.sweep-ms:60000}")
+    public void maintain() {
+        long cutoff = System.currentTimeMillis() - idleTimeout.toMillis();
+        timelines.values().removeIf(timeline -> timeline.lastRead < cutoff);
+
+        // Accounts that crossed the threshold either way move between fan-out and merge-on-read
+        Set<Long> current = followGraph.usersWithFollowersAtLeast(fanoutThreshold);
+        if (celebrities != null && !current.equals(celebrities)) {
+            log.info("Fan-out threshold crossed, {} accounts are now merged on read; resetting timelines", current.size());
+            epoch.incrementAndGet();
+            timelines.clear();
+            celebrityTimelines.keySet().retainAll(current);
+        }
+        celebrities = current;
+    }
+
+    private void fanOut(FeedItem item) {
+        long authorId = item.authorId();
+        if (celebrities().contains(authorId)) {
+            deliver(celebrityTimelines, pendingCelebrityTimelines, authorId, item);
+            return;
+        }
+        // Only active timelines and those being built are updated; the others are built from the database when next read
+        for (long followerId : followGraph.followersOf(authorId)) {
+            deliver(timelines, pendingTimelines, followerId, item);
+        }
+    }
+
+    private void deliver(ConcurrentHashMap<Long, Timeline> cache, ConcurrentHashMap<Long, Pending> pending, long key, FeedItem item) {
+        Timeline timeline = cache.get(key);
+        if (timeline == null) {
+            Pending building = pending.get(key);
+            if (building != null && building.add(item)) {
+                return;
+            }
+            // No build, or one that has just put its timeline in the map and closed its buffer
+            timeline = cache.get(key);
+        }
+        if (timeline != null) {
+            timeline.add(item, timelineSize);
+        }
+    }
+
+    // The cached timeline, or a new one built outside the map; concurrent builds of the same key share one buffer
+    private Timeline timeline(ConcurrentHashMap<Long, Timeline> cache, ConcurrentHashMap<Long, Pending> pending, long key,
+                              LongFunction<List<FeedItem>> load) {
+        Timeline timeline = cache.get(key);
+        if (timeline != null) {
+            return timeline;
+        }
+        long startedIn = epoch.get();
+        Pending building = pending.computeIfAbsent(key, k -> new Pending());
+        Timeline built = Timeline.of(load.apply(key), timelineSize);
+
+        Timeline installed = cache.putIfAbsent(key, built);
+        if (installed == null) {
+            installed = built;
+        }
+        pending.remove(key, building);
+        for (FeedItem item : building.close()) {
+            installed.add(item, timelineSize);
+        }
+        if (epoch.get() != startedIn) {
+            cache.remove(key, installed);
+        }
+        return installed;
+    }
+
+    /** The page from the in-memory timelines, or {@code null} when it reaches past what they hold. */
+    private List<FeedItem> fromMemory(long userId, Cursor after, int limit) {
+        FeedItem probe = after == null ? null : FeedItem.at(after);
+
+        List<Timeline> sources = new ArrayList<>();
+        sources.add(timeline(timelines, pendingTimelines, userId, this::loadTimeline));
+        for (Long celebrityId : celebrities()) {
+            if (celebrityId != userId && followGraph.isFollowing(userId, celebrityId)) {
+                sources.add(timeline(celebrityTimelines, pendingCelebrityTimelines, celebrityId, this::loadCelebrityTimeline));
+            }
+        }
+
+        TreeSet<FeedItem> merged = new TreeSet<>(FeedItem.NEWEST_FIRST);
+        FeedItem horizon = null;
+        for (Timeline source : sources) {
+            Timeline.Slice slice = source.before(probe, limit);
+            merged.addAll(slice.items());
+            // A truncated source that ran dry may be missing anything older than its oldest entry
+            if (slice.items().size() < limit && slice.horizon() != null
+                    && (horizon == null || FeedItem.NEWEST_FIRST.compare(slice.horizon(), horizon) < 0)) {
+                horizon = slice.horizon();
+            }
+        }
+
+        List<FeedItem> page = new ArrayList<>(limit);
+        for (FeedItem item : merged) {
+            if (page.size() == limit) {
+                break;
+            }
+            if (horizon != null && FeedItem.NEWEST_FIRST.compare(item, horizon) > 0) {
+                return null;
+            }
+            page.add(item);
+        }
+        if (page.size() < limit && horizon != null) {
+            return null;
+        }
+        return page;
+    }
+
+    private List<FeedItem> fromDatabase(long userId, Cursor after, int limit) {
+        List<Long> authors = Arrays.stream(followGraph.followingOf(userId)).boxed().toList();
+        return newestOf(authors, limit, batch -> after == null
+                ? projectRepository.findFeedItemsByAuthors(batch, Limit.of(limit))
+                : projectRepository.findFeedItemsByAuthorsBefore(batch, after.createdAt(), after.id(), Limit.of(limit)));
+    }
+
+    private List<FeedItem> loadTimeline(long userId) {
+        Set<Long> merged = celebrities();
+        List<Long> authors = new ArrayList<>();
+        for (long followedId : followGraph.followingOf(userId)) {
+            if (!merged.contains(followedId)) {
+                authors.add(followedId);
+            }
+        }
+        return newestOf(authors, timelineSize, batch -> projectRepository.findFeedItemsByAuthors(batch, Limit.of(timelineSize)));
+    }
+
+    private List<FeedItem> loadCelebrityTimeline(long authorId) {
+        return projectRepository.findFeedItemsByAuthors(List.of(authorId), Limit.of(timelineSize));
+    }
+
+    // The newest `limit` items across all authors, querying them in batches
+    private static List<FeedItem> newestOf(List<Long> authors, int limit, Function<List<Long>, List<FeedItem>> query) {
+        if (authors.isEmpty()) {
+            return List.of();
+        }
+        if (authors.size() <= AUTHOR_BATCH) {
+            return query.apply(authors);
+        }
+        List<FeedItem> all = new ArrayList<>();
+        for (int from = 0; from < authors.size(); from += AUTHOR_BATCH) {
+            all.addAll(query.apply(authors.subList(from, Math.min(authors.size(), from + AUTHOR_BATCH))));
+        }
+        all.sort(FeedItem.NEWEST_FIRST);
+        return all.size() > limit ? all.subList(0, limit) : all;
+    }
+
+    private List<ProjectSummary> render(List<FeedItem> items) {
+        return projectRepository.findSummariesInOrder(items.stream().map(FeedItem::projectId).toList());
+    }
+
+    private Set<Long> celebrities() {
+        Set<Long> current = celebrities;
+        if (current == null) {
+            current = followGraph.usersWithFollowersAtLeast(fanoutThreshold);
+            celebrities = current;
+        }
+        return current;
+    }
+
+    /** Projects fanned out to a timeline while it is being built. */
+    private static final class Pending {
+
+        private final List<FeedItem> items = new ArrayList<>();
+        private boolean closed;
+
+        synchronized boolean add(FeedItem item) {
+            if (closed) {
+                return false;
+            }
+            items.add(item);
+            return true;
+        }
+
+        synchronized List<FeedItem> close() {
+            closed = true;
+            return items;
+        }
+    }
+
+    /** Newest-first project positions, capped at a fixed size. */
+    private static final class Timeline {
+
+        record Slice(List<FeedItem> items, FeedItem horizon) {
+        }
+
+        private final NavigableSet<FeedItem> items = new TreeSet<>(FeedItem.NEWEST_FIRST);
+        // Set once older entries have been dropped or were never loaded
+        private boolean truncated;
+        private volatile long lastRead = System.currentTimeMillis();
+
+        static Timeline of(List<FeedItem> newest, int capacity) {
+            Timeline timeline = new Timeline();
+            timeline.items.addAll(newest);
+            timeline.truncated = newest.size() >= capacity;
+            return timeline;
+        }
+
+        synchronized void add(FeedItem item, int capacity) {
+            items.add(item);
+            if (items.size() > capacity) {
+                items.pollLast();
+                truncated = true;
+            }
+        }
+
+        /** Up to {@code limit} items strictly older than {@code probe}, or the newest ones without one. */
+        synchronized Slice before(FeedItem probe, int limit) {
+            lastRead = System.currentTimeMillis();
+            List<FeedItem> slice = new ArrayList<>(limit);
+            for (FeedItem item : probe == null ? items : items.tailSet(probe, false)) {
+                if (slice.size() == limit) {
+                    break;
+                }
+                slice.add(item);
+            }
+            return new Slice(slice, truncated && !items.isEmpty() ? items.last() : null);
+        }
+    }
+}
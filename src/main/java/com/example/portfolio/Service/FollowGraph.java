@@ -0,0 +1,385 @@
+package com.example.portfolio.Service;
+
+import com.example.portfolio.util.LongHashSet;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The whole {@code user_following} table held in memory as two adjacency maps (following and
+ * followers) of primitive {@link LongHashSet}s. Loaded once at startup and updated by
+ * {@link UserService} together with the table, so follow checks, counts and follower lists never hit
+ * the database. Usernames are cached alongside so that follower lists can be rendered without loading
+ * users. Like {@link LikeBuffer}, this assumes a single application instance.
+ */
+@Component
+public class FollowGraph {
+
+    private static final Logger log = LoggerFactory.getLogger(FollowGraph.class);
+
+    private static final long[] NONE = new long[0];
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_EDGE = "INSERT INTO user_following (follower_id, followed_id) VALUES (?, ?)";
+
+    private static final String DELETE_EDGE = "DELETE FROM user_following WHERE follower_id = ? AND followed_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, LongHashSet> following = new HashMap<>();
+    private final Map<Long, LongHashSet> followers = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serializes writers around their database statement; readers only ever wait for the in-memory update.
+    // A lock rather than synchronized, which would pin a virtual request thread to its carrier during the I/O
+    private final ReentrantLock writeMutex = new ReentrantLock();
+    private final ConcurrentHashMap<Long, String> usernames = new ConcurrentHashMap<>();
+    private long edges;
+
+    public FollowGraph(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void loadFromDatabase() {
+        usernames.clear();
+        jdbcTemplate.query("SELECT id, username FROM users", rs -> { rememberUsername(rs.getLong(1), rs.getString(2)); });
+        lock.writeLock().lock();
+        try {
+            following.clear();
+            followers.clear();
+            edges = 0;
+            jdbcTemplate.query("SELECT follower_id, followed_id FROM user_following",
+                    rs -> { addEdge(rs.getLong(1), rs.getLong(2)); });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded follow graph with {} edges", edges);
+    }
+
+    /** Inserts the edge into {@code user_following} and the graph; {@code false} if it already existed. */
+    public boolean follow(long followerId, long followedId) {
+        writeMutex.lock();
+        try {
+            if (isFollowing(followerId, followedId)) {
+                return false;
+            }
+            jdbcTemplate.update(INSERT_EDGE, followerId, followedId);
+            lock.writeLock().lock();
+            try {
+                return addEdge(followerId, followedId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            writeMutex.unlock();
+        }
+    }
+
+    /** Deletes the edge from {@code user_following} and the graph; {@code false} if it did not exist. */
+    public boolean unfollow(long followerId, long followedId) {
+        writeMutex.lock();
+        try {
+            if (!isFollowing(followerId, followedId)) {
+                return false;
+            }
+            jdbcTemplate.update(DELETE_EDGE, followerId, followedId);
+            lock.writeLock().lock();
+            try {
+                return removeEdge(followerId, followedId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            writeMutex.unlock();
+        }
+    }
+
+    /**
+     * Sets the follower's edge to each target to the wanted state, with one JDBC batch for the inserts and
+     * one for the deletes. Meant to run inside a transaction: the graph is updated right away and put back
+     * if that transaction does not commit.
+     *
+     * @return the targets whose edge changed
+     */
+    public List<Long> applyAll(long followerId, Map<Long, Boolean> wanted) {
+        writeMutex.lock();
+        try {
+            List<Long> added = new ArrayList<>();
+            List<Long> removed = new ArrayList<>();
+            wanted.forEach((followedId, follow) -> {
+                if (follow != isFollowing(followerId, followedId)) {
+                    (follow ? added : removed).add(followedId);
+                }
+            });
+            if (added.isEmpty() && removed.isEmpty()) {
+                return List.of();
+            }
+
+            if (!added.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_EDGE, added, BATCH_SIZE, (ps, followedId) -> {
+                    ps.setLong(1, followerId);
+                    ps.setLong(2, followedId);
+                });
+            }
+            if (!removed.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE_EDGE, removed, BATCH_SIZE, (ps, followedId) -> {
+                    ps.setLong(1, followerId);
+                    ps.setLong(2, followedId);
+                });
+            }
+            updateEdges(followerId, added, removed);
+
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status != STATUS_COMMITTED) {
+                            writeMutex.lock();
+                            try {
+                                updateEdges(followerId, removed, added);
+                            } finally {
+                                writeMutex.unlock();
+                            }
+                        }
+                    }
+                });
+            }
+
+            List<Long> changed = new ArrayList<>(added);
+            changed.addAll(removed);
+            return changed;
+        } finally {
+            writeMutex.unlock();
+        }
+    }
+
+    private void updateEdges(long followerId, List<Long> added, List<Long> removed) {
+        lock.writeLock().lock();
+        try {
+            added.forEach(followedId -> addEdge(followerId, followedId));
+            removed.forEach(followedId -> removeEdge(followerId, followedId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isFollowing(long followerId, long followedId) {
+        lock.readLock().lock();
+        try {
+            LongHashSet out = following.get(followerId);
+            return out != null && out.contains(followedId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int followingCount(long userId) {
+        return sizeOf(following, userId);
+    }
+
+    public int followerCount(long userId) {
+        return sizeOf(followers, userId);
+    }
+
+    /** Ids the user follows, ascending. */
+    public long[] followingOf(long userId) {
+        return sortedIds(following, userId);
+    }
+
+    /** Ids following the user, ascending. */
+    public long[] followersOf(long userId) {
+        return sortedIds(followers, userId);
+    }
+
+    /** Ids that the user follows and that follow the user back, ascending. */
+    public long[] mutualOf(long userId) {
+        lock.readLock().lock();
+        try {
+            LongHashSet out = following.get(userId);
+            LongHashSet in = followers.get(userId);
+            if (out == null || in == null) {
+                return NONE;
+            }
+            // Walk the smaller side and probe the larger one
+            LongHashSet small = out.size() <= in.size() ? out : in;
+            LongHashSet large = small == out ? in : out;
+            long[] candidates = small.toSortedArray();
+            int n = 0;
+            for (long id : candidates) {
+                if (large.contains(id)) {
+                    candidates[n++] = id;
+                }
+            }
+            return Arrays.copyOf(candidates, n);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void rememberUsername(long userId, String username) {
+        if (username != null) {
+            usernames.put(userId, username);
+        }
+    }
+
+    /** The user's name, or {@code null} if there is no such user. */
+    public String usernameOf(long userId) {
+        String username = usernames.get(userId);
+        if (username == null) {
+            resolveUsernames(List.of(userId));
+            username = usernames.get(userId);
+        }
+        return username;
+    }
+
+    /** Usernames for the ids, in the same order; ids without a user are skipped. */
+    public List<String> usernamesOf(long[] ids) {
+        List<Long> missing = new ArrayList<>();
+        for (long id : ids) {
+            if (!usernames.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            resolveUsernames(missing);
+        }
+        List<String> names = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            String username = usernames.get(id);
+            if (username != null) {
+                names.add(username);
+            }
+        }
+        return names;
+    }
+
+    /** The ids that belong to a user, resolving unknown ones in one query. */
+    public Set<Long> existingUsers(Collection<Long> ids) {
+        List<Long> missing = ids.stream().filter(id -> !usernames.containsKey(id)).distinct().toList();
+        if (!missing.isEmpty()) {
+            resolveUsernames(missing);
+        }
+        Set<Long> existing = new HashSet<>();
+        for (Long id : ids) {
+            if (usernames.containsKey(id)) {
+                existing.add(id);
+            }
+        }
+        return existing;
+    }
+
+    // Users created after startup are picked up on first use, all misses in one query
+    private void resolveUsernames(List<Long> ids) {
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        jdbcTemplate.query("SELECT id, username FROM users WHERE id IN (" + placeholders + ")",
+                rs -> { rememberUsername(rs.getLong(1), rs.getString(2)); }, ids.toArray());
+    }
+
+    /** Users with at least {@code threshold} followers. */
+    public Set<Long> usersWithFollowersAtLeast(int threshold) {
+        lock.readLock().lock();
+        try {
+            Set<Long> users = new HashSet<>();
+            followers.forEach((userId, in) -> {
+                if (in.size() >= threshold) {
+                    users.add(userId);
+                }
+            });
+            return users;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long edgeCount() {
+        lock.readLock().lock();
+        try {
+            return edges;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Approximate heap held by the adjacency sets and the map entries pointing at them. */
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            // HashMap node (32) + boxed key (24) + table slot (8) per user and direction
+            long bytes = (following.size() + followers.size()) * 64L;
+            for (LongHashSet set : following.values()) {
+                bytes += set.estimatedBytes();
+            }
+            for (LongHashSet set : followers.values()) {
+                bytes += set.estimatedBytes();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Callers hold the write lock
+    boolean addEdge(long followerId, long followedId) {
+        if (!following.computeIfAbsent(followerId, id -> new LongHashSet()).add(followedId)) {
+            return false;
+        }
+        followers.computeIfAbsent(followedId, id -> new LongHashSet()).add(followerId);
+        edges++;
+        return true;
+    }
+
+    private boolean removeEdge(long followerId, long followedId) {
+        LongHashSet out = following.get(followerId);
+        if (out == null || !out.remove(followedId)) {
+            return false;
+        }
+        if (out.isEmpty()) {
+            following.remove(followerId);
+        }
+        LongHashSet in = followers.get(followedId);
+        in.remove(followerId);
+        if (in.isEmpty()) {
+            followers.remove(followedId);
+        }
+        edges--;
+        return true;
+    }
+
+    private int sizeOf(Map<Long, LongHashSet> adjacency, long userId) {
+        lock.readLock().lock();
+        try {
+            LongHashSet set = adjacency.get(userId);
+            return set == null ? 0 : set.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long[] sortedIds(Map<Long, LongHashSet> adjacency, long userId) {
+        lock.readLock().lock();
+        try {
+            LongHashSet set = adjacency.get(userId);
+            return set == null ? NONE : set.toSortedArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
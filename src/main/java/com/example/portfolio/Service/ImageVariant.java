@@ -0,0 +1,72 @@
+package com.example.portfolio.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Fixed-width copies of uploaded images. A variant is stored next to its original as
+ * {@code <hash>_<suffix>.<jpg|png>}, so its URL can be derived from the original's URL.
+ */
+public enum ImageVariant {
+
+    THUMBNAIL("thumb", 160),
+    CARD("card", 480),
+    FULL("full", 1280);
+
+    private final String suffix;
+    private final int width;
+
+    ImageVariant(String suffix, int width) {
+        this.suffix = suffix;
+        this.width = width;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public String getKey() {
+        return name().toLowerCase();
+    }
+
+    /** JPEG originals stay JPEG; PNG and GIF become PNG to keep transparency. */
+    public static String formatFor(String originalFilename) {
+        String extension = originalFilename.substring(originalFilename.lastIndexOf('.') + 1).toLowerCase();
+        return extension.equals("jpg") || extension.equals("jpeg") ? "jpg" : "png";
+    }
+
+    public String filenameFor(String originalFilename) {
+        String hash = originalFilename.substring(0, originalFilename.lastIndexOf('.'));
+        return hash + "_" + suffix + "." + formatFor(originalFilename);
+    }
+
+    /** Variant URLs for an original image URL, keyed by variant name; empty if there is no image. */
+    public static Map<String, String> urlsFor(String imageUrl) {
+        Map<String, String> urls = new LinkedHashMap<>();
+        if (imageUrl == null || !imageUrl.startsWith(MediaStorage.URL_PREFIX) || imageUrl.lastIndexOf('.') < 0) {
+            return urls;
+        }
+        String filename = MediaStorage.filenameOf(imageUrl);
+        for (ImageVariant variant : values()) {
+            urls.put(variant.getKey(), MediaStorage.urlFor(variant.filenameFor(filename)));
+        }
+        return urls;
+    }
+
+    /** The hash part of a variant file name, or {@code null} if the name is not a variant. */
+    public static String originalHashOf(String variantFilename) {
+        for (ImageVariant variant : values()) {
+            int marker = variant.markerIndex(variantFilename);
+            if (marker > 0) {
+                return variantFilename.substring(0, marker);
+            }
+        }
+        return null;
+    }
+
+    private int markerIndex(String filename) {
+        String marker = "_" + suffix + ".";
+        int index = filename.lastIndexOf(marker);
+        return index > 0 && filename.indexOf('.', index + marker.length()) < 0 ? index : -1;
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.portfolio.Service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the {@link ImageVariant} copies of uploaded images on a small bounded pool, using ImageIO
+ * only. Submitting never blocks: when the queue is full the request is dropped and the variants are
+ * generated the next time the same image is uploaded. Until a variant exists, {@code /media/} answers
+ * its URL with the original image.
+ * <p>
+ * The image size is read from its header before anything is decoded. Images over {@code max-pixels}
+ * are skipped, and large ones are decoded subsampled to about twice the widest variant, so a small file
+ * that declares huge dimensions cannot exhaust the heap.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantService.class);
+
+    // Decoded at least this wide, so the halving steps in scale() still have detail to work with
+    private static final int DECODE_WIDTH = 2 * Arrays.stream(ImageVariant.values()).mapToInt(ImageVariant::getWidth).max().orElseThrow();
+
+    private final MediaStorage mediaStorage;
+    private final long maxPixels;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public ImageVariantService(MediaStorage mediaStorage,
+                               @Value("${portfolio.media.variants.threads:2}") int threads,
+                               @Value("${portfolio.media.variants.queue-capacity:100}") int queueCapacity,
+                               @Value("${portfolio.media.variants.max-pixels:50000000}") long maxPixels) {
+        this.mediaStorage = mediaStorage;
+        this.maxPixels = maxPixels;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /** Queues variant generation for the image behind {@code imageUrl} and returns immediately. */
+    public void generateAsync(String imageUrl) {
+        String filename = MediaStorage.filenameOf(imageUrl);
+        if (!inFlight.add(filename)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(filename);
+                } finally {
+                    inFlight.remove(filename);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(filename);
+            log.warn("Image variant queue is full, skipping {}", filename);
+        }
+    }
+
+    void generate(String filename) {
+        try {
+            BufferedImage source = null;
+            // Variants are smaller than their original, so they go where it went
+            MediaStorage.Backend backend = mediaStorage.isPacked(filename) ? MediaStorage.Backend.PACK : MediaStorage.Backend.FILES;
+            for (ImageVariant variant : ImageVariant.values()) {
+                String variantFilename = variant.filenameFor(filename);
+                if (mediaStorage.exists(variantFilename)) {
+                    continue;
+                }
+                if (source == null) {
+                    source = read(filename);
+                    if (source == null) {
+                        return;
+                    }
+                }
+                writeVariant(source, variant, ImageVariant.formatFor(filename), variantFilename, backend);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to generate variants for {}", filename, e);
+        }
+    }
+
+    // Null when there is no reader for the format or the image is over the pixel limit
+    private BufferedImage read(String filename) throws IOException {
+        try (InputStream in = mediaStorage.openStream(filename);
+             ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                log.warn("No ImageIO reader for {}, not generating variants", filename);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    log.warn("{} is {}x{} pixels, over the limit of {}; not generating variants", filename, width, height, maxPixels);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, width / DECODE_WIDTH);
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private void writeVariant(BufferedImage source, ImageVariant variant, String format, String variantFilename,
+                              MediaStorage.Backend backend) throws IOException {
+        BufferedImage scaled = scale(source, Math.min(variant.getWidth(), source.getWidth()), format.equals("jpg"));
+        Path temp = mediaStorage.createTempFile("variant-");
+        try {
+            if (!ImageIO.write(scaled, format, temp.toFile())) {
+                throw new IOException("No ImageIO writer for " + format);
+            }
+            mediaStorage.place(temp, variantFilename, backend);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, boolean opaque) {
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        int type = opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+
+        // Halve in steps for large reductions; a single bilinear pass would alias badly
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                if (opaque) {
+                    g.setColor(Color.WHITE);
+                    g.fillRect(0, 0, currentWidth, currentHeight);
+                }
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (currentWidth > width || currentHeight > height);
+        return current;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
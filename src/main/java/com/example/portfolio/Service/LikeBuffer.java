@@ -0,0 +1,227 @@
+package com.example.portfolio.Service;
+
+import com.example.portfolio.Repository.ProjectRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Accepts likes in memory and writes them behind in batches.
+ * <p>
+ * Each user's liked project ids are loaded once and deduplicated in a concurrent set, the per-project
+ * deltas are kept in striped {@link LongAdder}s, and {@link #flush()} folds both into
+ * {@code users_liked_projects} and {@code project_entity.likes} with two JDBC batches. Likes that have
+ * not been flushed yet are lost if the process dies, so the interval bounds the durability window.
+ * <p>
+ * The sets are only kept for users that liked something recently: after each flush, sets idle for longer
+ * than the timeout, and then the least recently used ones over the size bound, are dropped and reloaded
+ * on the next like. A set with likes that are not in the database yet is never dropped.
+ */
+@Component
+public class LikeBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(LikeBuffer.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    // Skips projects deleted since the like was accepted, which would otherwise fail the batch on every retry
+    private static final String INSERT_LIKE =
+            "INSERT INTO users_liked_projects (user_entity_id, liked_projects_id) SELECT ?, ? " +
+            "WHERE EXISTS (SELECT 1 FROM project_entity WHERE id = ?) " +
+            "AND NOT EXISTS (SELECT 1 FROM users_liked_projects WHERE user_entity_id = ? AND liked_projects_id = ?)";
+
+    // Likes change the serialized project, so the version moves with them
+    private static final String ADD_LIKES =
+            "UPDATE project_entity SET likes = likes + ?, version = version + 1 WHERE id = ?";
+
+    private final ProjectRepository projectRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /** A user's liked project ids. Likes and eviction lock the instance, so no like lands in a dropped set. */
+    private static final class LikedProjects {
+        final Set<Long> ids = ConcurrentHashMap.newKeySet();
+        final AtomicInteger unflushed = new AtomicInteger();
+        volatile long lastAccess = System.nanoTime();
+        boolean evicted;
+    }
+
+    private final int maxCachedUsers;
+    private final long idleTimeoutNanos;
+
+    private final ConcurrentHashMap<Long, LikedProjects> likedByUser = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, LongAdder> pendingLikes = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<long[]> pendingEdges = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public LikeBuffer(ProjectRepository projectRepository, JdbcTemplate jdbcTemplate,
+                      PlatformTransactionManager transactionManager,
+                      @Value("${portfolio.likes.cached-users:10000}") int maxCachedUsers,
+                      @Value("${portfolio.likes.user-idle-timeout:30m}") Duration idleTimeout) {
+        this.projectRepository = projectRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxCachedUsers = maxCachedUsers;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+    }
+
+    /**
+     * Records a like from {@code userId} on {@code projectId}.
+     *
+     * @return {@code false} if the user had already liked the project
+     */
+    public boolean like(long userId, long projectId) {
+        while (true) {
+            LikedProjects liked = likedProjectsOf(userId);
+            synchronized (liked) {
+                // Lost a race with eviction; the next lookup loads a fresh set
+                if (liked.evicted) {
+                    continue;
+                }
+                if (!liked.ids.add(projectId)) {
+                    return false;
+                }
+                liked.unflushed.incrementAndGet();
+            }
+            break;
+        }
+        pendingLikes.computeIfAbsent(projectId, id -> new LongAdder()).increment();
+        pendingEdges.add(new long[]{userId, projectId});
+        return true;
+    }
+
+    /** Likes accepted for the project that are not yet reflected in the database. */
+    public long pendingLikes(long projectId) {
+        LongAdder adder = pendingLikes.get(projectId);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /** Number of users whose liked project ids are held in memory. */
+    public int cachedUsers() {
+        return likedByUser.size();
+    }
+
+    private LikedProjects likedProjectsOf(long userId) {
+        LikedProjects liked = likedByUser.get(userId);
+        if (liked == null) {
+            // Loaded outside the map so a slow query does not block other users hashed to the same bin.
+            // Nothing of this user is pending while there is no set, so the database is complete here.
+            LikedProjects loaded = new LikedProjects();
+            loaded.ids.addAll(projectRepository.findLikedProjectIds(userId));
+            liked = likedByUser.putIfAbsent(userId, loaded);
+            if (liked == null) {
+                liked = loaded;
+            }
+        }
+        liked.lastAccess = System.nanoTime();
+        return liked;
+    }
+
+    @Scheduled(fixedDelayString = "${portfolio.likes.flush-interval-ms:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<long[]> edges = new ArrayList<>();
+            for (long[] edge; (edge = pendingEdges.poll()) != null; ) {
+                edges.add(edge);
+            }
+
+            Map<Long, Integer> deltas = new HashMap<>();
+            pendingLikes.forEach((projectId, adder) -> {
+                long delta = adder.sumThenReset();
+                if (delta != 0) {
+                    deltas.put(projectId, Math.toIntExact(delta));
+                }
+            });
+
+            if (edges.isEmpty() && deltas.isEmpty()) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(INSERT_LIKE, edges, BATCH_SIZE, (ps, edge) -> {
+                        ps.setLong(1, edge[0]);
+                        ps.setLong(2, edge[1]);
+                        ps.setLong(3, edge[1]);
+                        ps.setLong(4, edge[0]);
+                        ps.setLong(5, edge[1]);
+                    });
+                    jdbcTemplate.batchUpdate(ADD_LIKES, new ArrayList<>(deltas.entrySet()), BATCH_SIZE, (ps, delta) -> {
+                        ps.setInt(1, delta.getValue());
+                        ps.setLong(2, delta.getKey());
+                    });
+                });
+                for (long[] edge : edges) {
+                    likedByUser.get(edge[0]).unflushed.decrementAndGet();
+                }
+            } catch (RuntimeException e) {
+                // Put everything back so the next run retries it
+                pendingEdges.addAll(edges);
+                deltas.forEach((projectId, delta) ->
+                        pendingLikes.computeIfAbsent(projectId, id -> new LongAdder()).add(delta));
+                log.warn("Failed to flush {} likes, will retry", edges.size(), e);
+            }
+        } finally {
+            try {
+                evictIdleUsers();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    private void evictIdleUsers() {
+        long now = System.nanoTime();
+        likedByUser.forEach((userId, liked) -> {
+            if (now - liked.lastAccess > idleTimeoutNanos) {
+                evict(userId, liked);
+            }
+        });
+
+        int excess = likedByUser.size() - maxCachedUsers;
+        if (excess > 0) {
+            // Access times are read once, they keep moving while the snapshot is sorted
+            likedByUser.entrySet().stream()
+                    .map(entry -> Map.entry(entry.getValue().lastAccess, entry))
+                    .sorted(Map.Entry.comparingByKey())
+                    .limit(excess)
+                    .forEach(candidate -> evict(candidate.getValue().getKey(), candidate.getValue().getValue()));
+        }
+    }
+
+    private void evict(long userId, LikedProjects liked) {
+        synchronized (liked) {
+            if (liked.unflushed.get() == 0) {
+                liked.evicted = true;
+                likedByUser.remove(userId, liked);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        if (!pendingEdges.isEmpty()) {
+            log.error("{} likes could not be written before shutdown", pendingEdges.size());
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.portfolio.Service;
+
+import com.example.portfolio.Repository.MediaObjectRepository;
+import com.example.portfolio.dto.MediaReference;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Mark and sweep over the upload directory. Marking reads every media URL on project and user rows;
+ * sweeping walks the directory and the pack segments and deletes originals, their image variants and
+ * leftover temp files that no row references. Only files last modified before the start of the run minus
+ * the grace period are deleted, and uploads and dedup hits refresh the modification time, so a row saved
+ * while a run is under way never loses its file.
+ * <p>
+ * Runs on one low-priority thread in batches of {@code batch-size} rows or files with {@code batch-pause}
+ * between them, so a large directory is swept slowly instead of competing with requests for the disk
+ * and the connection pool. A dry run deletes nothing and reports what it would have deleted.
+ */
+@Service
+public class MediaGarbageCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaGarbageCollector.class);
+
+    private static final int SAMPLE_SIZE = 100;
+    private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{32,64}");
+
+    private final MediaObjectRepository repository;
+    private final MediaStorage mediaStorage;
+    private final MediaIndex mediaIndex;
+    private final boolean enabled;
+    private final boolean dryRun;
+    private final Duration interval;
+    private final Duration gracePeriod;
+    private final int batchSize;
+    private final Duration batchPause;
+    private final ScheduledExecutorService executor;
+    private final ReentrantLock running = new ReentrantLock();
+    private final Counter collectedFiles;
+    private final Counter collectedBytes;
+    private volatile Report lastReport;
+
+    public MediaGarbageCollector(MediaObjectRepository repository, MediaStorage mediaStorage, MediaIndex mediaIndex,
+                                 @Value("${portfolio.media.gc.enabled:true}") boolean enabled,
+                                 @Value("${portfolio.media.gc.dry-run:false}") boolean dryRun,
+                                 @Value("${portfolio.media.gc.interval:6h}") Duration interval,
+                                 @Value("${portfolio.media.gc.grace-period:24h}") Duration gracePeriod,
+                                 @Value("${portfolio.media.gc.batch-size:200}") int batchSize,
+                                 @Value("${portfolio.media.gc.batch-pause:100ms}") Duration batchPause,
+                                 MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.mediaStorage = mediaStorage;
+        this.mediaIndex = mediaIndex;
+        this.enabled = enabled;
+        this.dryRun = dryRun;
+        this.interval = interval;
+        this.gracePeriod = gracePeriod;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "media-gc");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        this.collectedFiles = Counter.builder("portfolio.media.gc.collected")
+                .description("Unreferenced media files deleted").register(meterRegistry);
+        this.collectedBytes = Counter.builder("portfolio.media.gc.collected.bytes")
+                .description("Size of unreferenced media files deleted").baseUnit("bytes").register(meterRegistry);
+    }
+
+    /**
+     * Outcome of one run. {@code collected} files were deleted, or would have been in a dry run;
+     * {@code missing} files are referenced by a row but not on disk.
+     */
+    public record Report(boolean dryRun, Instant startedAt, long durationMillis, int referenced, long scanned,
+                         long collected, long collectedBytes, long withinGracePeriod, long unrecognized, int missing,
+                         List<String> collectedSample, List<String> missingSample) {
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            executor.scheduleWithFixedDelay(() -> runQuietly(dryRun), interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** Starts a run in the background; returns {@code false} if one is already running. */
+    public boolean startCollection(boolean dryRun) {
+        if (running.isLocked()) {
+            return false;
+        }
+        executor.execute(() -> runQuietly(dryRun));
+        return true;
+    }
+
+    /** The last finished run, or {@code null} if there has been none since startup. */
+    public Report getLastReport() {
+        return lastReport;
+    }
+
+    private void runQuietly(boolean dryRun) {
+        try {
+            collect(dryRun);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Media collection failed", e);
+        }
+    }
+
+    /** Runs one collection on the calling thread; returns {@code null} if another run is in progress. */
+    public Report collect(boolean dryRun) throws IOException, InterruptedException {
+        if (!running.tryLock()) {
+            return null;
+        }
+        try {
+            Instant startedAt = Instant.now();
+            Instant cutoff = startedAt.minus(gracePeriod);
+
+            Set<String> referenced = new HashSet<>();
+            mark(repository::findProjectImageReferences, referenced);
+            mark(repository::findProjectVideoReferences, referenced);
+            mark(repository::findProfileImageReferences, referenced);
+            Set<String> referencedHashes = new HashSet<>();
+            for (String filename : referenced) {
+                String hash = MediaIndex.hashOf(filename);
+                if (hash != null) {
+                    referencedHashes.add(hash);
+                }
+            }
+
+            Sweep sweep = new Sweep(dryRun, cutoff, referenced, referencedHashes);
+            mediaStorage.walkFiles(sweep);
+            if (!dryRun) {
+                collectedFiles.increment(sweep.collected);
+                collectedBytes.increment(sweep.bytes);
+            }
+
+            Report report = new Report(dryRun, startedAt, Duration.between(startedAt, Instant.now()).toMillis(),
+                    referenced.size(), sweep.scanned, sweep.collected, sweep.bytes, sweep.withinGracePeriod,
+                    sweep.unrecognized, sweep.missing.size(), sweep.collectedSample,
+                    sweep.missing.stream().sorted().limit(SAMPLE_SIZE).toList());
+            log.info("Media collection{}: {} files scanned, {} unreferenced ({} bytes), {} within the grace period, {} referenced files missing",
+                    dryRun ? " (dry run)" : "", sweep.scanned, sweep.collected, sweep.bytes, sweep.withinGracePeriod, sweep.missing.size());
+            lastReport = report;
+            return report;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private void mark(BiFunction<Long, Limit, List<MediaReference>> query, Set<String> referenced) throws InterruptedException {
+        Long afterId = 0L;
+        List<MediaReference> page;
+        do {
+            page = query.apply(afterId, Limit.of(batchSize));
+            for (MediaReference reference : page) {
+                if (reference.url().startsWith(MediaStorage.URL_PREFIX)) {
+                    referenced.add(MediaStorage.filenameOf(reference.url()));
+                }
+            }
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).ownerId();
+            }
+            pause();
+        } while (page.size() == batchSize);
+    }
+
+    private final class Sweep implements MediaStorage.FileVisitor {
+
+        private final boolean dryRun;
+        private final Instant cutoff;
+        private final Set<String> referenced;
+        private final Set<String> referencedHashes;
+        // Referenced names not seen on disk yet
+        private final Set<String> missing;
+        private final List<String> collectedSample = new ArrayList<>();
+        private long scanned;
+        private long collected;
+        private long bytes;
+        private long withinGracePeriod;
+        private long unrecognized;
+
+        private Sweep(boolean dryRun, Instant cutoff, Set<String> referenced, Set<String> referencedHashes) {
+            this.dryRun = dryRun;
+            this.cutoff = cutoff;
+            this.referenced = referenced;
+            this.referencedHashes = referencedHashes;
+            this.missing = new HashSet<>(referenced);
+        }
+
+        @Override
+        public void visit(String filename, long size, Instant lastModified) throws IOException, InterruptedException {
+            if (++scanned % batchSize == 0) {
+                pause();
+            }
+            missing.remove(filename);
+            if (isReferenced(filename, referenced, referencedHashes)) {
+                return;
+            }
+            if (!isCollectable(filename)) {
+                unrecognized++;
+                return;
+            }
+            if (!lastModified.isBefore(cutoff)) {
+                withinGracePeriod++;
+                return;
+            }
+            if (dryRun || mediaIndex.deleteIfUnused(filename, cutoff)) {
+                collected++;
+                bytes += size;
+                if (collectedSample.size() < SAMPLE_SIZE) {
+                    collectedSample.add(filename);
+                }
+            }
+        }
+    }
+
+    private static boolean isReferenced(String filename, Set<String> referenced, Set<String> referencedHashes) {
+        if (referenced.contains(filename)) {
+            return true;
+        }
+        String originalHash = ImageVariant.originalHashOf(filename);
+        return originalHash != null && referencedHashes.contains(originalHash);
+    }
+
+    // Only names this app writes; anything else in the directory was put there by hand and is left alone
+    private static boolean isCollectable(String filename) {
+        if (MediaIndex.hashOf(filename) != null || filename.endsWith(".tmp")) {
+            return true;
+        }
+        String originalHash = ImageVariant.originalHashOf(filename);
+        return originalHash != null && CONTENT_HASH.matcher(originalHash).matches();
+    }
+
+    private void pause() throws InterruptedException {
+        if (!batchPause.isZero()) {
+            Thread.sleep(batchPause.toMillis());
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.example.portfolio.Service;
+
+import com.example.portfolio.Repository.MediaObjectRepository;
+import com.example.portfolio.entity.MediaObjectEntity;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content hash → stored file, kept in the {@code media_objects} table and mirrored in memory so that
+ * upload dedup is a map lookup instead of a directory scan. Reference counts track how many project
+ * and profile URLs point at each file. Files are never deleted here: {@link MediaGarbageCollector}
+ * removes them once no row references them and the grace period has passed.
+ * <p>
+ * Files named by another hash algorithm, such as MD5 names from before the switch, get the hash of their
+ * content under the configured algorithm recorded once, as {@code content_hash}; uploads are looked up
+ * under both, so re-uploaded content keeps reusing the old file without every upload being hashed twice.
+ */
+@Component
+public class MediaIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaIndex.class);
+
+    private static final Pattern MEDIA_FILENAME = Pattern.compile("^([0-9a-f]{32,64})(\\.[A-Za-z0-9]+)$");
+
+    private final MediaObjectRepository repository;
+    private final MediaStorage mediaStorage;
+    private final ContentHasher contentHasher;
+    private final ConcurrentHashMap<String, MediaObjectEntity> byHash = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, MediaObjectEntity> byContentHash = new ConcurrentHashMap<>();
+    // A lock rather than synchronized methods, which would pin virtual upload threads to their carrier during file and database I/O
+    private final ReentrantLock lock = new ReentrantLock();
+    // Sizes of stored uploads; the deduplicated=true share of the count is the dedup hit rate
+    private final DistributionSummary storedNew;
+    private final DistributionSummary storedDeduplicated;
+
+    public MediaIndex(MediaObjectRepository repository, MediaStorage mediaStorage, ContentHasher contentHasher,
+                      MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.mediaStorage = mediaStorage;
+        this.contentHasher = contentHasher;
+        this.storedNew = storedSummary(meterRegistry, false);
+        this.storedDeduplicated = storedSummary(meterRegistry, true);
+    }
+
+    private static DistributionSummary storedSummary(MeterRegistry meterRegistry, boolean deduplicated) {
+        return DistributionSummary.builder("portfolio.media.stored")
+                .description("Size of uploads stored, by whether the same content was already on disk")
+                .baseUnit("bytes")
+                .tag("deduplicated", String.valueOf(deduplicated))
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void loadFromDatabase() {
+        load(repository.findAll());
+        log.info("Loaded {} media objects", byHash.size());
+    }
+
+    public void load(Collection<MediaObjectEntity> objects) {
+        byHash.clear();
+        byContentHash.clear();
+        for (MediaObjectEntity object : objects) {
+            byHash.put(object.getHash(), object);
+            if (object.getContentHash() != null) {
+                byContentHash.put(object.getContentHash(), object);
+            }
+        }
+    }
+
+    /** The content hash of an original media file name, or {@code null} for any other name. */
+    public static String hashOf(String filename) {
+        Matcher matcher = MEDIA_FILENAME.matcher(filename);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    /** Returns the URL of the stored file with this content hash, or {@code null} if there is none. */
+    public String lookup(String hash) {
+        MediaObjectEntity object = find(hash);
+        return object == null ? null : MediaStorage.urlFor(object.getFilename());
+    }
+
+    // By file name first, then by the content hash recorded for a file named by another algorithm
+    private MediaObjectEntity find(String hash) {
+        MediaObjectEntity object = byHash.get(hash);
+        if (object == null) {
+            object = byContentHash.get(hash);
+        }
+        // One stat to protect against files removed behind our back
+        if (object == null || !mediaStorage.exists(object.getFilename())) {
+            return null;
+        }
+        return object;
+    }
+
+    public record StoredMedia(String url, boolean deduplicated) {
+    }
+
+    /**
+     * Stores a staged upload under its content hash, or drops it and references the existing file if the
+     * same content is already stored, under its hash, its recorded content hash or its legacy MD5 name.
+     * Either way the caller owns
+     * one new reference to the returned URL.
+     */
+    public StoredMedia store(MediaStorage.StagedMedia staged, String extension) throws IOException {
+        return store(staged, extension, MediaStorage.Backend.FILES);
+    }
+
+    /** As {@link #store(MediaStorage.StagedMedia, String)}, committing a new file to the given backend. */
+    public StoredMedia store(MediaStorage.StagedMedia staged, String extension, MediaStorage.Backend backend) throws IOException {
+        lock.lock();
+        try {
+            MediaObjectEntity existing = find(staged.hash());
+            if (existing == null && staged.legacyHash() != null) {
+                existing = find(staged.legacyHash());
+            }
+            if (existing != null) {
+                mediaStorage.discard(staged);
+                // Under the lock, so a collection that already saw this file as unused leaves it alone
+                mediaStorage.touch(existing.getFilename());
+                retain(existing.getHash());
+                storedDeduplicated.record(staged.size());
+                return new StoredMedia(MediaStorage.urlFor(existing.getFilename()), true);
+            }
+
+            String filename = mediaStorage.commit(staged, extension, backend);
+            register(staged.hash(), extension, staged.size());
+            storedNew.record(staged.size());
+            return new StoredMedia(MediaStorage.urlFor(filename), false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Adds a reference to an already stored file. */
+    public void retain(String hash) {
+        lock.lock();
+        try {
+            MediaObjectEntity object = byHash.get(hash);
+            if (object != null) {
+                object.setRefCount(object.getRefCount() + 1);
+                repository.adjustRefCount(hash, 1);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Records a newly committed file with one reference, or adds a reference if it raced with another upload. */
+    public void register(String hash, String extension, long size) {
+        lock.lock();
+        try {
+            MediaObjectEntity existing = byHash.get(hash);
+            if (existing != null && existing.getExtension().equals(extension)) {
+                existing.setRefCount(existing.getRefCount() + 1);
+                repository.adjustRefCount(hash, 1);
+                return;
+            }
+
+            MediaObjectEntity object = new MediaObjectEntity();
+            object.setHash(hash);
+            object.setExtension(extension);
+            object.setSize(size);
+            object.setRefCount(1);
+            object.setCreatedAt(LocalDateTime.now());
+            repository.save(object);
+            byHash.put(hash, object);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops one reference to the file behind {@code url}. Once nothing points at it the file is no longer
+     * offered for dedup; it stays on disk until the garbage collector has checked that no row uses it.
+     */
+    public void release(String url) {
+        lock.lock();
+        try {
+            if (url == null || url.isEmpty()) {
+                return;
+            }
+            Matcher matcher = MEDIA_FILENAME.matcher(MediaStorage.filenameOf(url));
+            MediaObjectEntity object = matcher.matches() ? byHash.get(matcher.group(1)) : null;
+            if (object == null) {
+                return;
+            }
+
+            if (object.getRefCount() > 1) {
+                object.setRefCount(object.getRefCount() - 1);
+                repository.adjustRefCount(object.getHash(), -1);
+            } else {
+                forget(object);
+                repository.deleteById(object.getHash());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes a file that a garbage collection found unreferenced, unless it was modified or reused for
+     * dedup at or after {@code cutoff}, and forgets its index entry. Returns whether the file was deleted.
+     */
+    public boolean deleteIfUnused(String filename, Instant cutoff) throws IOException {
+        lock.lock();
+        try {
+            Instant lastModified = mediaStorage.lastModified(filename);
+            if (lastModified == null || !lastModified.isBefore(cutoff)) {
+                return false;
+            }
+            Matcher matcher = MEDIA_FILENAME.matcher(filename);
+            if (matcher.matches()) {
+                MediaObjectEntity object = byHash.get(matcher.group(1));
+                if (object != null && object.getFilename().equals(filename)) {
+                    if (object.getRefCount() > 0) {
+                        log.warn("Collecting {} although the index counted {} references", filename, object.getRefCount());
+                    }
+                    forget(object);
+                    repository.deleteById(object.getHash());
+                }
+            }
+            return mediaStorage.delete(filename);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void forget(MediaObjectEntity object) {
+        byHash.remove(object.getHash());
+        if (object.getContentHash() != null) {
+            byContentHash.remove(object.getContentHash(), object);
+        }
+    }
+
+    /**
+     * Records the content hash of every file named by another algorithm that has none yet, hashing the
+     * files outside the lock. Returns how many were recorded; rows that already have one are skipped.
+     */
+    public int backfillContentHashes() throws IOException {
+        int recorded = 0;
+        for (MediaObjectEntity object : List.copyOf(byHash.values())) {
+            if (object.getContentHash() != null || !namedByOtherAlgorithm(object.getHash())
+                    || !mediaStorage.exists(object.getFilename())) {
+                continue;
+            }
+            String contentHash = hashContent(object.getFilename());
+            lock.lock();
+            try {
+                // Skipped if the file was released or collected while it was hashed
+                if (byHash.get(object.getHash()) == object) {
+                    repository.setContentHash(object.getHash(), contentHash);
+                    object.setContentHash(contentHash);
+                    byContentHash.put(contentHash, object);
+                    recorded++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return recorded;
+    }
+
+    private boolean namedByOtherAlgorithm(String hash) {
+        return hash.length() != (contentHasher.getAlgorithm() == ContentHasher.Algorithm.MD5 ? 32 : 64);
+    }
+
+    private String hashContent(String filename) throws IOException {
+        if (mediaStorage.isPacked(filename)) {
+            // Packed entries are small; staging a copy is the simplest way to hash them
+            MediaStorage.StagedMedia staged = mediaStorage.stage(mediaStorage.openStream(filename));
+            mediaStorage.discard(staged);
+            return staged.hash();
+        }
+        return contentHasher.hash(mediaStorage.resolve(filename));
+    }
+
+    /**
+     * Rebuilds the index from the files in the upload directory, counting references from the project
+     * and user tables. Meant for deployments whose files predate the index; see
+     * {@link com.example.portfolio.config.MediaIndexRebuildRunner}.
+     */
+    @Transactional
+    public int rebuildFromDisk() throws IOException, InterruptedException {
+        lock.lock();
+        try {
+            Map<String, Integer> refCounts = new HashMap<>();
+            Stream.of(repository.findProjectImageUrls(), repository.findProjectVideoUrls(), repository.findProfileImageUrls())
+                    .flatMap(List::stream)
+                    .forEach(url -> refCounts.merge(MediaStorage.filenameOf(url), 1, Integer::sum));
+
+            // Finish moving flat files first, so the walk below sees each file at exactly one path
+            int moved;
+            do {
+                moved = mediaStorage.migrateFlatFiles(Integer.MAX_VALUE);
+            } while (moved > 0);
+
+            Map<String, MediaObjectEntity> objects = new LinkedHashMap<>();
+            mediaStorage.walkFiles((filename, size, lastModified) -> {
+                Matcher matcher = MEDIA_FILENAME.matcher(filename);
+                if (!matcher.matches()) {
+                    return;
+                }
+                int references = refCounts.getOrDefault(filename, 0);
+                MediaObjectEntity existing = objects.get(matcher.group(1));
+                if (existing != null) {
+                    // Same content stored under two extensions: keep the first, count both
+                    existing.setRefCount(existing.getRefCount() + references);
+                    return;
+                }
+                MediaObjectEntity object = new MediaObjectEntity();
+                object.setHash(matcher.group(1));
+                object.setExtension(matcher.group(2));
+                if (namedByOtherAlgorithm(object.getHash())) {
+                    object.setContentHash(hashContent(filename));
+                }
+                object.setSize(size);
+                object.setRefCount(references);
+                object.setCreatedAt(LocalDateTime.now());
+                objects.put(object.getHash(), object);
+            });
+
+            repository.deleteAllInBatch();
+            repository.saveAll(objects.values());
+            load(objects.values());
+            return objects.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
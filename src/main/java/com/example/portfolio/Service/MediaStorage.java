@@ -0,0 +1,299 @@
+package com.example.portfolio.Service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Content-addressed file store behind {@code /media/}.
+ * <p>
+ * Uploads are streamed once to a temp file in the upload directory and hashed by {@link ContentHasher}
+ * as they are written; the temp file is then renamed to {@code <hash><extension>}. Heap use per upload
+ * is one copy buffer regardless of the file size.
+ * <p>
+ * Files are fanned out by the first four characters of their hash, {@code ab/cd/<hash><extension>}, so
+ * no directory grows past a few thousand entries. URLs stay {@code /media/<filename>}; the directory is
+ * derived from the name. Files written before the layout was sharded are still found at their flat path
+ * until {@link #migrateFlatFiles} has moved them.
+ * <p>
+ * Small files committed with {@link Backend#PACK} go to the {@link PackStore} instead. Callers address
+ * both by file name: lookups, deletes and the garbage collector's walk cover both backends.
+ */
+@Component
+public class MediaStorage {
+
+    public static final String URL_PREFIX = "/media/";
+
+    /** Where a committed file goes: its own file, or a pack segment if it is below the pack size limit. */
+    public enum Backend {
+        FILES, PACK
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int SHARD_PREFIX = 4;
+
+    private final Path uploadDir;
+    private final ContentHasher contentHasher;
+    private final PackStore packStore;
+    private final Timer writeTimer;
+
+    public MediaStorage(ContentHasher contentHasher, PackStore packStore, MeterRegistry meterRegistry,
+                        @Value("${portfolio.media.upload-dir:resources/media}") String uploadDir) {
+        this.uploadDir = Paths.get(uploadDir);
+        this.contentHasher = contentHasher;
+        this.packStore = packStore;
+        this.writeTimer = Timer.builder("portfolio.media.write")
+                .description("Time to stream an upload to disk and hash it")
+                .register(meterRegistry);
+        createUploadDirectory();
+    }
+
+    private void createUploadDirectory() {
+        try {
+            Files.createDirectories(uploadDir);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create upload directory!", e);
+        }
+    }
+
+    /** A written upload; {@code legacyHash} is its MD5 if uploads are also matched against MD5-named files. */
+    public record StagedMedia(Path tempFile, String hash, String legacyHash, long size) {
+    }
+
+    /** Copies the stream to a temp file, hashing the bytes as they are written. Closes the stream. */
+    public StagedMedia stage(InputStream content) throws IOException {
+        long started = System.nanoTime();
+        Path tempFile = createTempFile("upload-");
+        try (InputStream in = content;
+             FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             ContentHasher.Hashing hashing = contentHasher.start(channel)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long size = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    size += channel.write(chunk);
+                }
+                hashing.written(chunk.flip(), size);
+            }
+            String hash = hashing.finish(size);
+            writeTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return new StagedMedia(tempFile, hash, hashing.legacyHash(), size);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+    }
+
+    /** Moves a staged file to its content-addressed name and returns that name. */
+    public String commit(StagedMedia staged, String extension) throws IOException {
+        return commit(staged, extension, Backend.FILES);
+    }
+
+    public String commit(StagedMedia staged, String extension, Backend backend) throws IOException {
+        String filename = staged.hash() + extension;
+        place(staged.tempFile(), filename, backend);
+        return filename;
+    }
+
+    /** Stores a finished temp file under {@code filename}; the temp file is gone afterwards. */
+    public void place(Path tempFile, String filename, Backend backend) throws IOException {
+        long size = Files.size(tempFile);
+        if (backend == Backend.PACK && packStore.accepts(size)) {
+            packStore.append(filename, tempFile, size);
+            Files.delete(tempFile);
+            return;
+        }
+        // Same file system, so this is a rename; an existing file with this name has the same content
+        Files.move(tempFile, resolveForWrite(filename), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Creates an empty temp file in the upload directory, so it can later be renamed into place. */
+    public Path createTempFile(String prefix) throws IOException {
+        return Files.createTempFile(uploadDir, prefix, ".tmp");
+    }
+
+    public void discard(StagedMedia staged) throws IOException {
+        Files.deleteIfExists(staged.tempFile());
+    }
+
+    /** Marks a stored file as just used, so the garbage collector's grace period starts over. */
+    public void touch(String filename) throws IOException {
+        if (packStore.contains(filename)) {
+            packStore.touch(filename);
+            return;
+        }
+        Files.setLastModifiedTime(resolve(filename), FileTime.from(Instant.now()));
+    }
+
+    public boolean exists(String filename) {
+        return packStore.contains(filename) || Files.isRegularFile(resolve(filename));
+    }
+
+    /** When the file was stored or last reused, or {@code null} if it does not exist. */
+    public Instant lastModified(String filename) throws IOException {
+        Instant packed = packStore.lastModified(filename);
+        if (packed != null) {
+            return packed;
+        }
+        Path file = resolve(filename);
+        return Files.exists(file) ? Files.getLastModifiedTime(file).toInstant() : null;
+    }
+
+    /** Deletes the file from whichever backend holds it; returns whether there was one. */
+    public boolean delete(String filename) throws IOException {
+        boolean packed = packStore.delete(filename);
+        return Files.deleteIfExists(resolve(filename)) || packed;
+    }
+
+    public boolean isPacked(String filename) {
+        return packStore.contains(filename);
+    }
+
+    /** The bytes of a packed file as a read-only slice of its segment, or {@code null} if it is not packed. */
+    public ByteBuffer readPacked(String filename) {
+        return packStore.read(filename);
+    }
+
+    public InputStream openStream(String filename) throws IOException {
+        ByteBuffer packed = packStore.read(filename);
+        if (packed == null) {
+            return Files.newInputStream(resolve(filename));
+        }
+        // Packed files are small, so a copy is cheaper than an InputStream over the mapping
+        byte[] bytes = new byte[packed.remaining()];
+        packed.get(bytes);
+        return new ByteArrayInputStream(bytes);
+    }
+
+    public Path getUploadDir() {
+        return uploadDir;
+    }
+
+    /** Path of a stored file: its shard directory, or the flat directory if it has not been migrated yet. */
+    public Path resolve(String filename) {
+        Path sharded = shardedPath(filename);
+        if (sharded.getParent().equals(uploadDir) || Files.exists(sharded)) {
+            return sharded;
+        }
+        // Checked second, so a file moved between the two checks is found at its new path
+        Path flat = uploadDir.resolve(filename);
+        return Files.exists(flat) ? flat : sharded;
+    }
+
+    /** Path for a new file, with its shard directory created. */
+    public Path resolveForWrite(String filename) throws IOException {
+        Path sharded = shardedPath(filename);
+        Files.createDirectories(sharded.getParent());
+        return sharded;
+    }
+
+    /**
+     * Moves up to {@code limit} files from the flat directory into their shard directories and returns
+     * how many were moved. Each move is a rename, so a file is always at one of the two paths that
+     * {@link #resolve} checks, and old URLs keep working throughout.
+     */
+    public int migrateFlatFiles(int limit) throws IOException {
+        int moved = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(uploadDir, Files::isRegularFile)) {
+            for (Path file : files) {
+                Path target = shardedPath(file.getFileName().toString());
+                if (target.getParent().equals(uploadDir)) {
+                    continue;
+                }
+                try {
+                    Files.createDirectories(target.getParent());
+                    // A file already at the target has the same content, so replacing it is fine
+                    Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                if (++moved == limit) {
+                    break;
+                }
+            }
+        }
+        return moved;
+    }
+
+    /** Receives each stored file during {@link #walkFiles}. */
+    @FunctionalInterface
+    public interface FileVisitor {
+        void visit(String filename, long size, Instant lastModified) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Visits every file in the flat directory, the shard directories and the pack segments, with one
+     * directory listing open at a time. Files moved or deleted while the walk runs are skipped instead of
+     * failing it.
+     */
+    public void walkFiles(FileVisitor visitor) throws IOException, InterruptedException {
+        walkFiles(uploadDir, 0, visitor);
+        packStore.forEach(visitor);
+    }
+
+    private void walkFiles(Path directory, int depth, FileVisitor visitor) throws IOException, InterruptedException {
+        List<Path> shards = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                if (attributes.isRegularFile()) {
+                    visitor.visit(entry.getFileName().toString(), attributes.size(), attributes.lastModifiedTime().toInstant());
+                } else if (attributes.isDirectory() && depth < 2 && entry.getFileName().toString().length() == 2) {
+                    shards.add(entry);
+                }
+            }
+        }
+        for (Path shard : shards) {
+            walkFiles(shard, depth + 1, visitor);
+        }
+    }
+
+    // Content hashes and their variants start with hex digits; temp files and hand-named files stay flat
+    private Path shardedPath(String filename) {
+        if (filename.length() <= SHARD_PREFIX) {
+            return uploadDir.resolve(filename);
+        }
+        for (int i = 0; i < SHARD_PREFIX; i++) {
+            char c = filename.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return uploadDir.resolve(filename);
+            }
+        }
+        return uploadDir.resolve(filename.substring(0, 2)).resolve(filename.substring(2, 4)).resolve(filename);
+    }
+
+    public static String urlFor(String filename) {
+        return URL_PREFIX + filename;
+    }
+
+    public static String filenameOf(String url) {
+        return url.replace(URL_PREFIX, "");
+    }
+}
@@ -0,0 +1,453 @@
+package com.example.portfolio.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Small media packed into large segment files under {@code <upload-dir>/packs}, so a million avatars
+ * cost a few hundred files instead of a million inodes and opens. Each segment is memory-mapped once;
+ * reads are slices of the mapping and never open a file.
+ * <p>
+ * A segment is a sequence of records: a header (magic, flags, last-modified time, data length, CRC32C
+ * of the data, name length), the file name and the data. Records are only appended, except that a
+ * delete sets a flag in the record's header and {@link MediaStorage#touch} rewrites its time. The
+ * in-memory index, name → record, is rebuilt by scanning the segments at startup; a record torn by a
+ * crash at the end of the last segment fails its checksum and is overwritten by the next append.
+ * Compaction copies the live records of a mostly deleted segment to the end of the newest one and
+ * deletes the old file. It runs on its own low-priority thread, so a long copy never holds up the shared
+ * scheduler that flushes likes and checkpoints scores.
+ */
+@Component
+public class PackStore {
+
+    private static final Logger log = LoggerFactory.getLogger(PackStore.class);
+
+    private static final int MAGIC = 0x504B3031;
+    private static final byte LIVE = 1;
+    private static final byte DELETED = 0;
+    private static final int FLAGS_OFFSET = 4;
+    private static final int MODIFIED_OFFSET = 5;
+    private static final int LENGTH_OFFSET = 13;
+    private static final int CRC_OFFSET = 17;
+    private static final int NAME_LENGTH_OFFSET = 21;
+    private static final int HEADER_SIZE = 23;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("^segment-(\\d+)\\.pack$");
+
+    private final Path packDir;
+    private final int segmentSize;
+    private final long maxEntrySize;
+    private final double compactionThreshold;
+    private final long compactionIntervalMillis;
+    private final ScheduledExecutorService compactor;
+    private final ConcurrentHashMap<String, Entry> index = new ConcurrentHashMap<>();
+    // Segments by id; the last one takes appends. Guarded by lock, as are all writes to the mappings
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public PackStore(@Value("${portfolio.media.upload-dir:resources/media}") String uploadDir,
+                     @Value("${portfolio.media.pack.segment-size:64MB}") DataSize segmentSize,
+                     @Value("${portfolio.media.pack.max-entry-size:256KB}") DataSize maxEntrySize,
+                     @Value("${portfolio.media.pack.compaction-threshold:0.5}") double compactionThreshold,
+                     @Value("${portfolio.media.pack.compaction-interval-ms:600000}") long compactionIntervalMillis) {
+        if (segmentSize.toBytes() > Integer.MAX_VALUE || maxEntrySize.toBytes() > segmentSize.toBytes() / 2) {
+            throw new IllegalArgumentException("Pack segments must be under 2GB and hold at least two entries");
+        }
+        this.packDir = Paths.get(uploadDir).resolve("packs");
+        this.segmentSize = (int) segmentSize.toBytes();
+        this.maxEntrySize = maxEntrySize.toBytes();
+        this.compactionThreshold = compactionThreshold;
+        this.compactionIntervalMillis = compactionIntervalMillis;
+        this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pack-compaction");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    private static final class Segment {
+
+        private final int id;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int end;
+        private long liveBytes;
+        private long deadBytes;
+
+        private Segment(int id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+
+    private record Entry(Segment segment, int recordOffset, int dataOffset, int length) {
+
+        int recordLength() {
+            return dataOffset - recordOffset + length;
+        }
+    }
+
+    public record Stats(int segments, int entries, long liveBytes, long deadBytes, long mappedBytes) {
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        compactor.scheduleWithFixedDelay(this::compactNext, compactionIntervalMillis, compactionIntervalMillis, TimeUnit.MILLISECONDS);
+        if (!Files.isDirectory(packDir)) {
+            return;
+        }
+        List<Integer> ids = new ArrayList<>();
+        try (Stream<Path> files = Files.list(packDir)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                Matcher matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    ids.add(Integer.parseInt(matcher.group(1)));
+                }
+            }
+        }
+        ids.sort(null);
+
+        lock.lock();
+        try {
+            for (int id : ids) {
+                boolean last = id == ids.get(ids.size() - 1);
+                Segment segment = map(id, last);
+                segments.put(id, segment);
+                scan(segment, last);
+            }
+            if (!segments.isEmpty()) {
+                log.info("Opened {} pack segments with {} entries", segments.size(), index.size());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        // Not interrupted: a compaction under way finishes its copy before the channels are closed
+        compactor.shutdown();
+        try {
+            if (!compactor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Pack compaction did not finish before shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            for (Segment segment : segments.values()) {
+                segment.channel.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Whether an entry of this size is small enough to be packed. */
+    public boolean accepts(long size) {
+        return size <= maxEntrySize;
+    }
+
+    /** Appends the content of {@code source} under {@code filename}, replacing any entry of that name. */
+    public void append(String filename, Path source, long size) throws IOException {
+        if (!accepts(size)) {
+            throw new IllegalArgumentException(filename + " is too large to pack: " + size + " bytes");
+        }
+        lock.lock();
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            Entry entry = reserve(filename, (int) size);
+            try {
+                ByteBuffer data = entry.segment.buffer.slice(entry.dataOffset, entry.length);
+                while (data.hasRemaining()) {
+                    if (in.read(data) < 0) {
+                        throw new EOFException("File shrank while packing: " + source);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // The space is taken; a deleted record keeps the segment readable past it
+                writeHeader(filename, entry, System.currentTimeMillis(), DELETED);
+                entry.segment.deadBytes += entry.recordLength();
+                throw e;
+            }
+            publish(filename, entry, System.currentTimeMillis());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** A read-only view of the entry's bytes in the mapped segment, or {@code null} if there is none. */
+    public ByteBuffer read(String filename) {
+        Entry entry = index.get(filename);
+        return entry == null ? null : entry.segment.buffer.slice(entry.dataOffset, entry.length).asReadOnlyBuffer();
+    }
+
+    public boolean contains(String filename) {
+        return index.containsKey(filename);
+    }
+
+    public Instant lastModified(String filename) {
+        Entry entry = index.get(filename);
+        return entry == null ? null : Instant.ofEpochMilli(entry.segment.buffer.getLong(entry.recordOffset + MODIFIED_OFFSET));
+    }
+
+    public void touch(String filename) {
+        lock.lock();
+        try {
+            Entry entry = index.get(filename);
+            if (entry != null) {
+                entry.segment.buffer.putLong(entry.recordOffset + MODIFIED_OFFSET, System.currentTimeMillis());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Flags the entry as deleted; its space is reclaimed when its segment is compacted. */
+    public boolean delete(String filename) {
+        lock.lock();
+        try {
+            Entry entry = index.remove(filename);
+            if (entry == null) {
+                return false;
+            }
+            markDead(entry);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Visits every live entry, for the garbage collector and index rebuilds. */
+    public void forEach(MediaStorage.FileVisitor visitor) throws IOException, InterruptedException {
+        for (Map.Entry<String, Entry> entry : index.entrySet()) {
+            Entry packed = entry.getValue();
+            visitor.visit(entry.getKey(), packed.length,
+                    Instant.ofEpochMilli(packed.segment.buffer.getLong(packed.recordOffset + MODIFIED_OFFSET)));
+        }
+    }
+
+    public Stats stats() {
+        lock.lock();
+        try {
+            long live = 0, dead = 0, mapped = 0;
+            for (Segment segment : segments.values()) {
+                live += segment.liveBytes;
+                dead += segment.deadBytes;
+                mapped += segment.buffer.capacity();
+            }
+            return new Stats(segments.size(), index.size(), live, dead, mapped);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // One segment per run keeps the copy short; a backlog of deletions is worked off over several runs
+    private void compactNext() {
+        try {
+            compact(1);
+        } catch (IOException e) {
+            log.warn("Pack compaction failed", e);
+        }
+    }
+
+    /**
+     * Compacts up to {@code maxSegments} sealed segments in which at least the compaction threshold of
+     * the written bytes belong to deleted entries, most wasteful first. Returns how many were compacted.
+     */
+    public int compact(int maxSegments) throws IOException {
+        List<Segment> candidates = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Segment segment : segments.values()) {
+                if (segment.id != segments.lastKey() && segment.end > 0
+                        && segment.deadBytes >= compactionThreshold * segment.end) {
+                    candidates.add(segment);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        candidates.sort(Comparator.comparingDouble((Segment segment) -> (double) segment.deadBytes / segment.end).reversed());
+
+        int compacted = 0;
+        for (Segment segment : candidates.subList(0, Math.min(maxSegments, candidates.size()))) {
+            compact(segment);
+            compacted++;
+        }
+        return compacted;
+    }
+
+    private void compact(Segment segment) throws IOException {
+        long moved = 0;
+        int position = 0;
+        while (position < segment.end) {
+            // The lock is taken per record, so uploads are only held up for one copy at a time
+            lock.lock();
+            try {
+                int nameLength = segment.buffer.getShort(position + NAME_LENGTH_OFFSET);
+                int length = segment.buffer.getInt(position + LENGTH_OFFSET);
+                String filename = readName(segment.buffer, position + HEADER_SIZE, nameLength);
+                Entry current = index.get(filename);
+                if (current != null && current.segment == segment && current.recordOffset == position) {
+                    Entry copy = reserve(filename, length);
+                    copy.segment.buffer.put(copy.dataOffset, segment.buffer, current.dataOffset, length);
+                    publish(filename, copy, segment.buffer.getLong(position + MODIFIED_OFFSET));
+                    moved += length;
+                }
+                position += HEADER_SIZE + nameLength + length;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        lock.lock();
+        try {
+            segments.remove(segment.id);
+            // Readers still holding a slice keep the mapping, and so the unlinked file, alive until they drop it
+            segment.channel.close();
+            Files.deleteIfExists(segment.path);
+        } finally {
+            lock.unlock();
+        }
+        log.info("Compacted pack segment {}: kept {} bytes, reclaimed {} bytes", segment.id, moved, segment.end - moved);
+    }
+
+    // Room for a record at the end of the newest segment, starting a new segment if it does not fit
+    private Entry reserve(String filename, int length) throws IOException {
+        int recordLength = HEADER_SIZE + filename.length() + length;
+        Segment segment = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        if (segment == null || segment.end + recordLength > segment.buffer.capacity()) {
+            Files.createDirectories(packDir);
+            int id = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+            segment = map(id, true);
+            segments.put(id, segment);
+        }
+        Entry entry = new Entry(segment, segment.end, segment.end + HEADER_SIZE + filename.length(), length);
+        segment.end += recordLength;
+        return entry;
+    }
+
+    // Writes the header once the data is in place, then makes the entry visible to readers
+    private void publish(String filename, Entry entry, long modifiedAt) {
+        writeHeader(filename, entry, modifiedAt, LIVE);
+        entry.segment.liveBytes += entry.recordLength();
+
+        Entry previous = index.put(filename, entry);
+        if (previous != null) {
+            markDead(previous);
+        }
+    }
+
+    // The magic goes last, so a record is not recognised before the rest of its header is written
+    private static void writeHeader(String filename, Entry entry, long modifiedAt, byte flags) {
+        MappedByteBuffer buffer = entry.segment.buffer;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(entry.dataOffset, entry.length));
+        byte[] name = filename.getBytes(StandardCharsets.US_ASCII);
+        buffer.put(entry.recordOffset + HEADER_SIZE, name);
+        buffer.putLong(entry.recordOffset + MODIFIED_OFFSET, modifiedAt);
+        buffer.putInt(entry.recordOffset + LENGTH_OFFSET, entry.length);
+        buffer.putInt(entry.recordOffset + CRC_OFFSET, (int) crc.getValue());
+        buffer.putShort(entry.recordOffset + NAME_LENGTH_OFFSET, (short) name.length);
+        buffer.put(entry.recordOffset + FLAGS_OFFSET, flags);
+        buffer.putInt(entry.recordOffset, MAGIC);
+    }
+
+    private static void markDead(Entry entry) {
+        entry.segment.buffer.put(entry.recordOffset + FLAGS_OFFSET, DELETED);
+        entry.segment.liveBytes -= entry.recordLength();
+        entry.segment.deadBytes += entry.recordLength();
+    }
+
+    private Segment map(int id, boolean active) throws IOException {
+        Path path = packDir.resolve(String.format("segment-%06d.pack", id));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // The active segment is mapped at full size up front; the file stays sparse until it is written
+        long size = active ? Math.max(channel.size(), segmentSize) : channel.size();
+        return new Segment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    private void scan(Segment segment, boolean last) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + HEADER_SIZE <= buffer.capacity() && buffer.getInt(position) == MAGIC) {
+            byte flags = buffer.get(position + FLAGS_OFFSET);
+            int length = buffer.getInt(position + LENGTH_OFFSET);
+            int nameLength = buffer.getShort(position + NAME_LENGTH_OFFSET);
+            int dataOffset = position + HEADER_SIZE + nameLength;
+            if (length < 0 || nameLength <= 0 || (long) dataOffset + length > buffer.capacity()) {
+                break;
+            }
+            // Only the end of the last segment can hold a record torn by a crash
+            if (last) {
+                CRC32C crc = new CRC32C();
+                crc.update(buffer.slice(dataOffset, length));
+                if ((int) crc.getValue() != buffer.getInt(position + CRC_OFFSET)) {
+                    break;
+                }
+            }
+            Entry entry = new Entry(segment, position, dataOffset, length);
+            if (flags == LIVE) {
+                segment.liveBytes += entry.recordLength();
+                // A later copy wins, e.g. when a crash interrupted compaction before the old segment was deleted
+                Entry previous = index.put(readName(buffer, position + HEADER_SIZE, nameLength), entry);
+                if (previous != null) {
+                    markDead(previous);
+                }
+            } else {
+                segment.deadBytes += entry.recordLength();
+            }
+            position = dataOffset + length;
+        }
+        if (last) {
+            // Clear a torn record so it cannot be mistaken for one after the next append
+            for (int i = position; i < Math.min(position + HEADER_SIZE, buffer.capacity()); i++) {
+                buffer.put(i, (byte) 0);
+            }
+        } else if (position + 4 <= buffer.capacity() && buffer.getInt(position) != 0) {
+            log.warn("Pack segment {} is damaged after byte {}; later entries in it are not served", segment.id, position);
+        }
+        segment.end = position;
+    }
+
+    private static String readName(ByteBuffer buffer, int offset, int length) {
+        byte[] name = new byte[length];
+        buffer.get(offset, name);
+        return new String(name, StandardCharsets.US_ASCII);
+    }
+}
@@ -1,33 +1,51 @@
 package com.example.portfolio.Service;
 
-import com.example.portfolio.Repository.UserRepository;
-import com.example.portfolio.entity.PortfolioEntity;
-import com.example.portfolio.entity.UserEntity;
+import com.example.portfolio.Repository.ProjectRepository;
+import com.example.portfolio.dto.PortfolioView;
+import com.example.portfolio.util.ETags;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 
 @Service
+@Timed("portfolio.service")
 public class PortfolioService {
 
-    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final ProjectRepository projectRepository;
 
-    public PortfolioService(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public PortfolioService(UserCache userCache, ProjectRepository projectRepository) {
+        this.userCache = userCache;
+        this.projectRepository = projectRepository;
     }
 
-    public PortfolioEntity getPortfolioForUser(UserEntity user) {
-        return userRepository.findById(user.getId())
-                .map(UserEntity::getPortfolio)
+    public PortfolioView getPortfolioForUser(Long userId) {
+        return userCache.findPortfolioId(userId)
+                .map(this::viewOf)
                 .orElse(null);
     }
-    public PortfolioEntity getPortfolioByUserId(Long userId) {
-        UserEntity user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
-        PortfolioEntity portfolio = user.getPortfolio();
 
-        if (portfolio == null) {
+    public PortfolioView getPortfolioByUserId(Long userId) {
+        Long portfolioId = userCache.findPortfolioId(userId).orElse(null);
+
+        if (portfolioId == null) {
+            if (userCache.findUser(userId).isEmpty()) {
+                throw new RuntimeException("User not found");
+            }
             throw new RuntimeException("This user has no portfolio.");
         }
 
-        return portfolio;
+        return viewOf(portfolioId);
+    }
+
+    /** ETag of {@link #getPortfolioByUserId}, or {@code null} if the user has no portfolio. */
+    public String getPortfolioETag(Long userId) {
+        return userCache.findPortfolioId(userId)
+                .map(portfolioId -> ETags.of("portfolio", portfolioId, projectRepository.findStampByPortfolio(portfolioId)))
+                .orElse(null);
+    }
+
+    private PortfolioView viewOf(Long portfolioId) {
+        return new PortfolioView(portfolioId, projectRepository.findSummariesByPortfolio(portfolioId));
     }
 
 }
@@ -1,130 +1,207 @@
 package com.example.portfolio.Service;
 
+import com.example.portfolio.Repository.CommentRepository;
+import com.example.portfolio.Repository.PortfolioRepository;
 import com.example.portfolio.Repository.ProjectRepository;
 import com.example.portfolio.Repository.UserRepository;
+import com.example.portfolio.dto.BulkMutation;
+import com.example.portfolio.dto.BulkResult;
+import com.example.portfolio.dto.ContentStamp;
+import com.example.portfolio.dto.Cursor;
+import com.example.portfolio.dto.CursorPage;
+import com.example.portfolio.dto.FeedItem;
+import com.example.portfolio.dto.ProjectDetail;
+import com.example.portfolio.dto.ProjectSummary;
+import com.example.portfolio.dto.UserSummary;
 import com.example.portfolio.entity.PortfolioEntity;
 import com.example.portfolio.entity.ProjectComment;
 import com.example.portfolio.entity.ProjectEntity;
-import com.example.portfolio.entity.UserEntity;
+import com.example.portfolio.util.ETags;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
+@Timed("portfolio.service")
 public class ProjectService {
 
     private final ProjectRepository projectRepository;
-    private final UserRepository userRepository;
-    private final String uploadDir = "resources/media";
+    // There is no authentication yet; every request acts as this user
+    private static final long CURRENT_USER_ID = 2L;
 
-    public ProjectService(ProjectRepository projectRepository, UserRepository userRepository) {
+    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final PortfolioRepository portfolioRepository;
+    private final CommentRepository commentRepository;
+    private final LikeBuffer likeBuffer;
+    private final BulkService bulkService;
+    private final FeedService feedService;
+    private final TrendingService trendingService;
+    private final SearchIndex searchIndex;
+    private final MediaStorage mediaStorage;
+    private final MediaIndex mediaIndex;
+    private final ImageVariantService imageVariantService;
+    private final DataSize maxImageSize;
+    private final MediaStorage.Backend imageBackend;
+
+    public ProjectService(ProjectRepository projectRepository, UserRepository userRepository, UserCache userCache,
+                          PortfolioRepository portfolioRepository, CommentRepository commentRepository, LikeBuffer likeBuffer,
+                          BulkService bulkService, FeedService feedService, TrendingService trendingService,
+                          SearchIndex searchIndex,
+                          MediaStorage mediaStorage, MediaIndex mediaIndex, ImageVariantService imageVariantService,
+                          @Value("${portfolio.media.max-image-size:10MB}") DataSize maxImageSize,
+                          @Value("${portfolio.media.backend.project-images:FILES}") MediaStorage.Backend imageBackend) {
         this.projectRepository = projectRepository;
         this.userRepository = userRepository;
-        createUploadDirectory();
+        this.userCache = userCache;
+        this.portfolioRepository = portfolioRepository;
+        this.commentRepository = commentRepository;
+        this.likeBuffer = likeBuffer;
+        this.bulkService = bulkService;
+        this.feedService = feedService;
+        this.trendingService = trendingService;
+        this.searchIndex = searchIndex;
+        this.mediaStorage = mediaStorage;
+        this.mediaIndex = mediaIndex;
+        this.imageVariantService = imageVariantService;
+        this.maxImageSize = maxImageSize;
+        this.imageBackend = imageBackend;
     }
 
-    private void createUploadDirectory() {
-        try {
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Could not create upload directory!", e);
-        }
-    }
-
-    public UserEntity getCurrentUser() {
-        return userRepository.findById(2L).orElseThrow();
+    private UserSummary currentUser() {
+        return userCache.requireUser(CURRENT_USER_ID);
     }
 
-    public ProjectEntity addProjectToMyPortfolio(ProjectEntity project) {
-        return addProjectToUserPortfolio(getCurrentUser().getId(), project);
+    @Transactional
+    public ProjectDetail addProjectToMyPortfolio(ProjectEntity project) {
+        return addProjectToUserPortfolio(CURRENT_USER_ID, project);
     }
 
-    public ProjectEntity addProjectToUserPortfolio(Long userId, ProjectEntity project) {
-        UserEntity user = userRepository.findById(userId).orElseThrow();
-        PortfolioEntity portfolio = user.getPortfolio();
+    @Transactional
+    public ProjectDetail addProjectToUserPortfolio(Long userId, ProjectEntity project) {
+        UserSummary user = userCache.requireUser(userId);
+        PortfolioEntity portfolio = userCache.findPortfolioId(userId)
+                .map(portfolioRepository::getReferenceById)
+                .orElse(null);
 
         if (portfolio == null) {
             portfolio = new PortfolioEntity();
-            portfolio.setUser(user);
-            user.setPortfolio(portfolio);
+            portfolio.setUser(userRepository.getReferenceById(userId));
+            portfolio = portfolioRepository.save(portfolio);
+            userCache.invalidatePortfolio(userId);
         }
 
         project.setPortfolio(portfolio);
-        return projectRepository.save(project);
+        ProjectEntity saved = projectRepository.save(project);
+        feedService.publish(new FeedItem(saved.getId(), user.id(), saved.getCreatedAt()));
+        afterCommit(() -> searchIndex.indexProject(saved.getId(), saved.getTitle(), saved.getDescription()));
+        return ProjectDetail.from(saved, user.username());
+    }
+
+    public ProjectDetail getProjectById(Long id) {
+        return projectRepository.findDetailedById(id)
+                .map(ProjectDetail::from)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Project not found"));
+    }
+
+    /** ETag of {@link #getProjectById}, or {@code null} if there is no such project. */
+    public String getProjectETag(Long id) {
+        return projectRepository.findVersionById(id)
+                .map(version -> ETags.of("project", id, version))
+                .orElse(null);
+    }
+
+    public CursorPage<ProjectSummary> getMyProjects(String cursor, int size) {
+        return pageOfUserProjects(CURRENT_USER_ID, cursor, size);
+    }
+
+    public CursorPage<ProjectSummary> getFeed(String cursor, int size) {
+        return feedService.getFeed(CURRENT_USER_ID, cursor, size);
     }
 
-    public ProjectEntity getProjectById(Long id) {
-        return projectRepository.findById(id).orElseThrow(() -> new RuntimeException("Project not found"));
+    public CursorPage<ProjectSummary> search(String query, String cursor, int size) {
+        CursorPage<Long> hits = searchIndex.search(query, cursor, size);
+        return new CursorPage<>(projectRepository.findSummariesInOrder(hits.items()), hits.nextCursor());
     }
 
-    public List<ProjectEntity> getMyProjects() {
-        UserEntity user = getCurrentUser();
-        PortfolioEntity portfolio = user.getPortfolio();
-        if (portfolio == null) return List.of();
-        return projectRepository.findByPortfolio(portfolio);
+    public List<ProjectSummary> getTrending(int size) {
+        return trendingService.getTrending(CursorPage.clampSize(size));
     }
 
-    public List<ProjectEntity> getProjectsByUser(Long userId) {
-        UserEntity user = userRepository.findById(userId).orElseThrow();
-        PortfolioEntity portfolio = user.getPortfolio();
-        if (portfolio == null) return List.of();
-        return projectRepository.findByPortfolio(portfolio);
+    public CursorPage<ProjectSummary> getProjectsByUser(Long userId, String cursor, int size) {
+        userCache.requireUser(userId);
+        return pageOfUserProjects(userId, cursor, size);
+    }
+
+    /** ETag of the {@link #getProjectsByUser} page at {@code cursor}. */
+    public String getProjectsByUserETag(Long userId, String cursor, int size) {
+        userCache.requireUser(userId);
+        ContentStamp stamp = projectRepository.findStampByUser(userId);
+        return ETags.of("userProjects", userId, stamp, cursor, CursorPage.clampSize(size));
+    }
+
+    private CursorPage<ProjectSummary> pageOfUserProjects(Long userId, String cursor, int size) {
+        int pageSize = CursorPage.clampSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+        Cursor after = Cursor.decode(cursor);
+        List<ProjectSummary> rows = after == null
+                ? projectRepository.findSummariesByUser(userId, limit)
+                : projectRepository.findSummariesByUserBefore(userId, after.createdAt(), after.id(), limit);
+        return CursorPage.of(rows, pageSize, ProjectSummary::cursor);
     }
 
     public String likeProject(Long projectId) {
-        UserEntity user = getCurrentUser();
-        ProjectEntity project = projectRepository.findById(projectId).orElseThrow();
+        UserSummary user = currentUser();
+        if (!projectRepository.existsById(projectId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Project not found");
+        }
 
-        if (!user.getLikedProjects().contains(project)) {
-            user.getLikedProjects().add(project);
-            project.setLikes(project.getLikes() + 1);
-            userRepository.save(user);
-            projectRepository.save(project);
+        // Written behind by LikeBuffer.flush(), so no optimistic locking on the project row here
+        if (likeBuffer.like(user.id(), projectId)) {
+            trendingService.recordLike(projectId);
             return "✅ Project liked!";
         }
         return "⚠️ You already liked this project.";
     }
 
     public String saveProject(Long projectId) {
-        UserEntity user = getCurrentUser();
-        ProjectEntity project = projectRepository.findById(projectId).orElseThrow();
+        return switch (applyOne(BulkMutation.Op.SAVE, projectId)) {
+            case APPLIED -> "✅ Project saved!";
+            default -> "⚠️ You already saved this project.";
+        };
+    }
 
-        if (!user.getSavedProjects().contains(project)) {
-            user.getSavedProjects().add(project);
-            userRepository.save(user);
-            return "✅ Project saved!";
-        }
-        return "⚠️ You already saved this project.";
+    public String unsaveProject(Long projectId) {
+        return switch (applyOne(BulkMutation.Op.UNSAVE, projectId)) {
+            case APPLIED -> "✅ Project unsaved!";
+            default -> "⚠️ You haven't saved this project.";
+        };
     }
 
-    public String unsaveProject(Long projectId){
-        UserEntity user = getCurrentUser();
-        ProjectEntity project = projectRepository.findById(projectId).orElseThrow();
-        if (!user.getSavedProjects().contains(project)) {
-            user.getSavedProjects().remove(project);
-            userRepository.save(user);
-            return "✅ Project unsaved!";
+    private BulkResult.Status applyOne(BulkMutation.Op op, Long projectId) {
+        BulkResult.Status status = bulkService.apply(List.of(new BulkMutation(op, projectId))).get(0).status();
+        if (status == BulkResult.Status.NOT_FOUND) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Project not found");
         }
-        return "⚠️ You haven't saved this project.";
+        return status;
     }
 
-    public ProjectEntity updateProject(Long projectId, ProjectEntity updatedData) {
+    @Transactional
+    public ProjectDetail updateProject(Long projectId, ProjectEntity updatedData) {
         ProjectEntity project = projectRepository.findById(projectId)
                 .orElseThrow(() -> new RuntimeException("Project not found"));
 
@@ -133,12 +210,59 @@ public class ProjectService {
         project.setDescription(updatedData.getDescription());
         project.setGithubLink(updatedData.getGithubLink());
 
-        return projectRepository.save(project);
+        ProjectEntity saved = projectRepository.save(project);
+        afterCommit(() -> searchIndex.indexProject(saved.getId(), saved.getTitle(), saved.getDescription()));
+        return ProjectDetail.from(saved);
     }
 
+    @Transactional
+    public String deleteProject(Long projectId) {
+        ProjectEntity project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Project not found"));
+
+        // Rows that reference the project go first, the join tables have no cascade
+        commentRepository.deleteByProjectId(projectId);
+        projectRepository.deleteLikesOf(projectId);
+        projectRepository.deleteSavesOf(projectId);
+        projectRepository.delete(project);
+
+        // Media references are dropped in memory as well, so only once the delete has committed
+        afterCommit(() -> {
+            mediaIndex.release(project.getImageUrl());
+            mediaIndex.release(project.getVideoUrl());
+            searchIndex.remove(projectId);
+        });
+
+        return "✅ Project deleted successfully.";
+    }
 
-    public List<ProjectEntity> getSavedProjects() {
-        return getCurrentUser().getSavedProjects();
+    /**
+     * Runs {@code action} once the surrounding transaction commits, or right away outside of one, so the
+     * in-memory indexes never see a change that is rolled back.
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+
+    public CursorPage<ProjectSummary> getSavedProjects(String cursor, int size) {
+        Long userId = CURRENT_USER_ID;
+        int pageSize = CursorPage.clampSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+        Cursor after = Cursor.decode(cursor);
+        List<ProjectSummary> rows = after == null
+                ? projectRepository.findSavedSummaries(userId, limit)
+                : projectRepository.findSavedSummariesBefore(userId, after.createdAt(), after.id(), limit);
+        return CursorPage.of(rows, pageSize, ProjectSummary::cursor);
     }
 
 //    public String attachMediaToProject(Long projectId, String imageUrl, String videoUrl) {
@@ -156,48 +280,37 @@ public class ProjectService {
 //    }
 
     public String addCommentToProject(Long projectId, String text) {
-        UserEntity user = getCurrentUser();
-        ProjectEntity project = projectRepository.findById(projectId).orElseThrow();
+        UserSummary user = currentUser();
 
         ProjectComment comment = new ProjectComment();
-        comment.setUsername(user.getUsername());
+        // A reference is enough for the foreign key; the project row is neither loaded nor updated
+        comment.setProject(projectRepository.getReferenceById(projectId));
+        comment.setUsername(user.username());
         comment.setText(text);
         comment.setPostedAt(LocalDateTime.now());
 
-        project.getComments().add(comment);
-        projectRepository.save(project);
-
-        return "✅ Comment added to project!";
-    }
-
-    private String calculateMD5(byte[] data) {
         try {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] hash = md.digest(data);
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) hexString.append('0');
-                hexString.append(hex);
-            }
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Failed to calculate MD5", e);
+            commentRepository.save(comment);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Project not found");
         }
+        trendingService.recordComment(projectId);
+        afterCommit(() -> searchIndex.addComment(projectId, text));
+        return "✅ Comment added to project!";
     }
 
-    private String getExistingImagePath(String md5Hash, String extension) {
-        try {
-            Path dir = Paths.get(uploadDir);
-            return Files.walk(dir)
-                    .filter(Files::isRegularFile)
-                    .filter(path -> path.getFileName().toString().startsWith(md5Hash))
-                    .findFirst()
-                    .map(path -> "/media/" + path.getFileName().toString())
-                    .orElse(null);
-        } catch (IOException e) {
-            return null;
+    public CursorPage<ProjectComment> getComments(Long projectId, String cursor, int size) {
+        int pageSize = CursorPage.clampSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+        Cursor after = Cursor.decode(cursor);
+        List<ProjectComment> rows = after == null
+                ? commentRepository.findLatest(projectId, limit)
+                : commentRepository.findLatestBefore(projectId, after.createdAt(), after.id(), limit);
+        // Only an empty first page needs to tell a missing project from one without comments
+        if (rows.isEmpty() && after == null && !projectRepository.existsById(projectId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Project not found");
         }
+        return CursorPage.of(rows, pageSize, c -> new Cursor(c.getPostedAt(), c.getId()));
     }
 
     public String uploadProjectImage(Long projectId, MultipartFile file) {
@@ -209,6 +322,10 @@ public class ProjectService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Uploaded file is empty");
         }
 
+        if (file.getSize() > maxImageSize.toBytes()) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "Images can be at most " + maxImageSize.toMegabytes() + "MB");
+        }
+
         try {
             ProjectEntity project = projectRepository.findById(projectId)
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Project not found"));
@@ -232,30 +349,23 @@ public class ProjectService {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only JPG, PNG and GIF files are allowed");
             }
 
-            // Calculate MD5 hash of file content
-            byte[] fileContent = file.getBytes();
-            String md5Hash = calculateMD5(fileContent);
-
-            // Check if this image already exists
-            String existingImagePath = getExistingImagePath(md5Hash, extension);
-            if (existingImagePath != null) {
-                // If image already exists, just update the project with existing image URL
-                project.setImageUrl(existingImagePath);
-                projectRepository.save(project);
-                return "✅ Image reference updated successfully! You can view it at: " + existingImagePath;
-            }
+            // Stream the file to disk once, hashing it on the way
+            MediaStorage.StagedMedia staged = mediaStorage.stage(file.getInputStream());
 
-            // If image doesn't exist, save it with MD5 hash as filename
-            String newFilename = md5Hash + extension;
-            Path filePath = Paths.get(uploadDir, newFilename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            // Reuses the stored file if this image already exists, otherwise saves it under its content hash
+            MediaIndex.StoredMedia stored = mediaIndex.store(staged, extension, imageBackend);
 
-            // Update project with new image URL
-            String imageUrl = "/media/" + newFilename;
-            project.setImageUrl(imageUrl);
+            // Update project with the image URL and drop the reference to the one it replaces
+            String previousUrl = project.getImageUrl();
+            project.setImageUrl(stored.url());
             projectRepository.save(project);
+            mediaIndex.release(previousUrl);
+            imageVariantService.generateAsync(stored.url());
 
-            return "✅ Image uploaded successfully! You can view it at: " + imageUrl;
+            if (stored.deduplicated()) {
+                return "✅ Image reference updated successfully! You can view it at: " + stored.url();
+            }
+            return "✅ Image uploaded successfully! You can view it at: " + stored.url();
         } catch (IOException e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to upload image: " + e.getMessage());
         }
@@ -270,24 +380,14 @@ public class ProjectService {
             return "⚠️ No image to delete.";
         }
 
-        // Delete image file from disk
-        deletePhysicalImageFile(imageUrl);
-
         // Remove image URL from project
         project.setImageUrl(null);
         projectRepository.save(project);
 
-        return "✅ Image deleted successfully.";
-    }
+        // Drop the reference; the file is collected once no project or user uses it
+        mediaIndex.release(imageUrl);
 
-    private void deletePhysicalImageFile(String imageUrl) {
-        try {
-            String filename = imageUrl.replace("/media/", "");
-            Path filePath = Paths.get(uploadDir, filename);
-            Files.deleteIfExists(filePath);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to delete image file", e);
-        }
+        return "✅ Image deleted successfully.";
     }
 
 
@@ -303,32 +403,24 @@ public class ProjectService {
                 throw new IllegalArgumentException("Invalid file type. Only video files are allowed.");
             }
 
-            String originalFilename = file.getOriginalFilename();
-            String extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            String md5Hash = calculateMD5(file.getBytes());
+            // Same whitelist as resumable uploads, so the name can only pick one of the known video extensions
+            String extension = ChunkedUploadService.videoExtensionOf(file.getOriginalFilename());
 
             // Load project
             ProjectEntity project = projectRepository.findById(projectId)
                     .orElseThrow(() -> new RuntimeException("Project not found"));
 
-            // If a video already exists, delete it
-            if (project.getVideoUrl() != null) {
-                deletePhysicalVideoFile(project.getVideoUrl());
-            }
-
-            // Save new video
-            String uploadDir = "resources/media";
-            File directory = new File(uploadDir);
-            if (!directory.exists()) directory.mkdirs();
+            // Stream the file to disk once, hashing it on the way
+            MediaStorage.StagedMedia staged = mediaStorage.stage(file.getInputStream());
 
-            String filename = md5Hash + extension;
-            Path filePath = Paths.get(uploadDir, filename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            // Save new video, or reuse the stored copy of the same content
+            String videoUrl = mediaIndex.store(staged, extension).url();
 
-            // Update project
-            String videoUrl = "/media/" + filename;
+            // Update project and release the video it replaces
+            String previousUrl = project.getVideoUrl();
             project.setVideoUrl(videoUrl);
             projectRepository.save(project);
+            mediaIndex.release(previousUrl);
 
             return videoUrl;
 
@@ -346,35 +438,11 @@ public class ProjectService {
             return "⚠️ No video to delete.";
         }
 
-        deletePhysicalVideoFile(videoUrl);
         project.setVideoUrl(null);
         projectRepository.save(project);
+        mediaIndex.release(videoUrl);
 
         return "✅ Video deleted successfully.";
     }
 
-    private void deletePhysicalVideoFile(String videoUrl) {
-        // Remove "/media/" prefix to get the filename
-        String filename = videoUrl.replace("/media/", "");
-        Path filePath = Paths.get("resources/media", filename);
-        try {
-            Files.deleteIfExists(filePath);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to delete video file: " + filename, e);
-        }
-    }
-
-
-
-    private String getExistingVideoPath(String md5Hash, String extension) {
-        String uploadDir = "resources/media";
-        File directory = new File(uploadDir);
-        if (directory.exists() && directory.isDirectory()) {
-            File[] files = directory.listFiles((dir, name) -> name.startsWith(md5Hash) && name.endsWith(extension));
-            if (files != null && files.length > 0) {
-                return "/media/" + files[0].getName();
-            }
-        }
-        return null;
-    }
 }
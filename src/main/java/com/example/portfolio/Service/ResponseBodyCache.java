@@ -0,0 +1,175 @@
+package com.example.portfolio.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized JSON bodies of read endpoints, kept per resource together with the ETag they were built for.
+ * A body is only reused while the resource's current ETag (derived from its version) still matches, so
+ * a change invalidates it without any hook in the write path; the stale bytes are replaced on the next
+ * read. Bounded by total bytes, least recently used first.
+ * <p>
+ * With gzip on, each body is compressed once when it is cached and sent as is to clients that accept it.
+ * The two encodings get distinct ETags, as strong validators must.
+ */
+@Component
+public class ResponseBodyCache {
+
+    public record Stats(int entries, long bytes, long maxBytes, long hits, long misses, long evictions) {
+    }
+
+    private record Body(String etag, byte[] json, byte[] gzip) {
+
+        long bytes() {
+            return json.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+    private final boolean gzip;
+
+    private final LinkedHashMap<String, Body> bodies = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ResponseBodyCache(ObjectMapper objectMapper,
+                             @Value("${portfolio.response-cache.max-size:64MB}") DataSize maxSize,
+                             @Value("${portfolio.response-cache.gzip:true}") boolean gzip) {
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxSize.toBytes();
+        this.gzip = gzip;
+    }
+
+    /**
+     * Answers a GET for {@code key}: 304 when If-None-Match has {@code etag}, the cached bytes when they
+     * were built for {@code etag}, and a freshly serialized {@code body} otherwise. A {@code null} etag
+     * means the resource cannot be tagged; the body is then serialized uncached (usually to throw 404).
+     */
+    public ResponseEntity<byte[]> respond(String key, String etag, WebRequest request, Supplier<?> body) {
+        if (etag == null) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(serialize(body.get()));
+        }
+
+        boolean sendGzip = gzip && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String representationTag = sendGzip ? gzipTag(etag) : etag;
+        if (request.checkNotModified(representationTag)) {
+            return null;
+        }
+
+        Body cached = lookup(key, etag);
+        if (cached == null) {
+            byte[] json = serialize(body.get());
+            cached = new Body(etag, json, gzip ? compress(json) : null);
+            store(key, cached);
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(representationTag);
+        if (gzip) {
+            response.varyBy(HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (sendGzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(cached.gzip());
+        }
+        return response.body(cached.json());
+    }
+
+    private Body lookup(String key, String etag) {
+        synchronized (bodies) {
+            Body cached = bodies.get(key);
+            if (cached != null && cached.etag().equals(etag)) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    // Two readers of different versions may race here; the loser is simply replaced on the next miss
+    private void store(String key, Body body) {
+        if (body.bytes() > maxBytes / 8) {
+            return;
+        }
+        synchronized (bodies) {
+            Body previous = bodies.put(key, body);
+            bytes += body.bytes() - (previous == null ? 0 : previous.bytes());
+            var eldest = bodies.values().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= eldest.next().bytes();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (bodies) {
+            bodies.clear();
+            bytes = 0;
+        }
+    }
+
+    public Stats stats() {
+        synchronized (bodies) {
+            return new Stats(bodies.size(), bytes, maxBytes, hits.sum(), misses.sum(), evictions.sum());
+        }
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + body.getClass().getSimpleName(), e);
+        }
+    }
+
+    static byte[] compress(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    static String gzipTag(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
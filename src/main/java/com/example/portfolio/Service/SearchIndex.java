@@ -0,0 +1,443 @@
+package com.example.portfolio.Service;
+
+import com.example.portfolio.dto.CursorPage;
+import com.example.portfolio.util.LongFloatHashMap;
+import com.example.portfolio.util.LongFloatHashMap.Visitor;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over project titles, descriptions and comments.
+ * <p>
+ * Terms live in a sorted map so the last word of a query also matches as a prefix. Each term holds a
+ * primitive posting map of project id → weight, where the weight is a log-scaled term frequency scaled
+ * by the field it came from. A query scores each word by weight × idf and keeps only the projects that
+ * match every word: the rarest word picks the candidates and the others are probed for those alone.
+ * Results come back as a keyset page ordered by score. The index is rebuilt from the database
+ * in parallel at startup and then kept current by {@link ProjectService}.
+ */
+@Component
+public class SearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndex.class);
+
+    static final float TITLE_WEIGHT = 3f;
+    static final float DESCRIPTION_WEIGHT = 1f;
+    static final float COMMENT_WEIGHT = 0.5f;
+
+    private static final float PREFIX_DISCOUNT = 0.5f;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_TERMS = 256;
+    private static final int MAX_TOKEN_LENGTH = 40;
+    private static final int REBUILD_CHUNK = 5000;
+
+    // Best score first, then lowest id, so pages are stable for equal scores
+    private record Hit(long projectId, float score) {
+    }
+
+    private static final Comparator<Hit> BEST_FIRST = Comparator.comparingDouble(Hit::score).reversed()
+            .thenComparingLong(Hit::projectId);
+
+    /** Terms of one project: its title and description, and the running term counts of its comments. */
+    private static final class Document {
+        private String[] fieldTerms = new String[0];
+        private float[] fieldWeights = new float[0];
+        private final Map<String, Integer> commentCounts = new HashMap<>(4);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int rebuildThreads;
+
+    private final TreeMap<String, LongFloatHashMap> postings = new TreeMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public SearchIndex(JdbcTemplate jdbcTemplate, @Value("${portfolio.search.rebuild-threads:4}") int rebuildThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rebuildThreads = rebuildThreads;
+    }
+
+    /** Indexes a new project or replaces the title and description terms of an existing one. */
+    public void indexProject(long projectId, String title, String description) {
+        Map<String, Float> weights = new LinkedHashMap<>();
+        addField(weights, title, TITLE_WEIGHT);
+        addField(weights, description, DESCRIPTION_WEIGHT);
+
+        lock.writeLock().lock();
+        try {
+            Document document = documents.computeIfAbsent(projectId, id -> new Document());
+            for (int i = 0; i < document.fieldTerms.length; i++) {
+                post(document.fieldTerms[i], projectId, -document.fieldWeights[i]);
+            }
+            document.fieldTerms = weights.keySet().toArray(new String[0]);
+            document.fieldWeights = new float[document.fieldTerms.length];
+            for (int i = 0; i < document.fieldTerms.length; i++) {
+                document.fieldWeights[i] = weights.get(document.fieldTerms[i]);
+                post(document.fieldTerms[i], projectId, document.fieldWeights[i]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addComment(long projectId, String text) {
+        List<String> tokens = tokenize(text);
+        if (tokens.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Document document = documents.computeIfAbsent(projectId, id -> new Document());
+            addCommentTerms(document, projectId, tokens);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long projectId) {
+        lock.writeLock().lock();
+        try {
+            Document document = documents.remove(projectId);
+            if (document == null) {
+                return;
+            }
+            for (String term : document.fieldTerms) {
+                unpost(term, projectId);
+            }
+            for (String term : document.commentCounts.keySet()) {
+                unpost(term, projectId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Project ids matching every word of the query, best first. */
+    public CursorPage<Long> search(String query, String cursor, int size) {
+        int pageSize = CursorPage.clampSize(size);
+        Hit after = decodeCursor(cursor);
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (words.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+        // The word being typed matches as a prefix; a trailing space means it is complete
+        boolean lastIsPrefix = !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        PriorityQueue<Hit> best = new PriorityQueue<>(BEST_FIRST.reversed());
+        lock.readLock().lock();
+        try {
+            List<List<Source>> matches = new ArrayList<>(words.size());
+            for (int i = 0; i < words.size(); i++) {
+                boolean prefix = lastIsPrefix && i == words.size() - 1 && words.get(i).length() >= MIN_PREFIX_LENGTH;
+                List<Source> sources = sourcesOf(words.get(i), prefix);
+                if (sources.isEmpty()) {
+                    return new CursorPage<>(List.of(), null);
+                }
+                matches.add(sources);
+            }
+            // Start from the rarest word and only probe the remaining words for the projects still in the running
+            matches.sort(Comparator.comparingLong(SearchIndex::postingCount));
+            Visitor offer = (projectId, score) -> {
+                Hit worst = best.size() > pageSize ? best.peek() : null;
+                if (worst != null && (score < worst.score() || (score == worst.score() && projectId > worst.projectId()))) {
+                    return;
+                }
+                Hit hit = new Hit(projectId, score);
+                if (after != null && BEST_FIRST.compare(hit, after) <= 0) {
+                    return;
+                }
+                best.add(hit);
+                if (best.size() > pageSize + 1) {
+                    best.poll();
+                }
+            };
+            if (matches.size() == 1 && matches.get(0).size() == 1) {
+                Source only = matches.get(0).get(0);
+                only.posting().forEach((projectId, weight) -> offer.accept(projectId, weight * only.factor()));
+            } else {
+                LongFloatHashMap scores = merged(matches.get(0)).posting();
+                List<List<Source>> rest = new ArrayList<>();
+                for (List<Source> sources : matches.subList(1, matches.size())) {
+                    // Probing many prefix postings per candidate costs more than merging them once
+                    rest.add(sources.size() > 1 && (long) scores.size() * sources.size() > postingCount(sources)
+                            ? List.of(merged(sources)) : sources);
+                }
+                scores.forEach((projectId, score) -> {
+                    float total = score;
+                    for (List<Source> sources : rest) {
+                        float wordScore = 0;
+                        for (Source source : sources) {
+                            wordScore += source.posting().get(projectId) * source.factor();
+                        }
+                        if (wordScore == 0) {
+                            return;
+                        }
+                        total += wordScore;
+                    }
+                    offer.accept(projectId, total);
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(BEST_FIRST);
+        String nextCursor = null;
+        if (hits.size() > pageSize) {
+            hits = hits.subList(0, pageSize);
+            nextCursor = encodeCursor(hits.get(pageSize - 1));
+        }
+        return new CursorPage<>(hits.stream().map(Hit::projectId).toList(), nextCursor);
+    }
+
+    public int documentCount() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reloads the whole index. Projects are read and tokenized in id ranges on a small pool; only
+     * installing the results takes the write lock.
+     */
+    @PostConstruct
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM project_entity", Long.class);
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, rebuildThreads));
+        try {
+            List<Future<Map<Long, Document>>> chunks = new ArrayList<>();
+            for (long from = 1; from <= maxId; from += REBUILD_CHUNK) {
+                long start = from;
+                chunks.add(pool.submit(() -> loadChunk(start, start + REBUILD_CHUNK)));
+            }
+            List<Map<Long, Document>> loaded = new ArrayList<>(chunks.size());
+            for (Future<Map<Long, Document>> chunk : chunks) {
+                loaded.add(chunk.get());
+            }
+            install(loaded);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rebuilding the search index", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to rebuild the search index", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        log.info("Indexed {} projects ({} terms) in {} ms", documentCount(), termCount(), System.currentTimeMillis() - started);
+    }
+
+    /** Lower-cased runs of letters and digits, at least two characters long. */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); ) {
+            int codePoint = i < text.length() ? text.codePointAt(i) : ' ';
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (token.length() < MAX_TOKEN_LENGTH) {
+                    token.appendCodePoint(codePoint);
+                }
+            } else if (!token.isEmpty()) {
+                if (token.length() >= 2) {
+                    tokens.add(token.toString().toLowerCase(Locale.ROOT));
+                }
+                token.setLength(0);
+            }
+            i += i < text.length() ? Character.charCount(codePoint) : 1;
+        }
+        return tokens;
+    }
+
+    private Map<Long, Document> loadChunk(long fromId, long toId) {
+        Map<Long, Document> chunk = new HashMap<>();
+        jdbcTemplate.query("SELECT id, title, description FROM project_entity WHERE id >= ? AND id < ?", rs -> {
+            Map<String, Float> weights = new LinkedHashMap<>();
+            addField(weights, rs.getString(2), TITLE_WEIGHT);
+            addField(weights, rs.getString(3), DESCRIPTION_WEIGHT);
+            Document document = new Document();
+            document.fieldTerms = weights.keySet().toArray(new String[0]);
+            document.fieldWeights = new float[document.fieldTerms.length];
+            for (int i = 0; i < document.fieldTerms.length; i++) {
+                document.fieldWeights[i] = weights.get(document.fieldTerms[i]);
+            }
+            chunk.put(rs.getLong(1), document);
+        }, fromId, toId);
+        jdbcTemplate.query("SELECT project_id, text FROM project_comment WHERE project_id >= ? AND project_id < ?", rs -> {
+            Document document = chunk.get(rs.getLong(1));
+            if (document != null) {
+                for (String token : tokenize(rs.getString(2))) {
+                    document.commentCounts.merge(token, 1, Integer::sum);
+                }
+            }
+        }, fromId, toId);
+        return chunk;
+    }
+
+    private void install(List<Map<Long, Document>> chunks) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            for (Map<Long, Document> chunk : chunks) {
+                chunk.forEach((projectId, document) -> {
+                    documents.put(projectId, document);
+                    for (int i = 0; i < document.fieldTerms.length; i++) {
+                        post(document.fieldTerms[i], projectId, document.fieldWeights[i]);
+                    }
+                    document.commentCounts.forEach((term, count) -> post(term, projectId, commentWeight(count)));
+                });
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Callers hold the write lock
+    private void addCommentTerms(Document document, long projectId, List<String> tokens) {
+        Map<String, Integer> added = new HashMap<>();
+        for (String token : tokens) {
+            added.merge(token, 1, Integer::sum);
+        }
+        added.forEach((term, count) -> {
+            int before = document.commentCounts.getOrDefault(term, 0);
+            document.commentCounts.put(term, before + count);
+            post(term, projectId, commentWeight(before + count) - (before == 0 ? 0 : commentWeight(before)));
+        });
+    }
+
+    private void post(String term, long projectId, float delta) {
+        LongFloatHashMap posting = postings.computeIfAbsent(term, t -> new LongFloatHashMap());
+        // Weights are sums of field contributions; what is left after removing them all is rounding
+        if (posting.add(projectId, delta) < 1e-4f) {
+            posting.remove(projectId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private void unpost(String term, long projectId) {
+        LongFloatHashMap posting = postings.get(term);
+        if (posting != null && posting.remove(projectId) && posting.isEmpty()) {
+            postings.remove(term);
+        }
+    }
+
+    // One posting list a query word draws from, with the idf and prefix discount folded into the factor
+    private record Source(LongFloatHashMap posting, float factor) {
+    }
+
+    // Callers hold the read lock
+    private List<Source> sourcesOf(String word, boolean prefix) {
+        List<Source> sources = new ArrayList<>();
+        addSource(sources, postings.get(word), 1f);
+        if (prefix) {
+            int expanded = 0;
+            for (LongFloatHashMap posting : postings.subMap(word, false, word + Character.MAX_VALUE, false).values()) {
+                if (++expanded > MAX_PREFIX_TERMS) {
+                    break;
+                }
+                addSource(sources, posting, PREFIX_DISCOUNT);
+            }
+        }
+        return sources;
+    }
+
+    private void addSource(List<Source> sources, LongFloatHashMap posting, float discount) {
+        if (posting != null) {
+            float idf = (float) Math.log(1 + (double) documents.size() / posting.size());
+            sources.add(new Source(posting, idf * discount));
+        }
+    }
+
+    private static Source merged(List<Source> sources) {
+        // Presized: filling a smaller table in another table's slot order clusters badly under linear probing
+        LongFloatHashMap merged = new LongFloatHashMap((int) Math.min(Integer.MAX_VALUE / 2, postingCount(sources)));
+        for (Source source : sources) {
+            source.posting().forEach((projectId, weight) -> merged.add(projectId, weight * source.factor()));
+        }
+        return new Source(merged, 1f);
+    }
+
+    private static long postingCount(List<Source> sources) {
+        long count = 0;
+        for (Source source : sources) {
+            count += source.posting().size();
+        }
+        return count;
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float fieldWeight) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String token : tokenize(text)) {
+            counts.merge(token, 1, Integer::sum);
+        }
+        counts.forEach((term, count) -> weights.merge(term, fieldWeight * logTf(count), Float::sum));
+    }
+
+    private static float commentWeight(int count) {
+        return COMMENT_WEIGHT * logTf(count);
+    }
+
+    private static float logTf(int count) {
+        return 1 + (float) Math.log(count);
+    }
+
+    private static String encodeCursor(Hit hit) {
+        String raw = hit.score() + "|" + hit.projectId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Hit decodeCursor(String encoded) {
+        if (encoded == null || encoded.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new Hit(Long.parseLong(raw.substring(separator + 1)), Float.parseFloat(raw.substring(0, separator)));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
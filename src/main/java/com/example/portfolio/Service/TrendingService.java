@@ -0,0 +1,251 @@
+package com.example.portfolio.Service;
+
+import com.example.portfolio.Repository.ProjectRepository;
+import com.example.portfolio.dto.ProjectSummary;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Trending projects by exponentially decayed activity.
+ * <p>
+ * A project's score is {@code sum(weight * 2^(-age / halfLife))} over its likes and comments. Every
+ * score decays by the same factor, so the ranking can be kept in "log of score at a fixed epoch" form:
+ * an event adds {@code log(weight) + (t - epoch) * ln2 / halfLife} with log-add-exp, nothing ever has to
+ * be decayed in place, and the values do not overflow. The top {@code portfolio.trending.capacity}
+ * projects are kept ordered in a skip list, so serving the top N is a walk of N entries, and the scores
+ * are checkpointed to {@code trending_scores} so a restart resumes without scanning projects. A checkpoint
+ * only writes the scores that changed since the previous one and deletes the ones forgotten since.
+ */
+@Service
+public class TrendingService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingService.class);
+
+    private static final Instant EPOCH = Instant.parse("2025-01-01T00:00:00Z");
+
+    // Scores that decayed below this are dropped at checkpoints unless they are still in the top K
+    private static final double FORGET_BELOW = Math.log(0.01);
+
+    private record Ranked(long projectId, double logScore) {
+    }
+
+    // An upsert as UPDATE and then INSERT of the rows it missed, which H2 runs as well as PostgreSQL
+    private static final String UPDATE_SCORE = "UPDATE trending_scores SET log_score = ? WHERE project_id = ?";
+    private static final String INSERT_SCORE = "INSERT INTO trending_scores (project_id, log_score) VALUES (?, ?)";
+
+    private static final String DELETE_SCORE = "DELETE FROM trending_scores WHERE project_id = ?";
+
+    private static final Comparator<Ranked> HIGHEST_FIRST = Comparator.comparingDouble(Ranked::logScore).reversed()
+            .thenComparingLong(Ranked::projectId);
+
+    private final ProjectRepository projectRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final double growthPerMilli;
+    private final int capacity;
+    private final double likeWeight;
+    private final double commentWeight;
+
+    private final ConcurrentHashMap<Long, Double> logScores = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Ranked> top = new ConcurrentSkipListSet<>(HIGHEST_FIRST);
+    // Guards changes to the skip list; its size() is a full walk, so the count is kept here
+    private final Object topLock = new Object();
+    private int topSize;
+
+    // Written by the next checkpoint: ids whose score moved, and ids dropped from logScores
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    private final Set<Long> forgotten = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public TrendingService(ProjectRepository projectRepository, JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${portfolio.trending.half-life:24h}") Duration halfLife,
+                           @Value("${portfolio.trending.capacity:1000}") int capacity,
+                           @Value("${portfolio.trending.like-weight:1}") double likeWeight,
+                           @Value("${portfolio.trending.comment-weight:3}") double commentWeight) {
+        this(projectRepository, jdbcTemplate, new TransactionTemplate(transactionManager), Clock.systemUTC(),
+                halfLife, capacity, likeWeight, commentWeight);
+    }
+
+    TrendingService(ProjectRepository projectRepository, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                    Clock clock, Duration halfLife, int capacity, double likeWeight, double commentWeight) {
+        this.projectRepository = projectRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.growthPerMilli = Math.log(2) / halfLife.toMillis();
+        this.capacity = capacity;
+        this.likeWeight = likeWeight;
+        this.commentWeight = commentWeight;
+    }
+
+    @PostConstruct
+    public void loadCheckpoint() {
+        jdbcTemplate.query("SELECT project_id, log_score FROM trending_scores",
+                rs -> { restore(rs.getLong(1), rs.getDouble(2)); });
+        log.info("Restored {} trending scores", logScores.size());
+    }
+
+    public void recordLike(long projectId) {
+        record(projectId, likeWeight);
+    }
+
+    public void recordComment(long projectId) {
+        record(projectId, commentWeight);
+    }
+
+    /** Ids of the {@code limit} highest scoring projects, best first. */
+    public List<Long> topIds(int limit) {
+        List<Long> ids = new ArrayList<>(limit);
+        for (Ranked ranked : top) {
+            if (ids.size() == limit) {
+                break;
+            }
+            ids.add(ranked.projectId());
+        }
+        return ids;
+    }
+
+    public List<ProjectSummary> getTrending(int limit) {
+        return projectRepository.findSummariesInOrder(topIds(limit));
+    }
+
+    /** The decayed score as of now, in event weights. */
+    public double currentScore(long projectId) {
+        Double logScore = logScores.get(projectId);
+        return logScore == null ? 0 : Math.exp(logScore - logNow());
+    }
+
+    @Scheduled(fixedDelayString = "${portfolio.trending.checkpoint-ms:60000}", initialDelayString = "${portfolio.trending.checkpoint-ms:60000}")
+    public void checkpoint() {
+        double forgetBelow = logNow() + FORGET_BELOW;
+        Ranked last = top.isEmpty() ? null : top.last();
+        logScores.forEach((projectId, logScore) -> {
+            if (logScore < forgetBelow && (last == null || HIGHEST_FIRST.compare(new Ranked(projectId, logScore), last) > 0)
+                    && logScores.remove(projectId, logScore)) {
+                forgotten.add(projectId);
+            }
+        });
+
+        List<Object[]> deletes = new ArrayList<>();
+        for (Long projectId : forgotten) {
+            forgotten.remove(projectId);
+            deletes.add(new Object[]{projectId});
+        }
+        // An id is taken out of the set before its score is read, so a later event marks it again
+        List<Object[]> upserts = new ArrayList<>();
+        for (Long projectId : changed) {
+            changed.remove(projectId);
+            Double logScore = logScores.get(projectId);
+            if (logScore != null) {
+                upserts.add(new Object[]{projectId, logScore});
+            }
+        }
+        if (deletes.isEmpty() && upserts.isEmpty()) {
+            return;
+        }
+
+        try {
+            // Deletes first, a project forgotten and then active again in the same interval ends up upserted
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!deletes.isEmpty()) {
+                    jdbcTemplate.batchUpdate(DELETE_SCORE, deletes);
+                }
+                if (!upserts.isEmpty()) {
+                    upsert(upserts);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Retried by the next checkpoint
+            deletes.forEach(row -> forgotten.add((Long) row[0]));
+            upserts.forEach(row -> changed.add((Long) row[0]));
+            throw e;
+        }
+    }
+
+    private void upsert(List<Object[]> rows) {
+        List<Object[]> updates = rows.stream().map(row -> new Object[]{row[1], row[0]}).toList();
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_SCORE, updates);
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (counts[i] == 0) {
+                inserts.add(rows.get(i));
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SCORE, inserts);
+        }
+    }
+
+    @PreDestroy
+    public void checkpointOnShutdown() {
+        try {
+            checkpoint();
+        } catch (RuntimeException e) {
+            log.warn("Failed to checkpoint trending scores on shutdown", e);
+        }
+    }
+
+    private void record(long projectId, double weight) {
+        double contribution = Math.log(weight) + logNow();
+        // compute() serializes updates per project, which keeps the map and the skip list in step
+        logScores.compute(projectId, (id, previous) -> {
+            double updated = previous == null ? contribution : logAddExp(previous, contribution);
+            rerank(id, previous, updated);
+            return updated;
+        });
+        changed.add(projectId);
+    }
+
+    private void restore(long projectId, double logScore) {
+        logScores.compute(projectId, (id, previous) -> {
+            rerank(id, previous, logScore);
+            return logScore;
+        });
+    }
+
+    private void rerank(long projectId, Double previous, double updated) {
+        synchronized (topLock) {
+            if (previous != null && top.remove(new Ranked(projectId, previous))) {
+                topSize--;
+            }
+            Ranked ranked = new Ranked(projectId, updated);
+            if (topSize < capacity) {
+                top.add(ranked);
+                topSize++;
+            } else if (HIGHEST_FIRST.compare(ranked, top.last()) < 0) {
+                top.add(ranked);
+                top.pollLast();
+            }
+        }
+    }
+
+    private double logNow() {
+        return (clock.millis() - EPOCH.toEpochMilli()) * growthPerMilli;
+    }
+
+    private static double logAddExp(double a, double b) {
+        double max = Math.max(a, b);
+        return max + Math.log1p(Math.exp(Math.min(a, b) - max));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.portfolio.Service;
+
+import com.example.portfolio.Repository.PortfolioRepository;
+import com.example.portfolio.Repository.UserRepository;
+import com.example.portfolio.dto.UserSummary;
+import com.example.portfolio.util.NearCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Near cache for the user and portfolio lookups that almost every request makes. Services that change
+ * a user or create a portfolio invalidate the affected entry themselves; the TTL only bounds how long
+ * a change made outside this process can go unseen.
+ */
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final PortfolioRepository portfolioRepository;
+
+    private final NearCache<Long, UserSummary> users;
+    // Optional.empty() is cached too: "this user has no portfolio" is asked as often as the id
+    private final NearCache<Long, Optional<Long>> portfolioIds;
+
+    public UserCache(UserRepository userRepository, PortfolioRepository portfolioRepository,
+                     @Value("${portfolio.cache.users.max-size:10000}") int userCacheSize,
+                     @Value("${portfolio.cache.users.ttl:5m}") Duration userTtl,
+                     @Value("${portfolio.cache.portfolios.max-size:10000}") int portfolioCacheSize,
+                     @Value("${portfolio.cache.portfolios.ttl:5m}") Duration portfolioTtl) {
+        this.userRepository = userRepository;
+        this.portfolioRepository = portfolioRepository;
+        this.users = new NearCache<>("users", userCacheSize, userTtl);
+        this.portfolioIds = new NearCache<>("portfolioIds", portfolioCacheSize, portfolioTtl);
+    }
+
+    public Optional<UserSummary> findUser(long userId) {
+        return Optional.ofNullable(users.get(userId, userRepository::findSummaryById));
+    }
+
+    public UserSummary requireUser(long userId) {
+        return findUser(userId).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+    }
+
+    public Optional<Long> findPortfolioId(long userId) {
+        return portfolioIds.get(userId, portfolioRepository::findIdByUserId);
+    }
+
+    public void invalidateUser(long userId) {
+        invalidate(users, userId);
+    }
+
+    public void invalidatePortfolio(long userId) {
+        invalidate(portfolioIds, userId);
+    }
+
+    public void invalidateAll() {
+        users.invalidateAll();
+        portfolioIds.invalidateAll();
+    }
+
+    public List<NearCache.Stats> stats() {
+        return List.of(users.stats(), portfolioIds.stats());
+    }
+
+    // Once now, and again after commit so a read of the old row in the meantime is not kept
+    private static void invalidate(NearCache<Long, ?> cache, long userId) {
+        cache.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(userId);
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${portfolio.cache.purge-ms:60000}")
+    public void purgeExpired() {
+        users.purgeExpired();
+        portfolioIds.purgeExpired();
+    }
+}
@@ -1,33 +1,61 @@
 package com.example.portfolio.Service;
 
 import com.example.portfolio.Repository.UserRepository;
+import com.example.portfolio.dto.CursorPage;
+import com.example.portfolio.dto.FollowCounts;
+import com.example.portfolio.dto.UserSummary;
 import com.example.portfolio.entity.UserEntity;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.List;
 
 @Service
+@Timed("portfolio.service")
 public class UserService {
 
-    private final UserRepository userRepository;
+    // There is no authentication yet; every request acts as this user
+    private static final long CURRENT_USER_ID = 2L;
 
-    public UserService(UserRepository userRepository) {
+    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final FollowGraph followGraph;
+    private final FeedService feedService;
+    private final MediaStorage mediaStorage;
+    private final MediaIndex mediaIndex;
+    private final ImageVariantService imageVariantService;
+    private final DataSize maxImageSize;
+    private final MediaStorage.Backend imageBackend;
+
+    public UserService(UserRepository userRepository, UserCache userCache, FollowGraph followGraph, FeedService feedService,
+                       MediaStorage mediaStorage, MediaIndex mediaIndex,
+                       ImageVariantService imageVariantService,
+                       @Value("${portfolio.media.max-image-size:10MB}") DataSize maxImageSize,
+                       @Value("${portfolio.media.backend.profile-images:FILES}") MediaStorage.Backend imageBackend) {
         this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.followGraph = followGraph;
+        this.feedService = feedService;
+        this.mediaStorage = mediaStorage;
+        this.mediaIndex = mediaIndex;
+        this.imageVariantService = imageVariantService;
+        this.maxImageSize = maxImageSize;
+        this.imageBackend = imageBackend;
     }
 
     public UserEntity getCurrentUser() {
-        return userRepository.findById(2L).orElseThrow();
+        return userRepository.findById(CURRENT_USER_ID).orElseThrow();
+    }
+
+    public UserSummary currentUser() {
+        return userCache.requireUser(CURRENT_USER_ID);
     }
 
     public String uploadUserImage(Long userId, MultipartFile file) {
@@ -38,6 +66,10 @@ public class UserService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Image file is empty");
         }
 
+        if (file.getSize() > maxImageSize.toBytes()) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "Images can be at most " + maxImageSize.toMegabytes() + "MB");
+        }
+
         String contentType = file.getContentType();
         if (contentType == null || !contentType.startsWith("image/")) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only image files are allowed");
@@ -51,20 +83,15 @@ public class UserService {
         }
 
         try {
-            byte[] fileContent = file.getBytes();
-            String md5Hash = calculateMD5(fileContent);
-            String filename = md5Hash + extension;
-
-            String uploadDir = "resources/media";
-            File dir = new File(uploadDir);
-            if (!dir.exists()) dir.mkdirs();
+            MediaStorage.StagedMedia staged = mediaStorage.stage(file.getInputStream());
+            String imageUrl = mediaIndex.store(staged, extension, imageBackend).url();
 
-            Path filePath = Paths.get(uploadDir, filename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-            String imageUrl = "/media/" + filename;
+            String previousUrl = user.getProfileImageUrl();
             user.setProfileImageUrl(imageUrl);
             userRepository.save(user);
+            userCache.invalidateUser(userId);
+            mediaIndex.release(previousUrl);
+            imageVariantService.generateAsync(imageUrl);
 
             return imageUrl;
 
@@ -80,128 +107,143 @@ public class UserService {
         String imageUrl = user.getProfileImageUrl();
         if (imageUrl == null) return "⚠️ No profile image to delete.";
 
-        try {
-            String filename = imageUrl.replace("/media/", "");
-            Files.deleteIfExists(Paths.get("resources/media", filename));
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to delete image", e);
-        }
-
         user.setProfileImageUrl(null);
         userRepository.save(user);
+        userCache.invalidateUser(userId);
+        mediaIndex.release(imageUrl);
         return "✅ Profile image deleted.";
     }
 
     public String uploadProfileImageForCurrentUser(MultipartFile file) {
-        UserEntity currentUser = getCurrentUser();
-        return uploadUserImage(currentUser.getId(), file);
+        return uploadUserImage(CURRENT_USER_ID, file);
     }
 
     public String deleteProfileImageForCurrentUser() {
-        UserEntity currentUser = getCurrentUser();
-        return deleteUserImage(currentUser.getId());
+        return deleteUserImage(CURRENT_USER_ID);
     }
 
 
 
-    private String calculateMD5(byte[] data) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] hash = md.digest(data);
-            StringBuilder hexString = new StringBuilder();
-
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) hexString.append('0');
-                hexString.append(hex);
-            }
-
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("MD5 algorithm not found", e);
-        }
-    }
-
-
 
 
     public String followUser(Long targetId) {
-        UserEntity me = getCurrentUser();
-        UserEntity target = userRepository.findById(targetId).orElseThrow();
+        UserSummary me = currentUser();
+        String targetName = requireUsername(targetId);
 
-        if (me.getId().equals(targetId)) return "❌ You can't follow yourself.";
+        if (me.id().equals(targetId)) return "❌ You can't follow yourself.";
 
-        if (!userRepository.isFollowing(me.getId(), targetId)) {
-            me.getFollowing().add(target);
-            userRepository.save(me);
-            return "✅ Followed " + target.getUsername();
+        if (followGraph.follow(me.id(), targetId)) {
+            feedService.invalidate(me.id());
+            return "✅ Followed " + targetName;
         }
-        return "⚠️ Already following " + target.getUsername();
+        return "⚠️ Already following " + targetName;
     }
 
     public String unfollowUser(Long targetId) {
-        UserEntity me = getCurrentUser();
-        UserEntity target = userRepository.findById(targetId).orElseThrow();
+        UserSummary me = currentUser();
+        String targetName = requireUsername(targetId);
 
-        if (userRepository.isFollowing(me.getId(), targetId)) {
-            me.getFollowing().remove(target);
-            userRepository.save(me);
-            return "✅ Unfollowed " + target.getUsername();
+        if (followGraph.unfollow(me.id(), targetId)) {
+            feedService.invalidate(me.id());
+            return "✅ Unfollowed " + targetName;
         }
-        return "⚠️ You're not following " + target.getUsername();
+        return "⚠️ You're not following " + targetName;
     }
 
     public String followUserByIds(Long sourceUserId, Long targetUserId) {
         if (sourceUserId.equals(targetUserId)) return "❌ You can't follow yourself.";
 
-        UserEntity source = userRepository.findById(sourceUserId).orElseThrow();
-        UserEntity target = userRepository.findById(targetUserId).orElseThrow();
+        String sourceName = requireUsername(sourceUserId);
+        String targetName = requireUsername(targetUserId);
 
-        if (!userRepository.isFollowing(sourceUserId, targetUserId)) {
-            source.getFollowing().add(target);
-            userRepository.save(source);
-            return "✅ " + source.getUsername() + " followed " + target.getUsername();
+        if (followGraph.follow(sourceUserId, targetUserId)) {
+            feedService.invalidate(sourceUserId);
+            return "✅ " + sourceName + " followed " + targetName;
         }
-        return "⚠️ Already following " + target.getUsername();
+        return "⚠️ Already following " + targetName;
     }
 
     public String unfollowUserByIds(Long sourceUserId, Long targetUserId) {
-        UserEntity source = userRepository.findById(sourceUserId).orElseThrow();
-        UserEntity target = userRepository.findById(targetUserId).orElseThrow();
+        String sourceName = requireUsername(sourceUserId);
+        String targetName = requireUsername(targetUserId);
 
-        if (userRepository.isFollowing(sourceUserId, targetUserId)) {
-            source.getFollowing().remove(target);
-            userRepository.save(source);
-            return "✅ " + source.getUsername() + " unfollowed " + target.getUsername();
+        if (followGraph.unfollow(sourceUserId, targetUserId)) {
+            feedService.invalidate(sourceUserId);
+            return "✅ " + sourceName + " unfollowed " + targetName;
         }
-        return "⚠️ " + source.getUsername() + " is not following " + target.getUsername();
+        return "⚠️ " + sourceName + " is not following " + targetName;
     }
 
 
     public List<UserEntity> getFollowing() {
-        return userRepository.findFollowingOfUser(getCurrentUser().getId());
+        return findUsers(followGraph.followingOf(CURRENT_USER_ID));
     }
 
     public List<UserEntity> getFollowers() {
-        return userRepository.findFollowersOfUser(getCurrentUser().getId());
+        return findUsers(followGraph.followersOf(CURRENT_USER_ID));
     }
 
     public boolean isFollowing(Long userId) {
-        return userRepository.isFollowing(getCurrentUser().getId(), userId);
+        return followGraph.isFollowing(CURRENT_USER_ID, userId);
     }
 
     public List<String> getFollowersByUserId(Long userId) {
-        List<UserEntity> followers = userRepository.findFollowersOfUser(userId);
-        return followers.stream()
-                .map(UserEntity::getUsername)
-                .toList();
+        return followGraph.usernamesOf(followGraph.followersOf(userId));
     }
 
     public List<String> getFollowingByUserId(Long userId) {
-        List<UserEntity> following = userRepository.findFollowingOfUser(userId);
-        return following.stream()
-                .map(UserEntity::getUsername)
-                .toList();
+        return followGraph.usernamesOf(followGraph.followingOf(userId));
+    }
+
+    public FollowCounts getFollowCounts(Long userId) {
+        requireUsername(userId);
+        return new FollowCounts(followGraph.followerCount(userId), followGraph.followingCount(userId));
+    }
+
+    public CursorPage<String> getFollowersPage(Long userId, String after, int size) {
+        requireUsername(userId);
+        return pageOfUsernames(followGraph.followersOf(userId), after, size);
+    }
+
+    public CursorPage<String> getFollowingPage(Long userId, String after, int size) {
+        requireUsername(userId);
+        return pageOfUsernames(followGraph.followingOf(userId), after, size);
+    }
+
+    public CursorPage<String> getMutualFollowsPage(Long userId, String after, int size) {
+        requireUsername(userId);
+        return pageOfUsernames(followGraph.mutualOf(userId), after, size);
+    }
+
+    // Ids come sorted from the graph, so the cursor is simply the last id of the previous page
+    private CursorPage<String> pageOfUsernames(long[] ids, String after, int size) {
+        int pageSize = CursorPage.clampSize(size);
+        int from = 0;
+        if (after != null && !after.isBlank()) {
+            try {
+                int index = Arrays.binarySearch(ids, Long.parseLong(after));
+                from = index >= 0 ? index + 1 : -index - 1;
+            } catch (NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+        int to = Math.min(ids.length, from + pageSize);
+        List<String> usernames = followGraph.usernamesOf(Arrays.copyOfRange(ids, from, to));
+        String nextCursor = to < ids.length ? String.valueOf(ids[to - 1]) : null;
+        return new CursorPage<>(usernames, nextCursor);
+    }
+
+    private List<UserEntity> findUsers(long[] ids) {
+        return userRepository.findAllById(Arrays.stream(ids).boxed().toList());
+    }
+
+    private String requireUsername(Long userId) {
+        String username = followGraph.usernameOf(userId);
+        if (username == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+        return username;
     }
 
-}
\ No newline at end of file
+    public UserEntity createUser(UserEntity user) { return userRepository.save(user); } // LOCAL-ONLY
+}
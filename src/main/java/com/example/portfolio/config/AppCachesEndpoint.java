@@ -0,0 +1,31 @@
+package com.example.portfolio.config;
+
+import com.example.portfolio.Service.ResponseBodyCache;
+import com.example.portfolio.Service.UserCache;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code DELETE /actuator/appcaches} on the management port drops every entry of the user and response
+ * caches, e.g. after editing users directly in the database.
+ */
+@Component
+@Endpoint(id = "appcaches")
+public class AppCachesEndpoint {
+
+    private final UserCache userCache;
+    private final ResponseBodyCache responseBodyCache;
+
+    public AppCachesEndpoint(UserCache userCache, ResponseBodyCache responseBodyCache) {
+        this.userCache = userCache;
+        this.responseBodyCache = responseBodyCache;
+    }
+
+    @DeleteOperation
+    public String clear() {
+        userCache.invalidateAll();
+        responseBodyCache.invalidateAll();
+        return "✅ Caches cleared.";
+    }
+}
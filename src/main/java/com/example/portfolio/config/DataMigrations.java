@@ -0,0 +1,60 @@
+package com.example.portfolio.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Data fixes that {@code ddl-auto: update} cannot do on its own. Every step is idempotent and runs on
+ * each startup, after Hibernate has updated the schema.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DataMigrations implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(DataMigrations.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public DataMigrations(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        backfillProjectCreatedAt();
+        migrateCommentCollection();
+    }
+
+    // Keyset pagination orders by created_at, which older projects never had set
+    private void backfillProjectCreatedAt() {
+        int updated = jdbcTemplate.update("UPDATE project_entity SET created_at = CURRENT_TIMESTAMP WHERE created_at IS NULL");
+        if (updated > 0) {
+            log.info("Backfilled created_at on {} projects", updated);
+        }
+    }
+
+    // Comments used to live in the project_comments element collection; copy them once, then park the old table
+    private void migrateCommentCollection() {
+        Integer legacyTables = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables WHERE LOWER(table_name) = 'project_comments'", Integer.class);
+        if (legacyTables == null || legacyTables == 0) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            int copied = jdbcTemplate.update("INSERT INTO project_comment (project_id, username, text, posted_at) " +
+                    "SELECT project_id, username, text, posted_at FROM project_comments ORDER BY posted_at");
+            jdbcTemplate.execute("ALTER TABLE project_comments RENAME TO project_comments_migrated");
+            log.info("Moved {} comments out of project_comments", copied);
+        });
+    }
+}
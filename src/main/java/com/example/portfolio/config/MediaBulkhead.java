@@ -0,0 +1,117 @@
+package com.example.portfolio.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Separate lane for uploads (multipart and raw chunk bodies). Requests run on virtual threads, so a slow
+ * upload no longer holds one of a fixed number of Tomcat workers; what it does hold is disk and network
+ * bandwidth, so at most {@code max-concurrent} uploads run at once and up to {@code queue-capacity} more
+ * wait their turn. Anything beyond that is turned away with 503 and Retry-After before its body is read.
+ * JSON reads never enter this lane.
+ */
+@Component
+public class MediaBulkhead extends OncePerRequestFilter {
+
+    public record Stats(int maxConcurrent, int active, int queueCapacity, int queued, long rejected) {
+    }
+
+    private final int maxConcurrent;
+    private final int queueCapacity;
+    private final long queueTimeoutNanos;
+    private final long retryAfterSeconds;
+
+    // Fair, so queued uploads are admitted in arrival order
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    public MediaBulkhead(@Value("${portfolio.media.bulkhead.max-concurrent:4}") int maxConcurrent,
+                         @Value("${portfolio.media.bulkhead.queue-capacity:8}") int queueCapacity,
+                         @Value("${portfolio.media.bulkhead.queue-timeout:10s}") Duration queueTimeout,
+                         @Value("${portfolio.media.bulkhead.retry-after:5s}") Duration retryAfter) {
+        this.maxConcurrent = maxConcurrent;
+        this.queueCapacity = queueCapacity;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !isUpload(request.getContentType());
+    }
+
+    static boolean isUpload(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase();
+        return type.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE) || type.startsWith(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!enter()) {
+            reject(response);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean enter() {
+        try {
+            // A zero timeout, unlike tryAcquire(), does not jump ahead of queued uploads
+            if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+            if (queued.incrementAndGet() > queueCapacity) {
+                queued.decrementAndGet();
+                return false;
+            }
+            try {
+                return permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+            } finally {
+                queued.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        rejected.increment();
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        // The body was never read; closing is cheaper than letting Tomcat drain a large upload
+        response.setHeader(HttpHeaders.CONNECTION, "close");
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getOutputStream().write(("⚠️ Too many uploads in progress, try again in " + retryAfterSeconds + " seconds.")
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Stats stats() {
+        return new Stats(maxConcurrent, maxConcurrent - permits.availablePermits(), queueCapacity, queued.get(), rejected.sum());
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.portfolio.config;
+
+import com.example.portfolio.Service.MediaGarbageCollector;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Media collection on the management port: {@code GET /actuator/mediagc} returns the last report and
+ * {@code POST /actuator/mediagc} starts a run in the background, a dry run unless the body is
+ * {@code {"dryRun": false}}. It deletes files, so it is not served on the public port.
+ */
+@Component
+@Endpoint(id = "mediagc")
+public class MediaCollectionEndpoint {
+
+    private final MediaGarbageCollector mediaGarbageCollector;
+
+    public MediaCollectionEndpoint(MediaGarbageCollector mediaGarbageCollector) {
+        this.mediaGarbageCollector = mediaGarbageCollector;
+    }
+
+    @ReadOperation
+    public MediaGarbageCollector.Report lastReport() {
+        return mediaGarbageCollector.getLastReport();
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<String> collect(@Nullable Boolean dryRun) {
+        boolean dry = dryRun == null || dryRun;
+        if (!mediaGarbageCollector.startCollection(dry)) {
+            return new WebEndpointResponse<>("A media collection is already running", HttpStatus.CONFLICT.value());
+        }
+        return new WebEndpointResponse<>(dry ? "✅ Media dry run started." : "✅ Media collection started.",
+                HttpStatus.ACCEPTED.value());
+    }
+}
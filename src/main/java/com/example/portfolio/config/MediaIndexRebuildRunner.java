@@ -0,0 +1,39 @@
+package com.example.portfolio.config;
+
+import com.example.portfolio.Service.MediaIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the media index from resources/media when the app is started with
+ * {@code --rebuild-media-index}, e.g. {@code java -jar app.jar --rebuild-media-index}. Otherwise records
+ * the content hash of files named by another algorithm that have none yet; after the first start that
+ * finds nothing to hash.
+ */
+@Component
+public class MediaIndexRebuildRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaIndexRebuildRunner.class);
+
+    private final MediaIndex mediaIndex;
+
+    public MediaIndexRebuildRunner(MediaIndex mediaIndex) {
+        this.mediaIndex = mediaIndex;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (args.containsOption("rebuild-media-index")) {
+            int indexed = mediaIndex.rebuildFromDisk();
+            log.info("Rebuilt media index with {} files", indexed);
+        } else {
+            int recorded = mediaIndex.backfillContentHashes();
+            if (recorded > 0) {
+                log.info("Recorded content hashes of {} media files named by another algorithm", recorded);
+            }
+        }
+    }
+}
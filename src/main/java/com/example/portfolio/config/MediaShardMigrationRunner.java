@@ -0,0 +1,68 @@
+package com.example.portfolio.config;
+
+import com.example.portfolio.Service.MediaStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Moves media written before the sharded layout out of the flat upload directory, in batches on a
+ * low-priority background thread, so startup does not wait for it and requests keep the disk. Until a
+ * file is moved, {@link MediaStorage#resolve} finds it at its old path.
+ */
+@Component
+public class MediaShardMigrationRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaShardMigrationRunner.class);
+
+    private final MediaStorage mediaStorage;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration batchPause;
+
+    public MediaShardMigrationRunner(MediaStorage mediaStorage,
+                                     @Value("${portfolio.media.shard-migration.enabled:true}") boolean enabled,
+                                     @Value("${portfolio.media.shard-migration.batch-size:500}") int batchSize,
+                                     @Value("${portfolio.media.shard-migration.batch-pause:200ms}") Duration batchPause) {
+        this.mediaStorage = mediaStorage;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::migrate, "media-shard-migration");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    void migrate() {
+        long total = 0;
+        try {
+            int moved;
+            while ((moved = mediaStorage.migrateFlatFiles(batchSize)) > 0) {
+                total += moved;
+                log.info("Moved {} media files into shard directories so far", total);
+                Thread.sleep(batchPause.toMillis());
+            }
+            if (total > 0) {
+                log.info("Media shard migration finished, moved {} files", total);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Media shard migration stopped after {} files; it resumes on the next start", total, e);
+        }
+    }
+}
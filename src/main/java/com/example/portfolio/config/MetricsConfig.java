@@ -0,0 +1,82 @@
+package com.example.portfolio.config;
+
+import com.example.portfolio.Service.ResponseBodyCache;
+import com.example.portfolio.Service.UserCache;
+import com.example.portfolio.util.NearCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Metrics beyond what Spring Boot binds on its own (requests, JVM, pool, Hibernate statistics): per
+ * request statement counts and the in-process caches and upload lane. Service methods are timed by
+ * {@code @Timed} on the service classes; media sizes and write times are recorded where they happen.
+ * Everything is scraped from {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public static BeanPostProcessor statementCountingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof StatementCountingDataSource)) {
+                    return new StatementCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Same names and tags as Micrometer's own cache binders, so stock dashboards work
+    @Bean
+    public MeterBinder cacheMetrics(UserCache userCache, ResponseBodyCache responseBodyCache) {
+        return registry -> {
+            for (NearCache.Stats initial : userCache.stats()) {
+                String name = initial.name();
+                Gauge.builder("cache.size", userCache, cache -> stat(cache, name, NearCache.Stats::size))
+                        .tag("cache", name).register(registry);
+                FunctionCounter.builder("cache.gets", userCache, cache -> stat(cache, name, NearCache.Stats::hits))
+                        .tags("cache", name, "result", "hit").register(registry);
+                FunctionCounter.builder("cache.gets", userCache, cache -> stat(cache, name, NearCache.Stats::misses))
+                        .tags("cache", name, "result", "miss").register(registry);
+                FunctionCounter.builder("cache.evictions", userCache,
+                                cache -> stat(cache, name, stats -> stats.evictions() + stats.expirations()))
+                        .tag("cache", name).register(registry);
+            }
+
+            Gauge.builder("cache.size", responseBodyCache, cache -> cache.stats().entries()).tag("cache", "responses").register(registry);
+            Gauge.builder("portfolio.response-cache.bytes", responseBodyCache, cache -> cache.stats().bytes())
+                    .baseUnit("bytes").register(registry);
+            FunctionCounter.builder("cache.gets", responseBodyCache, cache -> cache.stats().hits())
+                    .tags("cache", "responses", "result", "hit").register(registry);
+            FunctionCounter.builder("cache.gets", responseBodyCache, cache -> cache.stats().misses())
+                    .tags("cache", "responses", "result", "miss").register(registry);
+            FunctionCounter.builder("cache.evictions", responseBodyCache, cache -> cache.stats().evictions())
+                    .tag("cache", "responses").register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder mediaBulkheadMetrics(MediaBulkhead mediaBulkhead) {
+        return registry -> {
+            Gauge.builder("portfolio.media.bulkhead.active", mediaBulkhead, bulkhead -> bulkhead.stats().active())
+                    .description("Uploads streaming right now").register(registry);
+            Gauge.builder("portfolio.media.bulkhead.queued", mediaBulkhead, bulkhead -> bulkhead.stats().queued())
+                    .description("Uploads waiting for a slot").register(registry);
+            FunctionCounter.builder("portfolio.media.bulkhead.rejected", mediaBulkhead, bulkhead -> bulkhead.stats().rejected())
+                    .description("Uploads turned away with 503").register(registry);
+        };
+    }
+
+    private static double stat(UserCache userCache, String name, ToDoubleFunction<NearCache.Stats> field) {
+        return userCache.stats().stream().filter(stats -> stats.name().equals(name)).mapToDouble(field).sum();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.portfolio.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Counts the JDBC statements prepared on the current thread between {@link #startCounting()} and
+ * {@link #stopCounting()}. It wraps the pool rather than hooking into Hibernate, so statements sent
+ * through {@code JdbcTemplate} (likes, follows, bulk writes, search) are counted as well. A batch is
+ * one statement.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    public StatementCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    public static void startCounting() {
+        COUNT.set(new int[1]);
+    }
+
+    /** Statements prepared since {@link #startCounting()}; counting stops until it is started again. */
+    public static int stopCounting() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(super.getConnection(username, password));
+    }
+
+    private static Connection counting(Connection target) {
+        return (Connection) Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "prepareStatement", "prepareCall", "createStatement":
+                            int[] count = COUNT.get();
+                            if (count != null) {
+                                count[0]++;
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
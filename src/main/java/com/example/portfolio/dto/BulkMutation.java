@@ -0,0 +1,13 @@
+package com.example.portfolio.dto;
+
+/** One item of a bulk mutation request; {@code id} is a project id, or a user id for follow operations. */
+public record BulkMutation(Op op, Long id) {
+
+    public enum Op {
+        LIKE, SAVE, UNSAVE, FOLLOW, UNFOLLOW;
+
+        public boolean targetsProject() {
+            return this == LIKE || this == SAVE || this == UNSAVE;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.portfolio.dto;
+
+/** Outcome of one {@link BulkMutation}, in the position of the request item it answers. */
+public record BulkResult(BulkMutation.Op op, Long id, Status status) {
+
+    public enum Status {
+        /** The mutation changed something. */
+        APPLIED,
+        /** Already in the requested state, e.g. a second like. */
+        UNCHANGED,
+        NOT_FOUND,
+        /** Missing op or id, or following yourself. */
+        INVALID
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.portfolio.dto;
+
+/**
+ * Aggregate of a set of projects that changes whenever one of them is added, removed, edited or liked
+ * (each of which bumps the project's version), or gets a comment. Cheap to read from the project and
+ * comment indexes, so list ETags can be checked without loading the list.
+ */
+public record ContentStamp(Long projects, Long versions, Long lastProjectId, Long comments) {
+}
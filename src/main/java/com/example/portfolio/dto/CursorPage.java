@@ -0,0 +1,27 @@
+package com.example.portfolio.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/** One page of a keyset-paginated list; {@code nextCursor} is {@code null} on the last page. */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    /**
+     * Builds a page from a query that fetched {@code size + 1} rows; the extra row only tells us that
+     * there is a next page.
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int size, Function<T, Cursor> cursorOf) {
+        if (fetched.size() <= size) {
+            return new CursorPage<>(fetched, null);
+        }
+        List<T> items = fetched.subList(0, size);
+        return new CursorPage<>(List.copyOf(items), cursorOf.apply(items.get(size - 1)).encode());
+    }
+}
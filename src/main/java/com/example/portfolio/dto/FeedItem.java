@@ -0,0 +1,22 @@
+package com.example.portfolio.dto;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/** A project's place in a home feed: just enough to order, page and later render it. */
+public record FeedItem(Long projectId, Long authorId, LocalDateTime createdAt) {
+
+    /** Same order as the project lists: {@code (createdAt DESC, id DESC)}. */
+    public static final Comparator<FeedItem> NEWEST_FIRST = Comparator.comparing(FeedItem::createdAt)
+            .thenComparing(FeedItem::projectId)
+            .reversed();
+
+    public Cursor cursor() {
+        return new Cursor(createdAt, projectId);
+    }
+
+    /** A probe that sorts right where the cursor points, for tailSet/headSet lookups. */
+    public static FeedItem at(Cursor cursor) {
+        return new FeedItem(cursor.id(), null, cursor.createdAt());
+    }
+}
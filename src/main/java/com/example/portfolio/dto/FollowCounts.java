@@ -0,0 +1,4 @@
+package com.example.portfolio.dto;
+
+public record FollowCounts(int followers, int following) {
+}
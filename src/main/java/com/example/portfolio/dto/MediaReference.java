@@ -0,0 +1,7 @@
+package com.example.portfolio.dto;
+
+/**
+ * A media URL stored on a project or user row, read in id order by the media garbage collector.
+ */
+public record MediaReference(Long ownerId, String url) {
+}
@@ -0,0 +1,7 @@
+package com.example.portfolio.dto;
+
+import java.util.List;
+
+/** A portfolio with its projects as summaries, read in two queries regardless of the project count. */
+public record PortfolioView(Long id, List<ProjectSummary> projects) {
+}
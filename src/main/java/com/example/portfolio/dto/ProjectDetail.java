@@ -0,0 +1,50 @@
+package com.example.portfolio.dto;
+
+import com.example.portfolio.Service.ImageVariant;
+import com.example.portfolio.entity.ProjectEntity;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Single-project view. Built from a {@link ProjectEntity} whose owner was fetched with it, so serializing
+ * it never touches the database. Comments are paged separately, so the view depends only on the
+ * project row and its version.
+ */
+public record ProjectDetail(
+        Long id,
+        String title,
+        String description,
+        String githubLink,
+        String imageUrl,
+        String videoUrl,
+        int likes,
+        Integer version,
+        LocalDateTime createdAt,
+        String createdByUsername) {
+
+    public static ProjectDetail from(ProjectEntity project) {
+        return from(project, project.getCreatedByUsername());
+    }
+
+    /** For a project whose owner is already known, so the portfolio and user need not be loaded. */
+    public static ProjectDetail from(ProjectEntity project, String createdByUsername) {
+        return new ProjectDetail(
+                project.getId(),
+                project.getTitle(),
+                project.getDescription(),
+                project.getGithubLink(),
+                project.getImageUrl(),
+                project.getVideoUrl(),
+                project.getLikes(),
+                project.getVersion(),
+                project.getCreatedAt(),
+                createdByUsername);
+    }
+
+    @JsonProperty("imageVariants")
+    public Map<String, String> imageVariants() {
+        return ImageVariant.urlsFor(imageUrl);
+    }
+}
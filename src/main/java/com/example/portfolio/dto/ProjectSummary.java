@@ -0,0 +1,33 @@
+package com.example.portfolio.dto;
+
+import com.example.portfolio.Service.ImageVariant;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * List view of a project: the project's own columns plus its owner's username and comment count, read
+ * in one query without loading comments or the portfolio graph.
+ */
+public record ProjectSummary(
+        Long id,
+        String title,
+        String description,
+        String githubLink,
+        String imageUrl,
+        String videoUrl,
+        Integer likes,
+        LocalDateTime createdAt,
+        String createdByUsername,
+        Long commentCount) {
+
+    @JsonProperty("imageVariants")
+    public Map<String, String> imageVariants() {
+        return ImageVariant.urlsFor(imageUrl);
+    }
+
+    public Cursor cursor() {
+        return new Cursor(createdAt, id);
+    }
+}
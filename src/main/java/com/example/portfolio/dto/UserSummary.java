@@ -0,0 +1,5 @@
+package com.example.portfolio.dto;
+
+/** The columns of a user that requests need on almost every call; cached by {@code UserCache}. */
+public record UserSummary(Long id, String username, String name, String surname, String profileImageUrl) {
+}
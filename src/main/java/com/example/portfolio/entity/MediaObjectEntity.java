@@ -0,0 +1,36 @@
+package com.example.portfolio.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "media_objects")
+public class MediaObjectEntity {
+
+    // Content hash, which is also the file name without the extension
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    private String extension;
+
+    // Hash of the content under the configured algorithm when the file is named by another, e.g. an MD5
+    // name from before the switch; uploads are matched against it so they keep reusing the old file
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    private long size;
+
+    @Column(name = "ref_count")
+    private int refCount;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public String getFilename() {
+        return hash + extension;
+    }
+}
@@ -1,14 +1,33 @@
 package com.example.portfolio.entity;
 
-import jakarta.persistence.Embeddable;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
+// Append-only: a comment is one INSERT and never rewrites the project row or its other comments
 @Data
-@Embeddable
+@Entity
+@Table(indexes = @Index(name = "idx_comment_project_posted", columnList = "project_id, posted_at, id"))
 public class ProjectComment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "project_id")
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private ProjectEntity project;
+
     private String username;
     private String text;
+
+    @Column(name = "posted_at")
     private LocalDateTime postedAt;
-}
\ No newline at end of file
+}
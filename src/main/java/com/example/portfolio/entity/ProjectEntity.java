@@ -1,16 +1,17 @@
 package com.example.portfolio.entity;
 
+import com.example.portfolio.Service.ImageVariant;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
 
 @Data
 @Entity
+@Table(indexes = @Index(name = "idx_project_portfolio_created", columnList = "portfolio_id, created_at, id"))
 public class ProjectEntity {
 
     @Id
@@ -45,10 +46,12 @@ public class ProjectEntity {
     @JsonIgnore
     private PortfolioEntity portfolio;
 
-    @ElementCollection
-    @CollectionTable(name = "project_comments", joinColumns = @JoinColumn(name = "project_id"))
-    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
-    private List<ProjectComment> comments = new ArrayList<>();
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
 
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     public String getCreatedByUsername() {
@@ -57,4 +60,9 @@ public class ProjectEntity {
         }
         return null;
     }
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public Map<String, String> getImageVariants() {
+        return ImageVariant.urlsFor(imageUrl);
+    }
 }
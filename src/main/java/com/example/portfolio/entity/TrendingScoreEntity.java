@@ -0,0 +1,18 @@
+package com.example.portfolio.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+// Checkpoint of TrendingService; written and read in bulk with JDBC
+@Data
+@Entity
+@Table(name = "trending_scores")
+public class TrendingScoreEntity {
+
+    @Id
+    @Column(name = "project_id")
+    private Long projectId;
+
+    @Column(name = "log_score")
+    private double logScore;
+}
@@ -1,11 +1,14 @@
 package com.example.portfolio.entity;
 
+import com.example.portfolio.Service.ImageVariant;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Entity
@@ -40,10 +43,17 @@ public class UserEntity {
     private List<UserEntity> followers = new ArrayList<>();
 
     @ManyToMany
+    @JsonIgnore
     @JoinTable(name = "users_liked_projects", joinColumns = @JoinColumn(name = "user_entity_id"), inverseJoinColumns = @JoinColumn(name = "liked_projects_id"))
     private List<ProjectEntity> likedProjects = new ArrayList<>();
 
     @ManyToMany
+    @JsonIgnore
     @JoinTable(name = "users_saved_projects", joinColumns = @JoinColumn(name = "user_id"), inverseJoinColumns = @JoinColumn(name = "project_id"))
     private List<ProjectEntity> savedProjects = new ArrayList<>();
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public Map<String, String> getProfileImageVariants() {
+        return ImageVariant.urlsFor(profileImageUrl);
+    }
 }
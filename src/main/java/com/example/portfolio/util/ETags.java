@@ -0,0 +1,22 @@
+package com.example.portfolio.util;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.StringJoiner;
+
+/** Strong entity tags derived from what a response is built from, rather than from its serialized body. */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /** A quoted tag that changes whenever any of {@code parts} does; {@code null} parts are allowed. */
+    public static String of(Object... parts) {
+        StringJoiner key = new StringJoiner("|");
+        for (Object part : parts) {
+            key.add(String.valueOf(part));
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
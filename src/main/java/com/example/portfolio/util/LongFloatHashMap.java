@@ -0,0 +1,149 @@
+package com.example.portfolio.util;
+
+/**
+ * Map from positive {@code long} keys to {@code float} values in two open-addressing arrays, without
+ * boxing. Same layout and rules as {@link LongHashSet}: zero marks a free slot, removal shifts entries
+ * back, and the class is not thread-safe.
+ */
+public final class LongFloatHashMap {
+
+    private static final int MIN_CAPACITY = 4;
+
+    @FunctionalInterface
+    public interface Visitor {
+        void accept(long key, float value);
+    }
+
+    private long[] keys;
+    private float[] values;
+    private int size;
+
+    public LongFloatHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongFloatHashMap(int expectedSize) {
+        int capacity = capacityFor(expectedSize);
+        keys = new long[capacity];
+        values = new float[capacity];
+    }
+
+    /** Adds {@code delta} to the key's value, inserting it at zero first; returns the new value. */
+    public float add(long key, float delta) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Only positive keys can be stored: " + key);
+        }
+        if ((size + 1) * 4L > keys.length * 3L) {
+            rehash(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int i = indexOf(key, mask);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                return values[i] += delta;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = delta;
+        size++;
+        return delta;
+    }
+
+    /** The key's value, or {@code 0} if it is absent. */
+    public float get(long key) {
+        int slot = slotOf(key);
+        return slot < 0 ? 0 : values[slot];
+    }
+
+    public boolean containsKey(long key) {
+        return slotOf(key) >= 0;
+    }
+
+    public boolean remove(long key) {
+        int i = slotOf(key);
+        if (i < 0) {
+            return false;
+        }
+        int mask = keys.length - 1;
+        int hole = i;
+        int j = (i + 1) & mask;
+        while (keys[j] != 0) {
+            int home = indexOf(keys[j], mask);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+            j = (j + 1) & mask;
+        }
+        keys[hole] = 0;
+        values[hole] = 0;
+        size--;
+        if (keys.length > MIN_CAPACITY && size * 8L < keys.length) {
+            rehash(capacityFor(size));
+        }
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                visitor.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private int slotOf(long key) {
+        if (key <= 0) {
+            return -1;
+        }
+        int mask = keys.length - 1;
+        int i = indexOf(key, mask);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        float[] oldValues = values;
+        keys = new long[capacity];
+        values = new float[capacity];
+        int mask = capacity - 1;
+        for (int k = 0; k < oldKeys.length; k++) {
+            if (oldKeys[k] != 0) {
+                int i = indexOf(oldKeys[k], mask);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[k];
+                values[i] = oldValues[k];
+            }
+        }
+    }
+
+    private static int indexOf(long key, int mask) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3L < expectedSize * 4L) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
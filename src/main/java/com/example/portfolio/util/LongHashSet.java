@@ -0,0 +1,150 @@
+package com.example.portfolio.util;
+
+import java.util.Arrays;
+
+/**
+ * Set of positive {@code long}s in a single open-addressing array, without boxing. Zero marks a free
+ * slot, so zero and negative values cannot be stored; database ids are always positive.
+ * <p>
+ * Not thread-safe. Removal shifts the following entries back instead of leaving tombstones, so lookups
+ * never slow down after many follow/unfollow cycles.
+ */
+public final class LongHashSet {
+
+    private static final int MIN_CAPACITY = 4;
+
+    private long[] slots;
+    private int size;
+
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongHashSet(int expectedSize) {
+        slots = new long[capacityFor(expectedSize)];
+    }
+
+    public boolean add(long value) {
+        checkValue(value);
+        if ((size + 1) * 4L > slots.length * 3L) {
+            rehash(slots.length * 2);
+        }
+        int mask = slots.length - 1;
+        int i = indexOf(value, mask);
+        while (slots[i] != 0) {
+            if (slots[i] == value) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        slots[i] = value;
+        size++;
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value <= 0) {
+            return false;
+        }
+        int mask = slots.length - 1;
+        int i = indexOf(value, mask);
+        while (slots[i] != 0) {
+            if (slots[i] == value) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    public boolean remove(long value) {
+        if (value <= 0) {
+            return false;
+        }
+        int mask = slots.length - 1;
+        int i = indexOf(value, mask);
+        while (slots[i] != value) {
+            if (slots[i] == 0) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        // Backward-shift deletion: pull later entries of the probe run into the hole
+        int hole = i;
+        int j = (i + 1) & mask;
+        while (slots[j] != 0) {
+            int home = indexOf(slots[j], mask);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                slots[hole] = slots[j];
+                hole = j;
+            }
+            j = (j + 1) & mask;
+        }
+        slots[hole] = 0;
+        size--;
+        if (slots.length > MIN_CAPACITY && size * 8L < slots.length) {
+            rehash(capacityFor(size));
+        }
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** The values in ascending order. */
+    public long[] toSortedArray() {
+        long[] values = new long[size];
+        int n = 0;
+        for (long slot : slots) {
+            if (slot != 0) {
+                values[n++] = slot;
+            }
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    /** Approximate heap footprint in bytes: object header and fields plus the slot array. */
+    public long estimatedBytes() {
+        return 24 + 16 + slots.length * 8L;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = slots;
+        slots = new long[capacity];
+        int mask = capacity - 1;
+        for (long value : old) {
+            if (value != 0) {
+                int i = indexOf(value, mask);
+                while (slots[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                slots[i] = value;
+            }
+        }
+    }
+
+    private static int indexOf(long value, int mask) {
+        // Fibonacci hashing spreads sequential ids across the table
+        return (int) ((value * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3L < expectedSize * 4L) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static void checkValue(long value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Only positive values can be stored: " + value);
+        }
+    }
+}
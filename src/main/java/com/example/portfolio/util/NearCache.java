@@ -0,0 +1,122 @@
+package com.example.portfolio.util;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Small in-process read-through cache with a size bound (least recently used entries go first) and a
+ * time to live. Values are loaded outside the lock; a load that raced with an invalidation is returned
+ * to its caller but not stored, so an invalidation after a write is never undone by an older read.
+ */
+public final class NearCache<K, V> {
+
+    public record Stats(String name, int size, int maxSize, long hits, long misses, long evictions, long expirations) {
+
+        @JsonProperty("hitRate")
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public NearCache(String name, int maxSize, Duration ttl) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > NearCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** The cached value, or the loader's result; {@code null} results are not cached. */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt() - now > 0) {
+                    hits.increment();
+                    return entry.value();
+                }
+                entries.remove(key);
+                expirations.increment();
+            }
+        }
+        misses.increment();
+
+        long generation = invalidations.get();
+        V value = loader.apply(key);
+        if (value != null) {
+            synchronized (entries) {
+                if (invalidations.get() == generation) {
+                    entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+                }
+            }
+        }
+        return value;
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            invalidations.incrementAndGet();
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            invalidations.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    /** Drops expired entries; lookups do this lazily, so this only keeps memory down between them. */
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Iterator<Entry<V>> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().expiresAt() - now <= 0) {
+                    iterator.remove();
+                    expirations.increment();
+                }
+            }
+        }
+    }
+
+    public Stats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new Stats(name, size, maxSize, hits.sum(), misses.sum(), evictions.sum(), expirations.sum());
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.portfolio;
+
+import com.example.portfolio.Repository.CommentRepository;
+import com.example.portfolio.Repository.PortfolioRepository;
+import com.example.portfolio.Repository.ProjectRepository;
+import com.example.portfolio.Repository.UserRepository;
+import com.example.portfolio.entity.PortfolioEntity;
+import com.example.portfolio.entity.ProjectComment;
+import com.example.portfolio.entity.ProjectEntity;
+import com.example.portfolio.entity.UserEntity;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Fails when a read endpoint goes back to loading comments or owners per project, or when a conditional
+ * GET stops short-circuiting. The budget is fixed, so it holds no matter how many projects and comments
+ * are seeded.
+ */
+@H2Test
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-budget;" + H2Test.URL_OPTIONS,
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTests {
+
+    private static final int QUERY_BUDGET = 3;
+    private static final int PROJECTS = 25;
+    private static final int COMMENTS_PER_PROJECT = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private Long ownerId;
+    private Long projectId;
+
+    @BeforeAll
+    void seed() {
+        UserEntity owner = new UserEntity();
+        owner.setUsername("owner");
+        owner = userRepository.save(owner);
+        ownerId = owner.getId();
+
+        PortfolioEntity portfolio = new PortfolioEntity();
+        portfolio.setUser(owner);
+        portfolio = portfolioRepository.save(portfolio);
+
+        List<ProjectEntity> projects = new ArrayList<>();
+        for (int i = 0; i < PROJECTS; i++) {
+            ProjectEntity project = new ProjectEntity();
+            project.setTitle("Project " + i);
+            project.setPortfolio(portfolio);
+            projects.add(project);
+        }
+        projects = projectRepository.saveAll(projects);
+        projectId = projects.get(0).getId();
+
+        List<ProjectComment> comments = new ArrayList<>();
+        for (ProjectEntity project : projects) {
+            for (int c = 0; c < COMMENTS_PER_PROJECT; c++) {
+                ProjectComment comment = new ProjectComment();
+                comment.setProject(project);
+                comment.setUsername("viewer");
+                comment.setText("Comment " + c);
+                comment.setPostedAt(LocalDateTime.now());
+                comments.add(comment);
+            }
+        }
+        commentRepository.saveAll(comments);
+
+        // The current user is hard-wired to id 2 and has saved every project
+        UserEntity viewer = new UserEntity();
+        viewer.setUsername("viewer");
+        viewer.getSavedProjects().addAll(projects);
+        assertThat(userRepository.save(viewer).getId()).isEqualTo(2L);
+    }
+
+    @Test
+    void projectDetail() throws Exception {
+        assertWithinBudget("/api/v1/projects/project/" + projectId);
+    }
+
+    @Test
+    void projectComments() throws Exception {
+        assertWithinBudget("/api/v1/projects/project/" + projectId + "/comments");
+    }
+
+    @Test
+    void portfolioOfUser() throws Exception {
+        assertWithinBudget("/api/v1/portfolio/portfolio/" + ownerId);
+    }
+
+    @Test
+    void projectsOfUser() throws Exception {
+        assertWithinBudget("/api/v1/projects/getProjects/" + ownerId + "?size=100");
+    }
+
+    @Test
+    void savedProjects() throws Exception {
+        assertWithinBudget("/api/v1/projects/savedProjects?size=100");
+    }
+
+    @Test
+    void unchangedResourcesAreNotModified() throws Exception {
+        assertNotModified("/api/v1/projects/project/" + projectId);
+        assertNotModified("/api/v1/portfolio/portfolio/" + ownerId);
+        assertNotModified("/api/v1/projects/getProjects/" + ownerId + "?size=10");
+    }
+
+    @Test
+    void newCommentChangesListETag() throws Exception {
+        String url = "/api/v1/portfolio/portfolio/" + ownerId;
+        String etag = mockMvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        ProjectComment comment = new ProjectComment();
+        comment.setProject(projectRepository.getReferenceById(projectId));
+        comment.setUsername("viewer");
+        comment.setText("One more");
+        comment.setPostedAt(LocalDateTime.now());
+        commentRepository.save(comment);
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    // A matching If-None-Match is answered from the version stamp alone, before the body is loaded
+    private void assertNotModified(String url) throws Exception {
+        String etag = mockMvc.perform(get(url)).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).as("ETag of GET %s", url).isNotNull();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        assertThat(statistics.getPrepareStatementCount())
+                .as("statements for conditional GET %s", url)
+                .isLessThanOrEqualTo(1);
+    }
+
+    private void assertWithinBudget(String url) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount())
+                .as("statements for GET %s", url)
+                .isLessThanOrEqualTo(QUERY_BUDGET);
+    }
+}
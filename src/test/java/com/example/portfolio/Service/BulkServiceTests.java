@@ -0,0 +1,175 @@
+package com.example.portfolio.Service;
+
+import com.example.portfolio.H2Test;
+import com.example.portfolio.Repository.ProjectRepository;
+import com.example.portfolio.config.StatementCountingDataSource;
+import com.example.portfolio.dto.BulkMutation;
+import com.example.portfolio.dto.BulkMutation.Op;
+import com.example.portfolio.dto.BulkResult;
+import com.example.portfolio.dto.BulkResult.Status;
+import com.example.portfolio.dto.UserSummary;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@H2Test
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:bulk;" + H2Test.URL_OPTIONS)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BulkServiceTests {
+
+    private static final long ME = 2L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    private FeedService feedService;
+    private FollowGraph followGraph;
+    private BulkService bulkService;
+
+    // Users 1-5 and projects 10-14
+    @BeforeAll
+    void seed() {
+        for (long userId = 1; userId <= 5; userId++) {
+            jdbcTemplate.update("INSERT INTO users (id, username) VALUES (?, ?)", userId, "user" + userId);
+        }
+        for (long projectId = 10; projectId < 15; projectId++) {
+            jdbcTemplate.update("INSERT INTO project_entity (id, title, likes, version) VALUES (?, ?, 0, 0)",
+                    projectId, "Project " + projectId);
+        }
+    }
+
+    // The current user has saved 12, liked 11 and follows 4
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM users_saved_projects");
+        jdbcTemplate.update("DELETE FROM users_liked_projects");
+        jdbcTemplate.update("DELETE FROM user_following");
+        jdbcTemplate.update("INSERT INTO users_saved_projects (user_id, project_id) VALUES (?, 12)", ME);
+        jdbcTemplate.update("INSERT INTO users_liked_projects (user_entity_id, liked_projects_id) VALUES (?, 11)", ME);
+        jdbcTemplate.update("INSERT INTO user_following (follower_id, followed_id) VALUES (?, 4)", ME);
+
+        followGraph = new FollowGraph(jdbcTemplate);
+        followGraph.loadFromDatabase();
+
+        feedService = mock(FeedService.class);
+        UserCache userCache = mock(UserCache.class);
+        when(userCache.requireUser(anyLong())).thenReturn(new UserSummary(ME, "user2", null, null, null));
+        LikeBuffer likeBuffer = new LikeBuffer(projectRepository, jdbcTemplate, transactionManager,
+                10_000, Duration.ofMinutes(30));
+
+        bulkService = new BulkService(jdbcTemplate, transactionManager, projectRepository, userCache,
+                likeBuffer, mock(TrendingService.class), followGraph, feedService);
+    }
+
+    @Test
+    void everyItemGetsItsOwnResultInRequestOrder() {
+        List<BulkResult> results = bulkService.apply(List.of(
+                new BulkMutation(Op.LIKE, 10L),
+                new BulkMutation(Op.LIKE, 11L),
+                new BulkMutation(Op.LIKE, 99L),
+                new BulkMutation(Op.SAVE, 10L),
+                new BulkMutation(Op.SAVE, 12L),
+                new BulkMutation(Op.UNSAVE, 12L),
+                new BulkMutation(Op.UNSAVE, 13L),
+                new BulkMutation(Op.FOLLOW, 3L),
+                new BulkMutation(Op.FOLLOW, 4L),
+                new BulkMutation(Op.FOLLOW, ME),
+                new BulkMutation(Op.FOLLOW, 42L),
+                new BulkMutation(null, 1L)));
+
+        assertThat(results).extracting(BulkResult::status).containsExactly(
+                Status.APPLIED, Status.UNCHANGED, Status.NOT_FOUND,
+                Status.APPLIED, Status.UNCHANGED, Status.APPLIED, Status.UNCHANGED,
+                Status.APPLIED, Status.UNCHANGED, Status.INVALID, Status.NOT_FOUND, Status.INVALID);
+        assertThat(results.get(2).id()).isEqualTo(99L);
+        assertThat(followGraph.isFollowing(ME, 3)).isTrue();
+        assertThat(savedProjects()).containsExactly(10L);
+        assertThat(followedUsers()).containsExactlyInAnyOrder(3L, 4L);
+        verify(feedService).invalidate(ME);
+    }
+
+    @Test
+    void writesAreOneBatchPerKind() {
+        StatementCountingDataSource.startCounting();
+        bulkService.apply(List.of(
+                new BulkMutation(Op.SAVE, 10L),
+                new BulkMutation(Op.SAVE, 11L),
+                new BulkMutation(Op.UNSAVE, 12L),
+                new BulkMutation(Op.FOLLOW, 1L),
+                new BulkMutation(Op.FOLLOW, 3L),
+                new BulkMutation(Op.UNFOLLOW, 4L)));
+
+        // Existing projects, saved state, and one batch each for saves, unsaves, follows and unfollows
+        assertThat(StatementCountingDataSource.stopCounting()).isEqualTo(6);
+        assertThat(savedProjects()).containsExactlyInAnyOrder(10L, 11L);
+        assertThat(followedUsers()).containsExactlyInAnyOrder(1L, 3L);
+    }
+
+    @Test
+    void laterItemsSeeEarlierOnes() {
+        List<BulkResult> results = bulkService.apply(List.of(
+                new BulkMutation(Op.FOLLOW, 3L),
+                new BulkMutation(Op.UNFOLLOW, 3L),
+                new BulkMutation(Op.SAVE, 10L),
+                new BulkMutation(Op.UNSAVE, 10L)));
+
+        assertThat(results).extracting(BulkResult::status).containsOnly(Status.APPLIED);
+        // Nothing changed in the end, so nothing is written
+        assertThat(savedProjects()).containsExactly(12L);
+        assertThat(followedUsers()).containsExactly(4L);
+        assertThat(followGraph.isFollowing(ME, 3)).isFalse();
+        verify(feedService, never()).invalidate(anyLong());
+    }
+
+    @Test
+    void followStateIsReadFromTheGraph() {
+        Map<Long, Boolean> following = bulkService.getFollowing(List.of(4L, 3L));
+
+        assertThat(following).containsExactly(Map.entry(4L, true), Map.entry(3L, false));
+    }
+
+    @Test
+    void requestsAreCapped() {
+        List<BulkMutation> tooMany = new ArrayList<>();
+        for (long id = 0; id <= BulkService.MAX_ITEMS; id++) {
+            tooMany.add(new BulkMutation(Op.LIKE, id));
+        }
+
+        assertThatThrownBy(() -> bulkService.apply(tooMany)).isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> bulkService.getProjects(List.of())).isInstanceOf(ResponseStatusException.class);
+        assertThat(savedProjects()).containsExactly(12L);
+    }
+
+    private List<Long> savedProjects() {
+        return jdbcTemplate.queryForList("SELECT project_id FROM users_saved_projects WHERE user_id = ?", Long.class, ME);
+    }
+
+    private List<Long> followedUsers() {
+        return jdbcTemplate.queryForList("SELECT followed_id FROM user_following WHERE follower_id = ?", Long.class, ME);
+    }
+}
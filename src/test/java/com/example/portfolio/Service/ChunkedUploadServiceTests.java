@@ -0,0 +1,110 @@
+package com.example.portfolio.Service;
+
+import com.example.portfolio.Repository.ProjectRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChunkedUploadServiceTests {
+
+    @TempDir
+    Path uploadDir;
+
+    private final ContentHasher contentHasher = new ContentHasher(ContentHasher.Algorithm.SHA_256, 1, false);
+    private final ProjectRepository projectRepository = mock(ProjectRepository.class);
+    private PackStore packStore;
+    private ChunkedUploadService uploads;
+
+    @BeforeEach
+    void setUp() {
+        packStore = new PackStore(uploadDir.toString(), DataSize.ofMegabytes(1), DataSize.ofKilobytes(64), 0.5, 600_000);
+        MediaStorage mediaStorage = new MediaStorage(contentHasher, packStore, new SimpleMeterRegistry(), uploadDir.toString());
+        // Projects 1 and 2 belong to user 10, project 3 to user 20
+        when(projectRepository.findOwnerIdById(1L)).thenReturn(Optional.of(10L));
+        when(projectRepository.findOwnerIdById(2L)).thenReturn(Optional.of(10L));
+        when(projectRepository.findOwnerIdById(3L)).thenReturn(Optional.of(20L));
+        uploads = new ChunkedUploadService(projectRepository, mediaStorage, mock(MediaIndex.class), contentHasher,
+                DataSize.ofMegabytes(1), Duration.ofMinutes(30), 3, 2);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        uploads.discardAll();
+        packStore.close();
+        contentHasher.shutdown();
+    }
+
+    @Test
+    void onlyVideoExtensionsAreAccepted() {
+        assertThatThrownBy(() -> initiate(1L, "clip.html"))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        assertThat(initiate(1L, "Clip.MP4").sessionId()).isNotNull();
+    }
+
+    @Test
+    void videoExtensionsAreCleanedAndLowerCased() {
+        assertThat(ChunkedUploadService.videoExtensionOf("Holiday.MOV")).isEqualTo(".mov");
+        assertThat(ChunkedUploadService.videoExtensionOf("clips\\trip.webm")).isEqualTo(".webm");
+        for (String name : new String[]{"clip.mp4/../../../app.jar", "../clip.jsp", "clip", "", null}) {
+            assertThatThrownBy(() -> ChunkedUploadService.videoExtensionOf(name))
+                    .isInstanceOfSatisfying(ResponseStatusException.class, e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        }
+    }
+
+    @Test
+    void sessionsAreCappedPerUserAndInTotal() {
+        initiate(1L, "a.mp4");
+        String second = initiate(2L, "b.mp4").sessionId();
+        assertThatThrownBy(() -> initiate(1L, "c.mp4"))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+
+        initiate(3L, "d.mp4");
+        assertThatThrownBy(() -> initiate(3L, "e.mp4"))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+
+        // Aborting gives the slot back
+        uploads.abort(second);
+        assertThat(initiate(1L, "f.mp4").sessionId()).isNotNull();
+    }
+
+    @Test
+    void receivedBytesCannotBeWrittenAgain() {
+        String sessionId = uploads.initiate(1L, "a.mp4", "video/mp4", 200).sessionId();
+        uploads.writeChunk(sessionId, 0, new ByteArrayInputStream(new byte[100]));
+        uploads.writeChunk(sessionId, 150, new ByteArrayInputStream(new byte[50]));
+
+        // Inside the hashed prefix, and running from a gap into a received range
+        assertConflict(() -> uploads.writeChunk(sessionId, 50, new ByteArrayInputStream(new byte[10])));
+        assertConflict(() -> uploads.writeChunk(sessionId, 120, new ByteArrayInputStream(new byte[50])));
+        assertConflict(() -> uploads.complete(sessionId));
+
+        ChunkedUploadService.UploadStatus status = uploads.writeChunk(sessionId, 100, new ByteArrayInputStream(new byte[50]));
+        assertThat(status.receivedBytes()).isEqualTo(200);
+        assertThat(status.receivedRanges()).containsExactly(new long[]{0, 200});
+    }
+
+    private static void assertConflict(ThrowingCallable call) {
+        assertThatThrownBy(call)
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+    }
+
+    private ChunkedUploadService.UploadStatus initiate(long projectId, String filename) {
+        return uploads.initiate(projectId, filename, "video/mp4", 1024);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.portfolio.Service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentHasherTests {
+
+    private static final int LEAF = ContentHasher.LEAF_SIZE;
+
+    @TempDir
+    Path dir;
+
+    private final ContentHasher tree = new ContentHasher(ContentHasher.Algorithm.SHA_256_TREE, 4, false);
+
+    @AfterEach
+    void tearDown() {
+        tree.shutdown();
+    }
+
+    @Test
+    void treeHashCombinesLeavesPairwise() throws Exception {
+        byte[] content = randomBytes(2 * LEAF + 12345);
+        byte[] leaf0 = sha256(new byte[]{0}, Arrays.copyOfRange(content, 0, LEAF));
+        byte[] leaf1 = sha256(new byte[]{0}, Arrays.copyOfRange(content, LEAF, 2 * LEAF));
+        byte[] leaf2 = sha256(new byte[]{0}, Arrays.copyOfRange(content, 2 * LEAF, content.length));
+        byte[] root = sha256(new byte[]{1}, sha256(new byte[]{1}, leaf0, leaf1), leaf2);
+
+        assertThat(tree.hash(write(content))).isEqualTo(HexFormat.of().formatHex(root));
+    }
+
+    @Test
+    void incrementalHashMatchesWholeFile() throws Exception {
+        byte[] content = randomBytes(3 * LEAF + 1);
+        Path file = write(content);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             ContentHasher.Hashing hashing = tree.start(channel)) {
+            for (long end = 0; end < content.length; end += 77_777) {
+                hashing.advance(end);
+            }
+            assertThat(hashing.finish(content.length)).isEqualTo(tree.hash(file));
+        }
+    }
+
+    @Test
+    void smallAndEmptyContentIsOneLeaf() throws Exception {
+        byte[] content = randomBytes(1000);
+
+        assertThat(tree.hash(write(content))).isEqualTo(HexFormat.of().formatHex(sha256(new byte[]{0}, content)));
+        assertThat(tree.hash(write(new byte[0]))).isEqualTo(HexFormat.of().formatHex(sha256(new byte[]{0})));
+    }
+
+    @Test
+    void flatAlgorithmsMatchTheJdkDigests() throws Exception {
+        byte[] content = randomBytes(LEAF + 7);
+        Path file = write(content);
+
+        ContentHasher md5 = new ContentHasher(ContentHasher.Algorithm.MD5, 1, false);
+        ContentHasher sha256 = new ContentHasher(ContentHasher.Algorithm.SHA_256, 1, false);
+        try {
+            assertThat(md5.hash(file)).isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content)));
+            assertThat(sha256.hash(file)).isEqualTo(HexFormat.of().formatHex(sha256(content)));
+        } finally {
+            md5.shutdown();
+            sha256.shutdown();
+        }
+    }
+
+    @Test
+    void writtenBytesAreHashedWithTheLegacyMd5InOnePass() throws Exception {
+        byte[] content = randomBytes(LEAF + 4321);
+        Path file = write(content);
+
+        ContentHasher sha256 = new ContentHasher(ContentHasher.Algorithm.SHA_256, 1, true);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             ContentHasher.Hashing hashing = sha256.start(channel)) {
+            for (int from = 0; from < content.length; from += 65_536) {
+                int to = Math.min(content.length, from + 65_536);
+                hashing.written(ByteBuffer.wrap(content, from, to - from), to);
+            }
+            assertThat(hashing.finish(content.length)).isEqualTo(HexFormat.of().formatHex(sha256(content)));
+            assertThat(hashing.legacyHash()).isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content)));
+        } finally {
+            sha256.shutdown();
+        }
+    }
+
+    @Test
+    void hexIsLowerCaseAndPadded() {
+        byte[] bytes = {0x00, 0x0f, (byte) 0xa0, (byte) 0xff};
+
+        assertThat(ContentHasher.hex(bytes)).isEqualTo("000fa0ff");
+    }
+
+    private Path write(byte[] content) throws Exception {
+        return Files.write(Files.createTempFile(dir, "content", ".bin"), content);
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] sha256(byte[]... parts) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        for (byte[] part : parts) {
+            digest.update(part);
+        }
+        return digest.digest();
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.portfolio.Service;
+
+import com.example.portfolio.Repository.ProjectRepository;
+import com.example.portfolio.dto.CursorPage;
+import com.example.portfolio.dto.FeedItem;
+import com.example.portfolio.dto.ProjectSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FeedServiceTests {
+
+    private static final long READER = 1;
+    private static final long CELEBRITY = 1000;
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private final List<FeedItem> projects = new ArrayList<>();
+    private ProjectRepository projectRepository;
+    private FollowGraph followGraph;
+    private FeedService feedService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        projectRepository = mock(ProjectRepository.class);
+        when(projectRepository.findFeedItemsByAuthors(anyCollection(), any(Limit.class))).thenAnswer(invocation -> {
+            Collection<Long> authors = invocation.getArgument(0);
+            Limit limit = invocation.getArgument(1);
+            return projects.stream().filter(p -> authors.contains(p.authorId()))
+                    .sorted(FeedItem.NEWEST_FIRST).limit(limit.max()).toList();
+        });
+        when(projectRepository.findFeedItemsByAuthorsBefore(anyCollection(), any(), any(), any(Limit.class))).thenAnswer(invocation -> {
+            Collection<Long> authors = invocation.getArgument(0);
+            FeedItem probe = new FeedItem(invocation.getArgument(2), null, invocation.getArgument(1));
+            Limit limit = invocation.getArgument(3);
+            return projects.stream().filter(p -> authors.contains(p.authorId()))
+                    .filter(p -> FeedItem.NEWEST_FIRST.compare(p, probe) > 0)
+                    .sorted(FeedItem.NEWEST_FIRST).limit(limit.max()).toList();
+        });
+        when(projectRepository.findSummariesByIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> new ProjectSummary(id, "Project " + id, null, null, null, null, 0, null, "user", 0L)).toList();
+        });
+
+        when(projectRepository.findSummariesInOrder(anyList())).thenCallRealMethod();
+
+        followGraph = new FollowGraph(mock(JdbcTemplate.class));
+        // The celebrity has 3 followers, which is over the threshold of 2
+        for (long follower : new long[]{READER, 2, 3}) {
+            followGraph.addEdge(follower, CELEBRITY);
+        }
+        followGraph.addEdge(READER, 10);
+        followGraph.addEdge(READER, 11);
+
+        feedService = new FeedService(projectRepository, followGraph, 5, 2, Duration.ofMinutes(30));
+    }
+
+    @Test
+    void mergesFannedOutAndCelebrityProjectsNewestFirst() {
+        seed(1, 10, 0);
+        seed(2, 11, 1);
+        seed(3, CELEBRITY, 2);
+        seed(4, 99, 3); // not followed
+
+        assertThat(ids(feedService.getFeed(READER, null, 10))).containsExactly(3L, 2L, 1L);
+
+        // New projects reach the active timeline without rebuilding it
+        clearInvocations(projectRepository);
+        feedService.publish(seed(5, 10, 4));
+        feedService.publish(seed(6, CELEBRITY, 5));
+        assertThat(ids(feedService.getFeed(READER, null, 10))).containsExactly(6L, 5L, 3L, 2L, 1L);
+        verify(projectRepository, never()).findFeedItemsByAuthors(anyCollection(), any(Limit.class));
+    }
+
+    @Test
+    void pagesPastTheTimelineFallBackToTheDatabase() {
+        for (int i = 1; i <= 12; i++) {
+            seed(i, i % 2 == 0 ? 10 : 11, i);
+        }
+
+        CursorPage<ProjectSummary> first = feedService.getFeed(READER, null, 4);
+        assertThat(ids(first)).containsExactly(12L, 11L, 10L, 9L);
+
+        // The timeline holds five entries, so the second page crosses its horizon
+        CursorPage<ProjectSummary> second = feedService.getFeed(READER, first.nextCursor(), 4);
+        assertThat(ids(second)).containsExactly(8L, 7L, 6L, 5L);
+        verify(projectRepository).findFeedItemsByAuthorsBefore(anyCollection(), any(), any(), any(Limit.class));
+
+        CursorPage<ProjectSummary> last = feedService.getFeed(READER, second.nextCursor(), 4);
+        assertThat(ids(last)).containsExactly(4L, 3L, 2L, 1L);
+        assertThat(last.nextCursor()).isNull();
+    }
+
+    @Test
+    void changingFollowsRebuildsTheTimeline() {
+        seed(1, 10, 0);
+        seed(2, 12, 1);
+        assertThat(ids(feedService.getFeed(READER, null, 10))).containsExactly(1L);
+
+        followGraph.addEdge(READER, 12);
+        feedService.invalidate(READER);
+        assertThat(ids(feedService.getFeed(READER, null, 10))).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void projectPublishedWhileTheTimelineIsBuiltIsNotLost() {
+        seed(1, 10, 0);
+        FeedItem published = new FeedItem(2L, 10L, T0.plusMinutes(1));
+        // The build reads a snapshot from before the project was committed, and the fan-out runs during the query
+        when(projectRepository.findFeedItemsByAuthors(anyCollection(), any(Limit.class))).thenAnswer(invocation -> {
+            Collection<Long> authors = invocation.getArgument(0);
+            List<FeedItem> snapshot = projects.stream().filter(p -> authors.contains(p.authorId())).toList();
+            if (authors.contains(10L)) {
+                projects.add(published);
+                feedService.publish(published);
+            }
+            return snapshot;
+        });
+
+        assertThat(ids(feedService.getFeed(READER, null, 10))).containsExactly(2L, 1L);
+    }
+
+    private FeedItem seed(long projectId, long authorId, int minutes) {
+        FeedItem item = new FeedItem(projectId, authorId, T0.plusMinutes(minutes));
+        projects.add(item);
+        return item;
+    }
+
+    private static List<Long> ids(CursorPage<ProjectSummary> page) {
+        return page.items().stream().map(ProjectSummary::id).toList();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.portfolio.Service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class FollowGraphTests {
+
+    @Test
+    void followAndUnfollowWriteThroughOnce() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        FollowGraph graph = new FollowGraph(jdbcTemplate);
+
+        assertThat(graph.follow(1, 2)).isTrue();
+        assertThat(graph.follow(1, 2)).isFalse();
+        assertThat(graph.isFollowing(1, 2)).isTrue();
+        assertThat(graph.isFollowing(2, 1)).isFalse();
+        assertThat(graph.followingCount(1)).isEqualTo(1);
+        assertThat(graph.followerCount(2)).isEqualTo(1);
+
+        assertThat(graph.unfollow(1, 2)).isTrue();
+        assertThat(graph.unfollow(1, 2)).isFalse();
+        assertThat(graph.isFollowing(1, 2)).isFalse();
+        assertThat(graph.edgeCount()).isZero();
+
+        verify(jdbcTemplate, times(1)).update(startsWith("INSERT"), any(Object[].class));
+        verify(jdbcTemplate, times(1)).update(startsWith("DELETE"), any(Object[].class));
+    }
+
+    @Test
+    void mutualFollowsAreSortedAndSymmetric() {
+        FollowGraph graph = new FollowGraph(mock(JdbcTemplate.class));
+        for (long other = 2; other <= 10; other++) {
+            graph.addEdge(1, other);
+            if (other % 3 == 0) {
+                graph.addEdge(other, 1);
+            }
+        }
+        graph.addEdge(11, 1);
+
+        assertThat(graph.mutualOf(1)).containsExactly(3, 6, 9);
+        assertThat(graph.followersOf(1)).containsExactly(3, 6, 9, 11);
+        assertThat(graph.mutualOf(3)).containsExactly(1);
+    }
+
+    @Test
+    void largeRandomGraphMatchesASetBasedModel() {
+        FollowGraph graph = new FollowGraph(mock(JdbcTemplate.class));
+        Map<Long, Set<Long>> following = new HashMap<>();
+        Map<Long, Set<Long>> followers = new HashMap<>();
+        Random random = new Random(42);
+        int users = 2_000;
+        for (int i = 0; i < 100_000; i++) {
+            long follower = 1 + random.nextInt(users);
+            long followed = 1 + random.nextInt(users);
+            if (follower == followed) {
+                continue;
+            }
+            // Every fifth step removes instead, so the sets also shrink and refill
+            if (i % 5 == 0) {
+                graph.unfollow(follower, followed);
+                following.getOrDefault(follower, new HashSet<>()).remove(followed);
+                followers.getOrDefault(followed, new HashSet<>()).remove(follower);
+            } else {
+                graph.addEdge(follower, followed);
+                following.computeIfAbsent(follower, id -> new HashSet<>()).add(followed);
+                followers.computeIfAbsent(followed, id -> new HashSet<>()).add(follower);
+            }
+        }
+
+        assertThat(graph.edgeCount()).isEqualTo(following.values().stream().mapToLong(Set::size).sum());
+        for (long user = 1; user <= users; user++) {
+            Set<Long> out = following.getOrDefault(user, Set.of());
+            Set<Long> in = followers.getOrDefault(user, Set.of());
+            assertThat(graph.followingCount(user)).isEqualTo(out.size());
+            assertThat(graph.followerCount(user)).isEqualTo(in.size());
+            assertThat(graph.followingOf(user)).containsExactlyInAnyOrder(sorted(out));
+            assertThat(graph.followersOf(user)).containsExactlyInAnyOrder(sorted(in));
+            assertThat(graph.mutualOf(user)).containsExactly(sorted(out.stream().filter(in::contains).toList()));
+        }
+    }
+
+    private static long[] sorted(Collection<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+}
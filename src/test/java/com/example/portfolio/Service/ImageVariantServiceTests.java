@@ -0,0 +1,70 @@
+package com.example.portfolio.Service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageVariantServiceTests {
+
+    private static final String WIDE = "ab12".repeat(16) + ".png";
+    private static final String SMALL = "cd34".repeat(16) + ".png";
+
+    @TempDir
+    Path uploadDir;
+
+    private final ContentHasher contentHasher = new ContentHasher(ContentHasher.Algorithm.SHA_256, 1, false);
+    private PackStore packStore;
+    private MediaStorage mediaStorage;
+    private ImageVariantService variantService;
+
+    @BeforeEach
+    void setUp() {
+        packStore = new PackStore(uploadDir.toString(), DataSize.ofMegabytes(1), DataSize.ofKilobytes(64), 0.5, 600_000);
+        mediaStorage = new MediaStorage(contentHasher, packStore, new SimpleMeterRegistry(), uploadDir.toString());
+        variantService = new ImageVariantService(mediaStorage, 1, 10, 100_000);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        variantService.shutdown();
+        packStore.close();
+        contentHasher.shutdown();
+    }
+
+    @Test
+    void wideImagesAreDecodedSubsampled() throws Exception {
+        write(WIDE, 6000, 10);
+
+        variantService.generate(WIDE);
+
+        BufferedImage full = ImageIO.read(mediaStorage.resolve(ImageVariant.FULL.filenameFor(WIDE)).toFile());
+        assertThat(full.getWidth()).isEqualTo(ImageVariant.FULL.getWidth());
+        assertThat(mediaStorage.exists(ImageVariant.THUMBNAIL.filenameFor(WIDE))).isTrue();
+    }
+
+    @Test
+    void imagesOverThePixelLimitGetNoVariants() throws Exception {
+        write(SMALL, 400, 400);
+
+        variantService.generate(SMALL);
+
+        for (ImageVariant variant : ImageVariant.values()) {
+            assertThat(mediaStorage.exists(variant.filenameFor(SMALL))).isFalse();
+        }
+    }
+
+    private void write(String filename, int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        ImageIO.write(image, "png", Files.createFile(mediaStorage.resolveForWrite(filename)).toFile());
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.portfolio.Service;
+
+import com.example.portfolio.H2Test;
+import com.example.portfolio.Repository.ProjectRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@H2Test
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:likes;" + H2Test.URL_OPTIONS)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class LikeBufferTests {
+
+    private static final int USERS = 200;
+    private static final int PROJECTS = 5;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> users = new ArrayList<>();
+        for (long user = 1; user <= USERS; user++) {
+            users.add(new Object[]{user, "user" + user});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, username) VALUES (?, ?)", users);
+        List<Object[]> projects = new ArrayList<>();
+        for (long project = 1; project <= PROJECTS; project++) {
+            projects.add(new Object[]{project, "Project " + project});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO project_entity (id, title, likes, version) VALUES (?, ?, 0, 0)", projects);
+    }
+
+    // User 1 already liked project 1 before the buffer was created
+    @BeforeEach
+    void resetLikes() {
+        jdbcTemplate.update("DELETE FROM users_liked_projects");
+        jdbcTemplate.update("UPDATE project_entity SET likes = 0");
+        jdbcTemplate.update("INSERT INTO users_liked_projects (user_entity_id, liked_projects_id) VALUES (1, 1)");
+    }
+
+    @Test
+    void concurrentLikesAreNeitherLostNorDoubleCounted() throws Exception {
+        // Far fewer cached users than likers, so sets are dropped and reloaded while likes come in
+        LikeBuffer buffer = newBuffer(16, Duration.ofMinutes(30));
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean done = new AtomicBoolean();
+
+        Thread flusher = new Thread(() -> {
+            while (!done.get()) {
+                buffer.flush();
+            }
+        });
+        flusher.start();
+
+        // Every user likes every project three times from different threads
+        for (int attempt = 0; attempt < 3; attempt++) {
+            for (long user = 1; user <= USERS; user++) {
+                long userId = user;
+                pool.submit(() -> {
+                    start.await();
+                    for (long project = 1; project <= PROJECTS; project++) {
+                        buffer.like(userId, project);
+                    }
+                    return null;
+                });
+            }
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        done.set(true);
+        flusher.join();
+        buffer.flushOnShutdown();
+
+        assertThat(likesOf(1)).isEqualTo(USERS - 1);
+        for (long project = 2; project <= PROJECTS; project++) {
+            assertThat(likesOf(project)).isEqualTo(USERS);
+            assertThat(buffer.pendingLikes(project)).isZero();
+        }
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users_liked_projects", Integer.class))
+                .isEqualTo(USERS * PROJECTS);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (SELECT DISTINCT user_entity_id, liked_projects_id FROM users_liked_projects) edges",
+                Integer.class))
+                .isEqualTo(USERS * PROJECTS);
+    }
+
+    @Test
+    void idleAndExcessUsersAreDroppedOnceFlushed() {
+        LikeBuffer buffer = newBuffer(2, Duration.ofMinutes(30));
+        for (long user = 2; user <= 5; user++) {
+            buffer.like(user, 1);
+        }
+        assertThat(buffer.cachedUsers()).isEqualTo(4);
+
+        buffer.flush();
+        assertThat(buffer.cachedUsers()).isEqualTo(2);
+        // The reloaded set still knows about the flushed like
+        assertThat(buffer.like(2, 1)).isFalse();
+
+        LikeBuffer idle = newBuffer(100, Duration.ZERO);
+        idle.like(2, 1);
+        idle.flush();
+        assertThat(idle.cachedUsers()).isZero();
+    }
+
+    private int likesOf(long projectId) {
+        return jdbcTemplate.queryForObject("SELECT likes FROM project_entity WHERE id = ?", Integer.class, projectId);
+    }
+
+    private LikeBuffer newBuffer(int maxCachedUsers, Duration idleTimeout) {
+        return new LikeBuffer(projectRepository, jdbcTemplate, transactionManager, maxCachedUsers, idleTimeout);
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.portfolio.Service;
+
+import com.example.portfolio.Repository.MediaObjectRepository;
+import com.example.portfolio.dto.MediaReference;
+import com.example.portfolio.entity.MediaObjectEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MediaGarbageCollectorTests {
+
+    private static final String USED = "a".repeat(64) + ".png";
+    private static final String SHARED = "b".repeat(64) + ".jpg";
+    private static final String ORPHAN = "c".repeat(64) + ".png";
+    private static final String RECENT = "d".repeat(64) + ".gif";
+
+    @TempDir
+    Path uploadDir;
+
+    private final MediaObjectRepository repository = mock(MediaObjectRepository.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ContentHasher contentHasher = new ContentHasher(ContentHasher.Algorithm.SHA_256, 1, false);
+    private PackStore packStore;
+    private MediaStorage mediaStorage;
+    private MediaIndex mediaIndex;
+    private MediaGarbageCollector collector;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        packStore = new PackStore(uploadDir.toString(), DataSize.ofMegabytes(1), DataSize.ofKilobytes(64), 0.5, 600_000);
+        mediaStorage = new MediaStorage(contentHasher, packStore, registry, uploadDir.toString());
+        mediaIndex = new MediaIndex(repository, mediaStorage, contentHasher, registry);
+        mediaIndex.load(List.of(indexed(USED, 1), indexed(SHARED, 2), indexed(ORPHAN, 1)));
+        // Batches of two, so the project images come in two pages
+        collector = new MediaGarbageCollector(repository, mediaStorage, mediaIndex, false, false,
+                Duration.ofHours(6), Duration.ofHours(1), 2, Duration.ZERO, registry);
+
+        when(repository.findProjectImageReferences(eq(0L), any())).thenReturn(List.of(
+                new MediaReference(3L, "/media/" + USED), new MediaReference(7L, "https://example.com/external.png")));
+        when(repository.findProjectImageReferences(eq(7L), any())).thenReturn(List.of(new MediaReference(9L, "/media/" + SHARED)));
+        when(repository.findProfileImageReferences(eq(0L), any())).thenReturn(List.of(new MediaReference(2L, "/media/" + SHARED)));
+
+        for (String filename : List.of(USED, "a".repeat(64) + "_thumb.png", SHARED, "b".repeat(64) + "_card.jpg",
+                ORPHAN, "c".repeat(64) + "_full.png", "upload-123.tmp", "notes.txt")) {
+            createFile(filename, Duration.ofDays(2));
+        }
+        createFile(RECENT, Duration.ofMinutes(5));
+        // Not migrated yet, still found in the flat directory
+        Files.move(mediaStorage.resolve(ORPHAN), uploadDir.resolve(ORPHAN));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        collector.shutdown();
+        packStore.close();
+        contentHasher.shutdown();
+    }
+
+    @Test
+    void deletesOnlyUnreferencedFilesPastTheGracePeriod() throws Exception {
+        MediaGarbageCollector.Report report = collector.collect(false);
+
+        assertThat(mediaStorage.resolve(USED)).exists();
+        assertThat(mediaStorage.resolve("a".repeat(64) + "_thumb.png")).exists();
+        assertThat(mediaStorage.resolve(SHARED)).exists();
+        assertThat(mediaStorage.resolve("b".repeat(64) + "_card.jpg")).exists();
+        assertThat(mediaStorage.resolve(RECENT)).exists();
+        assertThat(mediaStorage.resolve("notes.txt")).exists();
+        assertThat(mediaStorage.resolve(ORPHAN)).doesNotExist();
+        assertThat(mediaStorage.resolve("c".repeat(64) + "_full.png")).doesNotExist();
+        assertThat(mediaStorage.resolve("upload-123.tmp")).doesNotExist();
+
+        assertThat(report.referenced()).isEqualTo(2);
+        assertThat(report.scanned()).isEqualTo(9);
+        assertThat(report.collected()).isEqualTo(3);
+        assertThat(report.collectedBytes()).isEqualTo(3 * 16);
+        assertThat(report.withinGracePeriod()).isEqualTo(1);
+        assertThat(report.unrecognized()).isEqualTo(1);
+        assertThat(report.missing()).isZero();
+        assertThat(collector.getLastReport()).isEqualTo(report);
+
+        verify(repository).deleteById("c".repeat(64));
+        assertThat(mediaIndex.lookup("c".repeat(64))).isNull();
+        assertThat(mediaIndex.lookup("a".repeat(64))).isEqualTo("/media/" + USED);
+        assertThat(registry.get("portfolio.media.gc.collected").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void dryRunReportsWithoutDeleting() throws Exception {
+        MediaGarbageCollector.Report report = collector.collect(true);
+
+        assertThat(report.dryRun()).isTrue();
+        assertThat(report.collected()).isEqualTo(3);
+        assertThat(report.collectedSample()).containsExactlyInAnyOrder(ORPHAN, "c".repeat(64) + "_full.png", "upload-123.tmp");
+        assertThat(mediaStorage.resolve(ORPHAN)).exists();
+        assertThat(mediaStorage.resolve("upload-123.tmp")).exists();
+        verify(repository, never()).deleteById(anyString());
+        assertThat(registry.get("portfolio.media.gc.collected").counter().count()).isZero();
+    }
+
+    @Test
+    void reportsReferencedFilesThatAreMissing() throws Exception {
+        Files.delete(mediaStorage.resolve(SHARED));
+
+        MediaGarbageCollector.Report report = collector.collect(true);
+
+        assertThat(report.missing()).isEqualTo(1);
+        assertThat(report.missingSample()).containsExactly(SHARED);
+    }
+
+    @Test
+    void releasingTheLastReferenceLeavesTheFileToTheCollector() throws Exception {
+        mediaIndex.release("/media/" + ORPHAN);
+
+        assertThat(mediaStorage.resolve(ORPHAN)).exists();
+        assertThat(mediaIndex.lookup("c".repeat(64))).isNull();
+        verify(repository).deleteById("c".repeat(64));
+    }
+
+    @Test
+    void collectsUnreferencedPackedFiles() throws Exception {
+        Path temp = Files.write(mediaStorage.createTempFile("variant-"), new byte[16]);
+        String packedVariant = "a".repeat(64) + "_card.png";
+        String packedOrphan = "e".repeat(64) + "_card.png";
+        mediaStorage.place(temp, packedVariant, MediaStorage.Backend.PACK);
+        temp = Files.write(mediaStorage.createTempFile("variant-"), new byte[16]);
+        mediaStorage.place(temp, packedOrphan, MediaStorage.Backend.PACK);
+        // Packed just now, so only collectable with no grace period, once the clock has moved on
+        Thread.sleep(10);
+        MediaGarbageCollector eager = new MediaGarbageCollector(repository, mediaStorage, mediaIndex, false, false,
+                Duration.ofHours(6), Duration.ZERO, 2, Duration.ZERO, registry);
+        try {
+            eager.collect(false);
+        } finally {
+            eager.shutdown();
+        }
+
+        assertThat(mediaStorage.isPacked(packedVariant)).isTrue();
+        assertThat(mediaStorage.exists(packedOrphan)).isFalse();
+        assertThat(packStore.stats().deadBytes()).isPositive();
+    }
+
+    @Test
+    void fileReusedAfterTheRunStartedIsKept() throws Exception {
+        Instant cutoff = Instant.now().minus(Duration.ofHours(1));
+        Files.setLastModifiedTime(mediaStorage.resolve(ORPHAN), FileTime.from(Instant.now()));
+
+        assertThat(mediaIndex.deleteIfUnused(ORPHAN, cutoff)).isFalse();
+        assertThat(mediaStorage.resolve(ORPHAN)).exists();
+    }
+
+    private void createFile(String filename, Duration age) throws Exception {
+        Path file = Files.write(mediaStorage.resolveForWrite(filename), new byte[16]);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(age)));
+    }
+
+    private static MediaObjectEntity indexed(String filename, int refCount) {
+        MediaObjectEntity object = new MediaObjectEntity();
+        object.setHash(filename.substring(0, filename.lastIndexOf('.')));
+        object.setExtension(filename.substring(filename.lastIndexOf('.')));
+        object.setSize(16);
+        object.setRefCount(refCount);
+        return object;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.portfolio.Service;
+
+import com.example.portfolio.Repository.MediaObjectRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class MediaStorageTests {
+
+    @TempDir
+    Path uploadDir;
+
+    private final ContentHasher contentHasher = new ContentHasher(ContentHasher.Algorithm.SHA_256, 1, false);
+    private PackStore packStore;
+    private MediaStorage mediaStorage;
+
+    @BeforeEach
+    void setUp() {
+        packStore = new PackStore(uploadDir.toString(), DataSize.ofMegabytes(1), DataSize.ofKilobytes(64), 0.5, 600_000);
+        mediaStorage = new MediaStorage(contentHasher, packStore, new SimpleMeterRegistry(), uploadDir.toString());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        packStore.close();
+        contentHasher.shutdown();
+    }
+
+    @Test
+    void committedFilesLandInTheirShardDirectory() throws Exception {
+        MediaStorage.StagedMedia staged = mediaStorage.stage(new ByteArrayInputStream("portfolio".getBytes(StandardCharsets.UTF_8)));
+        String filename = mediaStorage.commit(staged, ".png");
+
+        Path expected = uploadDir.resolve(filename.substring(0, 2)).resolve(filename.substring(2, 4)).resolve(filename);
+        assertThat(expected).exists();
+        assertThat(mediaStorage.resolve(filename)).isEqualTo(expected);
+        assertThat(staged.tempFile()).doesNotExist();
+    }
+
+    @Test
+    void reuploadedContentReusesItsMd5NamedFile() throws Exception {
+        ContentHasher withLegacy = new ContentHasher(ContentHasher.Algorithm.SHA_256, 1, true);
+        MediaStorage storage = new MediaStorage(withLegacy, packStore, new SimpleMeterRegistry(), uploadDir.toString());
+        byte[] content = "stored before the switch".getBytes(StandardCharsets.UTF_8);
+        String md5 = HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content));
+        Files.write(storage.resolveForWrite(md5 + ".png"), content);
+        MediaIndex mediaIndex = new MediaIndex(mock(MediaObjectRepository.class), storage, withLegacy, new SimpleMeterRegistry());
+        mediaIndex.register(md5, ".png", content.length);
+
+        try {
+            MediaStorage.StagedMedia staged = storage.stage(new ByteArrayInputStream(content));
+            MediaIndex.StoredMedia stored = mediaIndex.store(staged, ".png");
+
+            assertThat(staged.legacyHash()).isEqualTo(md5);
+            assertThat(stored.deduplicated()).isTrue();
+            assertThat(stored.url()).isEqualTo("/media/" + md5 + ".png");
+            assertThat(storage.exists(staged.hash() + ".png")).isFalse();
+        } finally {
+            withLegacy.shutdown();
+        }
+    }
+
+    @Test
+    void md5NamedFilesAreReusedThroughTheirBackfilledContentHash() throws Exception {
+        MediaObjectRepository repository = mock(MediaObjectRepository.class);
+        byte[] content = "stored before the switch".getBytes(StandardCharsets.UTF_8);
+        String md5 = HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content));
+        Files.write(mediaStorage.resolveForWrite(md5 + ".png"), content);
+        MediaIndex mediaIndex = new MediaIndex(repository, mediaStorage, contentHasher, new SimpleMeterRegistry());
+        mediaIndex.register(md5, ".png", content.length);
+
+        assertThat(mediaIndex.backfillContentHashes()).isEqualTo(1);
+        assertThat(mediaIndex.backfillContentHashes()).isZero();
+
+        MediaStorage.StagedMedia staged = mediaStorage.stage(new ByteArrayInputStream(content));
+        MediaIndex.StoredMedia stored = mediaIndex.store(staged, ".png");
+
+        verify(repository).setContentHash(md5, staged.hash());
+        assertThat(staged.legacyHash()).isNull();
+        assertThat(stored.deduplicated()).isTrue();
+        assertThat(stored.url()).isEqualTo("/media/" + md5 + ".png");
+        assertThat(mediaIndex.lookup(staged.hash())).isEqualTo("/media/" + md5 + ".png");
+        assertThat(mediaStorage.exists(staged.hash() + ".png")).isFalse();
+    }
+
+    @Test
+    void flatFilesResolveUntilTheyAreMigrated() throws Exception {
+        String hashed = "0123abcd".repeat(8) + ".jpg";
+        String variant = "0123abcd".repeat(8) + "_thumb.jpg";
+        Files.writeString(uploadDir.resolve(hashed), "image");
+        Files.writeString(uploadDir.resolve(variant), "thumbnail");
+        Files.writeString(uploadDir.resolve("Holiday.png"), "hand-named");
+        Files.writeString(uploadDir.resolve("upload-1.tmp"), "partial");
+
+        assertThat(mediaStorage.resolve(hashed)).isEqualTo(uploadDir.resolve(hashed));
+
+        assertThat(mediaStorage.migrateFlatFiles(1)).isEqualTo(1);
+        assertThat(mediaStorage.migrateFlatFiles(100)).isEqualTo(1);
+        assertThat(mediaStorage.migrateFlatFiles(100)).isZero();
+
+        Path shard = uploadDir.resolve("01").resolve("23");
+        assertThat(mediaStorage.resolve(hashed)).isEqualTo(shard.resolve(hashed)).hasContent("image");
+        assertThat(mediaStorage.resolve(variant)).isEqualTo(shard.resolve(variant)).hasContent("thumbnail");
+        assertThat(mediaStorage.resolve("Holiday.png")).isEqualTo(uploadDir.resolve("Holiday.png"));
+        assertThat(mediaStorage.resolve("upload-1.tmp")).isEqualTo(uploadDir.resolve("upload-1.tmp"));
+    }
+
+    @Test
+    void walkVisitsFlatShardedAndPackedFiles() throws Exception {
+        Files.writeString(mediaStorage.resolveForWrite("ffee".repeat(16) + ".gif"), "sharded");
+        Files.writeString(uploadDir.resolve("abcd".repeat(16) + ".png"), "flat");
+        Files.createDirectories(uploadDir.resolve("ignored-directory"));
+        mediaStorage.commit(mediaStorage.stage(new ByteArrayInputStream(new byte[100])), ".jpg", MediaStorage.Backend.PACK);
+
+        List<String> visited = new ArrayList<>();
+        mediaStorage.walkFiles((filename, size, lastModified) -> visited.add(filename));
+
+        assertThat(visited).hasSize(3).contains("ffee".repeat(16) + ".gif", "abcd".repeat(16) + ".png");
+    }
+
+    @Test
+    void packBackendTakesOnlySmallFiles() throws Exception {
+        String small = mediaStorage.commit(mediaStorage.stage(new ByteArrayInputStream(new byte[1024])), ".png",
+                MediaStorage.Backend.PACK);
+        String large = mediaStorage.commit(mediaStorage.stage(new ByteArrayInputStream(new byte[128 * 1024])), ".png",
+                MediaStorage.Backend.PACK);
+
+        assertThat(mediaStorage.isPacked(small)).isTrue();
+        assertThat(mediaStorage.resolve(small)).doesNotExist();
+        assertThat(mediaStorage.readPacked(small).remaining()).isEqualTo(1024);
+        assertThat(mediaStorage.isPacked(large)).isFalse();
+        assertThat(mediaStorage.resolve(large)).hasSize(128 * 1024);
+        assertThat(mediaStorage.exists(small)).isTrue();
+
+        assertThat(mediaStorage.delete(small)).isTrue();
+        assertThat(mediaStorage.exists(small)).isFalse();
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.portfolio.Service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PackStoreTests {
+
+    @TempDir
+    Path uploadDir;
+
+    private PackStore packStore;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        packStore = open();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        packStore.close();
+    }
+
+    @Test
+    void readsBackAppendedEntries() throws Exception {
+        append("first.png", 100, (byte) 1);
+        append("second.png", 200, (byte) 2);
+
+        assertThat(content(packStore.read("first.png"))).hasSize(100).containsOnly(1);
+        assertThat(content(packStore.read("second.png"))).hasSize(200).containsOnly(2);
+        assertThat(packStore.read("missing.png")).isNull();
+        assertThat(packStore.read("first.png").isReadOnly()).isTrue();
+        assertThat(packStore.lastModified("first.png")).isNotNull();
+    }
+
+    @Test
+    void rejectsEntriesAboveTheSizeLimit() throws Exception {
+        Path source = Files.write(uploadDir.resolve("large.tmp"), new byte[5 * 1024]);
+
+        assertThat(packStore.accepts(5 * 1024)).isFalse();
+        assertThatThrownBy(() -> packStore.append("large.png", source, 5 * 1024)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void reopeningRebuildsTheIndex() throws Exception {
+        append("kept.png", 100, (byte) 1);
+        append("deleted.png", 100, (byte) 2);
+        append("replaced.png", 100, (byte) 3);
+        append("replaced.png", 50, (byte) 4);
+        packStore.delete("deleted.png");
+        packStore.close();
+
+        packStore = open();
+
+        assertThat(content(packStore.read("kept.png"))).containsOnly(1);
+        assertThat(packStore.contains("deleted.png")).isFalse();
+        assertThat(content(packStore.read("replaced.png"))).hasSize(50).containsOnly(4);
+        assertThat(packStore.stats().entries()).isEqualTo(2);
+    }
+
+    @Test
+    void tornRecordAtTheEndIsDropped() throws Exception {
+        append("complete.png", 100, (byte) 1);
+        append("torn.png", 100, (byte) 2);
+        packStore.close();
+        // Corrupt the data of the last record, as if the crash came before it was flushed
+        try (FileChannel channel = FileChannel.open(segment(1), StandardOpenOption.WRITE)) {
+            long lastData = (23 + "complete.png".length() + 100) + 23 + "torn.png".length();
+            channel.write(ByteBuffer.wrap(new byte[]{9, 9, 9}), lastData);
+        }
+
+        packStore = open();
+        append("next.png", 10, (byte) 3);
+
+        assertThat(content(packStore.read("complete.png"))).containsOnly(1);
+        assertThat(packStore.contains("torn.png")).isFalse();
+        assertThat(content(packStore.read("next.png"))).hasSize(10).containsOnly(3);
+    }
+
+    @Test
+    void compactionReclaimsDeletedEntries() throws Exception {
+        // 4KB entries in 16KB segments, so the first segment is sealed after four of them
+        for (int i = 0; i < 6; i++) {
+            append("entry-" + i + ".png", 4000, (byte) i);
+        }
+        packStore.delete("entry-0.png");
+        packStore.delete("entry-1.png");
+        assertThat(packStore.stats().segments()).isEqualTo(2);
+
+        assertThat(packStore.compact(10)).isEqualTo(1);
+
+        assertThat(segment(1)).doesNotExist();
+        assertThat(content(packStore.read("entry-2.png"))).hasSize(4000).containsOnly(2);
+        assertThat(packStore.stats().deadBytes()).isZero();
+        packStore.close();
+
+        packStore = open();
+        List<String> names = new ArrayList<>();
+        packStore.forEach((filename, size, lastModified) -> names.add(filename));
+        assertThat(names).containsExactlyInAnyOrder("entry-2.png", "entry-3.png", "entry-4.png", "entry-5.png");
+        assertThat(content(packStore.read("entry-5.png"))).containsOnly(5);
+    }
+
+    @Test
+    void compactionSkipsMostlyLiveSegments() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            append("entry-" + i + ".png", 4000, (byte) i);
+        }
+        packStore.delete("entry-0.png");
+
+        assertThat(packStore.compact(10)).isZero();
+        assertThat(segment(1)).exists();
+    }
+
+    private PackStore open() throws Exception {
+        PackStore store = new PackStore(uploadDir.toString(), DataSize.ofKilobytes(16), DataSize.ofKilobytes(4), 0.5, 600_000);
+        store.open();
+        return store;
+    }
+
+    private void append(String filename, int size, byte value) throws Exception {
+        byte[] data = new byte[size];
+        Arrays.fill(data, value);
+        Path source = Files.write(uploadDir.resolve(filename + ".tmp"), data);
+        packStore.append(filename, source, size);
+        Files.delete(source);
+    }
+
+    private Path segment(int id) {
+        return uploadDir.resolve("packs").resolve(String.format("segment-%06d.pack", id));
+    }
+
+    private static byte[] content(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.portfolio.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseBodyCacheTests {
+
+    private final AtomicInteger serializations = new AtomicInteger();
+
+    @Test
+    void bodyIsReusedWhileTheETagIsCurrent() {
+        ResponseBodyCache cache = newCache(DataSize.ofMegabytes(1), false);
+
+        ResponseEntity<byte[]> first = cache.respond("project:1", "\"v1\"", get(null, null), () -> body("one"));
+        ResponseEntity<byte[]> second = cache.respond("project:1", "\"v1\"", get(null, null), () -> body("one"));
+
+        assertThat(serializations).hasValue(1);
+        assertThat(second.getBody()).isSameAs(first.getBody());
+        assertThat(new String(second.getBody(), StandardCharsets.UTF_8)).isEqualTo("{\"title\":\"one\"}");
+        assertThat(second.getHeaders().getETag()).isEqualTo("\"v1\"");
+    }
+
+    @Test
+    void newVersionReplacesTheCachedBody() {
+        ResponseBodyCache cache = newCache(DataSize.ofMegabytes(1), false);
+        cache.respond("project:1", "\"v1\"", get(null, null), () -> body("one"));
+
+        ResponseEntity<byte[]> changed = cache.respond("project:1", "\"v2\"", get(null, null), () -> body("two"));
+
+        assertThat(serializations).hasValue(2);
+        assertThat(new String(changed.getBody(), StandardCharsets.UTF_8)).contains("two");
+        assertThat(cache.stats().entries()).isEqualTo(1);
+    }
+
+    @Test
+    void matchingIfNoneMatchIsAnsweredWithoutSerializing() {
+        ResponseBodyCache cache = newCache(DataSize.ofMegabytes(1), false);
+
+        assertThat(cache.respond("project:1", "\"v1\"", get("\"v1\"", null), () -> body("one"))).isNull();
+        assertThat(serializations).hasValue(0);
+    }
+
+    @Test
+    void gzipClientsGetTheCompressedBodyUnderItsOwnETag() throws IOException {
+        ResponseBodyCache cache = newCache(DataSize.ofMegabytes(1), true);
+
+        ResponseEntity<byte[]> gzipped = cache.respond("project:1", "\"v1\"", get(null, "gzip, deflate"), () -> body("one"));
+        ResponseEntity<byte[]> plain = cache.respond("project:1", "\"v1\"", get(null, "identity"), () -> body("one"));
+
+        assertThat(serializations).hasValue(1);
+        assertThat(gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gzipped.getHeaders().getETag()).isEqualTo("\"v1-gzip\"");
+        assertThat(gunzip(gzipped.getBody())).isEqualTo(plain.getBody());
+        assertThat(plain.getHeaders().getETag()).isEqualTo("\"v1\"");
+        assertThat(plain.getHeaders().getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+
+        assertThat(cache.respond("project:1", "\"v1\"", get("\"v1-gzip\"", "gzip"), () -> body("one"))).isNull();
+    }
+
+    @Test
+    void totalBytesStayWithinTheBound() {
+        ResponseBodyCache cache = newCache(DataSize.ofBytes(1000), false);
+
+        for (int i = 0; i < 100; i++) {
+            cache.respond("project:" + i, "\"v1\"", get(null, null), () -> body("x".repeat(80)));
+        }
+
+        ResponseBodyCache.Stats stats = cache.stats();
+        assertThat(stats.bytes()).isLessThanOrEqualTo(1000);
+        assertThat(stats.entries()).isGreaterThan(0);
+        assertThat(stats.evictions()).isEqualTo(100 - stats.entries());
+    }
+
+    @Test
+    void qualityZeroRefusesGzip() {
+        assertThat(ResponseBodyCache.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(ResponseBodyCache.acceptsGzip("br, gzip;q=0.5")).isTrue();
+        assertThat(ResponseBodyCache.acceptsGzip("deflate")).isFalse();
+    }
+
+    private ResponseBodyCache newCache(DataSize maxSize, boolean gzip) {
+        return new ResponseBodyCache(new ObjectMapper(), maxSize, gzip);
+    }
+
+    private Map<String, String> body(String title) {
+        serializations.incrementAndGet();
+        return Map.of("title", title);
+    }
+
+    private static ServletWebRequest get(String ifNoneMatch, String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/projects/project/1");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
+    private static byte[] gunzip(byte[] gzipped) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.portfolio.Service;
+
+import com.example.portfolio.dto.CursorPage;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SearchIndexTests {
+
+    private final SearchIndex index = new SearchIndex(mock(JdbcTemplate.class), 1);
+
+    @Test
+    void tokenizesOnLettersAndDigits() {
+        assertThat(SearchIndex.tokenize("Spring-Boot 3, a REST API! Çalışma"))
+                .containsExactly("spring", "boot", "rest", "api", "çalışma");
+    }
+
+    @Test
+    void ranksTitleMatchesAboveDescriptionAndComments() {
+        index.indexProject(1, "Weather app", "Shows the forecast");
+        index.indexProject(2, "Chess engine", "Plays chess, has a weather widget");
+        index.indexProject(3, "Blog", "Markdown blog");
+        index.addComment(3, "Would love a weather page");
+
+        assertThat(ids(index.search("weather ", null, 10))).containsExactly(1L, 2L, 3L);
+        assertThat(ids(index.search("chess weather", null, 10))).containsExactly(2L);
+    }
+
+    @Test
+    void lastWordMatchesAsPrefixUntilItIsComplete() {
+        index.indexProject(1, "Portfolio site", null);
+        index.indexProject(2, "Port scanner", null);
+
+        assertThat(ids(index.search("port", null, 10))).containsExactly(2L, 1L);
+        assertThat(ids(index.search("port ", null, 10))).containsExactly(2L);
+    }
+
+    @Test
+    void updatesReplaceOldTermsButKeepComments() {
+        index.indexProject(1, "Todo list", null);
+        index.addComment(1, "nice kanban board");
+        index.indexProject(1, "Task board", null);
+
+        assertThat(ids(index.search("todo ", null, 10))).isEmpty();
+        assertThat(ids(index.search("task ", null, 10))).containsExactly(1L);
+        assertThat(ids(index.search("kanban ", null, 10))).containsExactly(1L);
+
+        index.remove(1);
+        assertThat(ids(index.search("board ", null, 10))).isEmpty();
+        assertThat(index.termCount()).isZero();
+    }
+
+    @Test
+    void pagesThroughEqualScoresWithoutGapsOrRepeats() {
+        for (long id = 1; id <= 25; id++) {
+            index.indexProject(id, "Game " + id, null);
+        }
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<Long> page = index.search("game ", cursor, 10);
+            seen.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).hasSize(25).doesNotHaveDuplicates().isSorted();
+    }
+
+    private static List<Long> ids(CursorPage<Long> page) {
+        return page.items();
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.portfolio.Service;
+
+import com.example.portfolio.H2Test;
+import com.example.portfolio.Repository.ProjectRepository;
+import com.example.portfolio.config.StatementCountingDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@H2Test
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:trending;" + H2Test.URL_OPTIONS)
+class TrendingServiceTests {
+
+    private static final Duration HALF_LIFE = Duration.ofHours(24);
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-03-01T12:00:00Z"));
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void clearCheckpoint() {
+        jdbcTemplate.update("DELETE FROM trending_scores");
+    }
+
+    @Test
+    void recentActivityOutranksOlderActivity() {
+        TrendingService trending = newService(10);
+
+        // Four likes two days ago are worth one like now
+        for (int i = 0; i < 4; i++) {
+            trending.recordLike(1);
+        }
+        clock.advance(HALF_LIFE.multipliedBy(2));
+        trending.recordLike(2);
+        trending.recordLike(2);
+        trending.recordComment(3);
+
+        assertThat(trending.topIds(3)).containsExactly(3L, 2L, 1L);
+        assertThat(trending.currentScore(1)).isCloseTo(1.0, within(1e-9));
+        assertThat(trending.currentScore(2)).isCloseTo(2.0, within(1e-9));
+    }
+
+    @Test
+    void keepsOnlyTheTopK() {
+        TrendingService trending = newService(3);
+        for (long projectId = 1; projectId <= 10; projectId++) {
+            for (int i = 0; i < projectId; i++) {
+                trending.recordLike(projectId);
+            }
+        }
+        assertThat(trending.topIds(10)).containsExactly(10L, 9L, 8L);
+
+        // A project outside the top K comes back in once it is active again
+        for (int i = 0; i < 10; i++) {
+            trending.recordLike(2);
+        }
+        assertThat(trending.topIds(10)).containsExactly(2L, 10L, 9L);
+    }
+
+    @Test
+    void restartResumesFromTheCheckpoint() {
+        TrendingService before = newService(10);
+        before.recordLike(1);
+        before.recordComment(2);
+        before.checkpoint();
+        assertThat(checkpointed()).hasSize(2);
+
+        clock.advance(HALF_LIFE);
+        TrendingService after = newService(10);
+        after.loadCheckpoint();
+        assertThat(after.topIds(10)).containsExactly(2L, 1L);
+        assertThat(after.currentScore(1)).isCloseTo(0.5, within(1e-9));
+    }
+
+    @Test
+    void checkpointWritesOnlyChangedAndForgottenScores() {
+        TrendingService trending = newService(1);
+        trending.recordLike(1);
+        trending.recordLike(2);
+        trending.recordComment(3);
+        for (int i = 0; i < 100; i++) {
+            trending.recordLike(5);
+        }
+        trending.checkpoint();
+        assertThat(checkpointed()).containsOnlyKeys(1L, 2L, 3L, 5L);
+
+        // Marks every row, so a row that is written again shows up
+        jdbcTemplate.update("UPDATE trending_scores SET log_score = -1000");
+        StatementCountingDataSource.startCounting();
+        trending.checkpoint();
+        assertThat(StatementCountingDataSource.stopCounting()).isZero();
+
+        // A week later the single likes on 1 and 2 decayed below the threshold, the comment on 3 did not
+        // and gets a second one, and the likes on 5 are still worth keeping but did not change
+        clock.advance(Duration.ofDays(7));
+        trending.recordLike(4);
+        trending.recordComment(3);
+        trending.checkpoint();
+        Map<Long, Double> rows = checkpointed();
+        assertThat(rows).containsOnlyKeys(3L, 4L, 5L);
+        assertThat(rows.get(5L)).isEqualTo(-1000);
+        assertThat(Math.exp(rows.get(3L) - rows.get(4L))).isGreaterThan(3);
+    }
+
+    private Map<Long, Double> checkpointed() {
+        Map<Long, Double> rows = new HashMap<>();
+        jdbcTemplate.query("SELECT project_id, log_score FROM trending_scores",
+                rs -> { rows.put(rs.getLong(1), rs.getDouble(2)); });
+        return rows;
+    }
+
+    private TrendingService newService(int capacity) {
+        return new TrendingService(projectRepository, jdbcTemplate, new TransactionTemplate(transactionManager), clock,
+                HALF_LIFE, capacity, 1, 3);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.portfolio.config;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MediaBulkheadTests {
+
+    private static final int MAX_CONCURRENT = 2;
+    private static final int QUEUE_CAPACITY = 2;
+
+    private final MediaBulkhead bulkhead = new MediaBulkhead(MAX_CONCURRENT, QUEUE_CAPACITY, Duration.ofSeconds(30), Duration.ofSeconds(5));
+    private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+    private final CountDownLatch uploadsMayFinish = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        uploadsMayFinish.countDown();
+        threads.shutdownNow();
+    }
+
+    @Test
+    void uploadsBeyondTheQueueAreRejectedRightAway() throws Exception {
+        List<Future<MockHttpServletResponse>> admitted = saturateUploadLane();
+
+        long start = System.nanoTime();
+        MockHttpServletResponse rejected = send(upload(), slowUpload());
+        long elapsed = System.nanoTime() - start;
+
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("5");
+        assertThat(Duration.ofNanos(elapsed)).isLessThan(Duration.ofMillis(100));
+        assertThat(bulkhead.stats().rejected()).isEqualTo(1);
+
+        // Once the running uploads finish, the queued ones go through
+        uploadsMayFinish.countDown();
+        for (Future<MockHttpServletResponse> response : admitted) {
+            assertThat(response.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+        }
+        assertThat(bulkhead.stats().active()).isZero();
+    }
+
+    @Test
+    void readLatencyStaysFlatWhileTheUploadLaneIsFull() throws Exception {
+        long[] idle = readLatencies(200);
+        saturateUploadLane();
+        long[] loaded = readLatencies(200);
+
+        assertThat(bulkhead.stats().active()).isEqualTo(MAX_CONCURRENT);
+        // Reads bypass the lane entirely, so the busy uploads add nothing beyond scheduling noise
+        assertThat(percentile(loaded, 0.99)).isLessThan(percentile(idle, 0.99) + TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    void onlyUploadBodiesEnterTheLane() {
+        assertThat(MediaBulkhead.isUpload("multipart/form-data; boundary=abc")).isTrue();
+        assertThat(MediaBulkhead.isUpload(MediaType.APPLICATION_OCTET_STREAM_VALUE)).isTrue();
+        assertThat(MediaBulkhead.isUpload(MediaType.APPLICATION_JSON_VALUE)).isFalse();
+        assertThat(MediaBulkhead.isUpload(null)).isFalse();
+    }
+
+    // Fills every running slot and every queue slot with uploads that block until released
+    private List<Future<MockHttpServletResponse>> saturateUploadLane() throws InterruptedException {
+        List<Future<MockHttpServletResponse>> admitted = new ArrayList<>();
+        for (int i = 0; i < MAX_CONCURRENT + QUEUE_CAPACITY; i++) {
+            admitted.add(threads.submit(() -> send(upload(), slowUpload())));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((bulkhead.stats().active() < MAX_CONCURRENT || bulkhead.stats().queued() < QUEUE_CAPACITY)
+                && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        return admitted;
+    }
+
+    private long[] readLatencies(int reads) throws Exception {
+        List<Future<Long>> timings = new ArrayList<>();
+        for (int i = 0; i < reads; i++) {
+            timings.add(threads.submit(() -> {
+                long start = System.nanoTime();
+                send(read(), (request, response) -> response.getWriter().write("{\"id\":1}"));
+                return System.nanoTime() - start;
+            }));
+        }
+        long[] latencies = new long[reads];
+        for (int i = 0; i < reads; i++) {
+            latencies[i] = timings.get(i).get(5, TimeUnit.SECONDS);
+        }
+        return latencies;
+    }
+
+    private FilterChain slowUpload() {
+        return (request, response) -> {
+            try {
+                uploadsMayFinish.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        bulkhead.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest upload() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/projects/1/upload-video");
+        request.setContentType("multipart/form-data; boundary=abc");
+        return request;
+    }
+
+    private static MockHttpServletRequest read() {
+        return new MockHttpServletRequest("GET", "/api/v1/projects/project/1");
+    }
+
+    private static long percentile(long[] values, double p) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(p * sorted.length) - 1];
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.portfolio.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StatementMetricsFilterTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final StatementMetricsFilter filter = new StatementMetricsFilter(registry);
+    private final DataSource dataSource;
+
+    StatementMetricsFilterTests() throws Exception {
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).then(invocation -> mock(Connection.class));
+        dataSource = new StatementCountingDataSource(pool);
+    }
+
+    @Test
+    void recordsStatementsPerRouteTemplate() throws Exception {
+        handle("/api/v1/projects/project/{id}", 2);
+        handle("/api/v1/projects/project/{id}", 4);
+        handle("/api/v1/projects/feed", 1);
+
+        DistributionSummary project = registry.get("portfolio.http.statements").tag("uri", "/api/v1/projects/project/{id}").summary();
+        assertThat(project.count()).isEqualTo(2);
+        assertThat(project.totalAmount()).isEqualTo(6);
+        assertThat(project.max()).isEqualTo(4);
+        assertThat(registry.get("portfolio.http.statements").tag("uri", "/api/v1/projects/feed").summary().totalAmount()).isEqualTo(1);
+    }
+
+    @Test
+    void statementsOutsideRequestsAreNotCounted() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.prepareStatement("SELECT 1");
+        }
+        handle("/api/v1/projects/trending", 0);
+
+        assertThat(registry.get("portfolio.http.statements").summary().totalAmount()).isZero();
+        assertThat(StatementCountingDataSource.stopCounting()).isZero();
+    }
+
+    @Test
+    void connectionsAreEqualOnlyToThemselves() throws Exception {
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        assertThat(first).isEqualTo(first).isNotEqualTo(second);
+        assertThat(first.hashCode()).isEqualTo(first.hashCode());
+    }
+
+    private void handle(String route, int statements) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", route);
+        FilterChain chain = (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, route);
+            try (Connection connection = dataSource.getConnection()) {
+                for (int i = 0; i < statements; i++) {
+                    connection.prepareStatement("SELECT " + i);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.portfolio.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NearCacheTests {
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedFirst() {
+        NearCache<Integer, String> cache = new NearCache<>("test", 2, Duration.ofMinutes(5));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1, key -> "one" + loads.incrementAndGet());
+        cache.get(2, key -> "two" + loads.incrementAndGet());
+        cache.get(1, key -> "unused");
+        cache.get(3, key -> "three" + loads.incrementAndGet());
+
+        // 2 was used least recently, so it went and 1 stayed
+        assertThat(cache.get(1, key -> "reloaded")).isEqualTo("one1");
+        assertThat(cache.get(2, key -> "reloaded")).isEqualTo("reloaded");
+
+        NearCache.Stats stats = cache.stats();
+        assertThat(stats.size()).isEqualTo(2);
+        assertThat(stats.hits()).isEqualTo(2);
+        assertThat(stats.misses()).isEqualTo(4);
+        assertThat(stats.evictions()).isEqualTo(2);
+        assertThat(stats.hitRate()).isEqualTo(2 / 6.0);
+    }
+
+    @Test
+    void expiredEntriesAreReloaded() throws InterruptedException {
+        NearCache<Integer, String> cache = new NearCache<>("test", 10, Duration.ofMillis(20));
+        cache.get(1, key -> "old");
+        cache.get(2, key -> "old");
+
+        Thread.sleep(50);
+
+        assertThat(cache.get(1, key -> "new")).isEqualTo("new");
+        cache.purgeExpired();
+        assertThat(cache.stats().size()).isEqualTo(1);
+        assertThat(cache.stats().expirations()).isEqualTo(2);
+    }
+
+    @Test
+    void nullIsNotCached() {
+        NearCache<Integer, String> cache = new NearCache<>("test", 10, Duration.ofMinutes(5));
+
+        assertThat(cache.get(1, key -> null)).isNull();
+        assertThat(cache.get(1, key -> "found")).isEqualTo("found");
+    }
+
+    @Test
+    void loadRacingAnInvalidationIsNotStored() {
+        NearCache<Integer, String> cache = new NearCache<>("test", 10, Duration.ofMinutes(5));
+
+        // The row is changed and invalidated while the old version is being read
+        String value = cache.get(1, key -> {
+            cache.invalidate(1);
+            return "stale";
+        });
+
+        assertThat(value).isEqualTo("stale");
+        assertThat(cache.get(1, key -> "fresh")).isEqualTo("fresh");
+    }
+}